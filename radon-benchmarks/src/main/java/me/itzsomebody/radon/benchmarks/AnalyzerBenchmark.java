@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.asm.LoopAnalyzer;
+import me.itzsomebody.radon.asm.StackHeightAnalyzer;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs the analyses the transformers share over every method of the corpus. The analyses don't modify the methods,
+ * so the corpus is only loaded once per trial.
+ *
+ * @author ItzSomebody
+ */
+public class AnalyzerBenchmark extends CorpusBenchmark {
+    private List<String> owners;
+    private List<MethodNode> methodNodes;
+
+    @Setup(Level.Trial)
+    public void load() {
+        Radon radon = loadSession(Collections.emptyList());
+        this.owners = new ArrayList<>();
+        this.methodNodes = new ArrayList<>();
+        radon.classes.values().forEach(classWrapper -> classWrapper.methods.forEach(methodWrapper -> {
+            if (methodWrapper.methodNode.instructions.size() > 0) {
+                this.owners.add(classWrapper.classNode.name);
+                this.methodNodes.add(methodWrapper.methodNode);
+            }
+        }));
+        radon.closeJarFiles();
+    }
+
+    @Benchmark
+    public void stackHeights(Blackhole blackhole) {
+        for (MethodNode methodNode : this.methodNodes) {
+            blackhole.consume(StackHeightAnalyzer.analyze(methodNode));
+        }
+    }
+
+    @Benchmark
+    public void loops(Blackhole blackhole) {
+        for (int i = 0; i < this.methodNodes.size(); i++) {
+            blackhole.consume(LoopAnalyzer.analyze(this.owners.get(i), this.methodNodes.get(i)));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.util.Collections;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Writes every class of the corpus with frames computed by Radon's class writer. Every iteration starts with a fresh
+ * session, so the common super classes and ancestors the writer caches are computed within the measurement like they
+ * are when an output is written.
+ *
+ * @author ItzSomebody
+ */
+public class ClassWriterBenchmark extends CorpusBenchmark {
+    private Radon radon;
+
+    @Setup(Level.Iteration)
+    public void load() {
+        this.radon = loadSession(Collections.emptyList());
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        this.radon.closeJarFiles();
+    }
+
+    @Benchmark
+    public void writeClasses(Blackhole blackhole) {
+        for (ClassWrapper classWrapper : this.radon.classes.values()) {
+            blackhole.consume(this.radon.writeClass(classWrapper.classNode));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import me.itzsomebody.radon.Dictionaries;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.SessionInfo;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
+import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.utils.LoggerUtils;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base of every benchmark which runs on a {@link SyntheticCorpus}. The corpus is generated once per trial. Every
+ * benchmark processes the whole corpus once per iteration, so they run in single shot mode and set up a fresh
+ * session before every iteration.
+ * <p>
+ * Library classes are taken from the jars listed in the {@code radon.benchmarks.libraries} system property, or from
+ * the rt.jar of the running JRE if it isn't set.
+ *
+ * @author ItzSomebody
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public abstract class CorpusBenchmark {
+    @Param({"100", "1000"})
+    public int classes;
+
+    @Param({"10"})
+    public int methods;
+
+    @Param({"50", "500"})
+    public int methodSize;
+
+    @Param({"1"})
+    public long seed;
+
+    protected File corpus;
+    private List<File> libraries;
+
+    @Setup(Level.Trial)
+    public void generateCorpus() throws IOException {
+        LoggerUtils.setSilent(true);
+        this.corpus = new SyntheticCorpus(classes, methods, methodSize, seed).writeJar();
+        this.libraries = getLibraries();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() {
+        this.corpus.delete();
+    }
+
+    /**
+     * Creates a session for the corpus which runs the provided transformers. Nothing is loaded yet.
+     *
+     * @param transformers the transformers of the session.
+     * @return the session.
+     */
+    protected Radon createSession(List<Transformer> transformers) {
+        SessionInfo info = new SessionInfo();
+        info.setInput(this.corpus);
+        info.setOutput(new File(this.corpus.getPath() + ".out"));
+        info.setLibraries(this.libraries);
+        info.setTransformers(transformers);
+        info.setExclusions(new ExclusionManager());
+        info.setDictionaryType(Dictionaries.ALPHANUMERIC);
+
+        return new Radon(info);
+    }
+
+    /**
+     * Creates a session for the corpus which runs the provided transformers, loads the corpus and indexes its
+     * hierarchy.
+     *
+     * @param transformers the transformers of the session.
+     * @return the session.
+     */
+    protected Radon loadSession(List<Transformer> transformers) {
+        Radon radon = createSession(transformers);
+        radon.loadClassPath();
+        radon.loadInput();
+        radon.buildInheritance();
+
+        return radon;
+    }
+
+    /**
+     * @return the jars listed in the {@code radon.benchmarks.libraries} system property, or the rt.jar of the running
+     * JRE if it isn't set.
+     */
+    static List<File> getLibraries() {
+        List<File> libraries = new ArrayList<>();
+        String property = System.getProperty("radon.benchmarks.libraries");
+        if (property != null) {
+            for (String path : property.split(File.pathSeparator)) {
+                libraries.add(new File(path));
+            }
+        } else {
+            libraries.add(new File(System.getProperty("java.home"), "lib" + File.separator + "rt.jar"));
+        }
+
+        for (File library : libraries) {
+            if (!library.exists())
+                throw new IllegalStateException("Library " + library.getAbsolutePath() + " does not exist. Set "
+                        + "radon.benchmarks.libraries to the jars which contain the JDK classes.");
+        }
+
+        return libraries;
+    }
+}
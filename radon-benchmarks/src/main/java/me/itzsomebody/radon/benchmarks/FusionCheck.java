@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import me.itzsomebody.radon.Dictionaries;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.SessionInfo;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
+import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.HideCode;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.LineNumbers;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.LocalVariables;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.SourceName;
+import me.itzsomebody.radon.transformers.shrinkers.ShrinkerDelegator;
+import me.itzsomebody.radon.transformers.shrinkers.ShrinkerSetup;
+import me.itzsomebody.radon.utils.LoggerUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Checks that running local transformers fused by the {@link me.itzsomebody.radon.transformers.PassManager} produces
+ * the same classes as running them one after another. A corpus with annotated classes, fields and methods is put
+ * through the shrinker followed by hide code and a few other deterministic transformers both ways, and every class is
+ * compared byte for byte. Exits with status 1 if any class differs.
+ *
+ * @author ItzSomebody
+ */
+public class FusionCheck {
+    public static void main(String[] args) throws IOException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        File corpus = new SyntheticCorpus(classes, 5, 50, 1).writeJar();
+
+        LoggerUtils.setSilent(true);
+        Map<String, byte[]> fused;
+        Map<String, byte[]> sequential;
+        try {
+            fused = transform(corpus, false);
+            sequential = transform(corpus, true);
+        } finally {
+            LoggerUtils.setSilent(false);
+        }
+
+        List<String> mismatches = new ArrayList<>();
+        fused.forEach((name, bytes) -> {
+            if (!Arrays.equals(bytes, sequential.get(name)))
+                mismatches.add(name);
+        });
+        sequential.keySet().stream().filter(name -> !fused.containsKey(name)).forEach(mismatches::add);
+
+        if (mismatches.isEmpty()) {
+            LoggerUtils.stdOut(String.format("Fused and sequential passes produced identical output for %d classes.",
+                    fused.size()));
+        } else {
+            LoggerUtils.stdErr(String.format("Fused and sequential passes differ in %d of %d classes: %s",
+                    mismatches.size(), fused.size(), mismatches));
+            System.exit(1);
+        }
+    }
+
+    private static List<Transformer> createTransformers() {
+        return new ArrayList<>(Arrays.asList(new ShrinkerDelegator(new ShrinkerSetup(true, true, true, true)),
+                new HideCode(), new SourceName(true), new LineNumbers(true), new LocalVariables(true)));
+    }
+
+    /**
+     * Transforms the corpus either with the transformers fused or with every transformer running on its own.
+     *
+     * @param corpus     the corpus jar.
+     * @param sequential true if every transformer, including the delegates of delegating ones, runs on its own.
+     * @return the transformed class files mapped by their names.
+     */
+    private static Map<String, byte[]> transform(File corpus, boolean sequential) {
+        SessionInfo info = new SessionInfo();
+        info.setInput(corpus);
+        info.setOutput(new File(corpus.getPath() + ".out"));
+        info.setLibraries(Collections.emptyList());
+        info.setExclusions(new ExclusionManager());
+        info.setDictionaryType(Dictionaries.ALPHANUMERIC);
+
+        Radon radon = new Radon(info);
+        try {
+            radon.loadInput();
+            radon.classes.values().forEach(classWrapper -> annotate(classWrapper.classNode));
+
+            if (sequential) {
+                for (Transformer transformer : createTransformers()) {
+                    for (Transformer delegate : transformer.getDelegates()) {
+                        info.setTransformers(new ArrayList<>(Collections.singletonList(delegate)));
+                        radon.executeTransformers();
+                    }
+                }
+            } else {
+                info.setTransformers(createTransformers());
+                radon.executeTransformers();
+            }
+        } finally {
+            radon.closeJarFiles();
+        }
+
+        Map<String, byte[]> output = new TreeMap<>();
+        for (ClassWrapper classWrapper : radon.classes.values()) {
+            ClassWriter cw = new ClassWriter(0);
+            classWrapper.classNode.accept(cw);
+            output.put(classWrapper.classNode.name, cw.toByteArray());
+        }
+
+        return output;
+    }
+
+    /**
+     * Annotates every other field and method of the provided class with a visible annotation and the rest with an
+     * invisible one, so transformers which skip annotated members have something to skip.
+     */
+    private static void annotate(ClassNode classNode) {
+        classNode.visibleAnnotations = annotations(0);
+        for (int i = 0; i < classNode.fields.size(); i++) {
+            FieldNode fieldNode = classNode.fields.get(i);
+            if (i % 2 == 0) {
+                fieldNode.visibleAnnotations = annotations(i);
+            } else {
+                fieldNode.invisibleAnnotations = annotations(i);
+            }
+        }
+        for (int i = 0; i < classNode.methods.size(); i++) {
+            MethodNode methodNode = classNode.methods.get(i);
+            if (i % 2 == 0) {
+                methodNode.visibleAnnotations = annotations(i);
+            } else {
+                methodNode.invisibleAnnotations = annotations(i);
+            }
+        }
+    }
+
+    private static List<AnnotationNode> annotations(int index) {
+        return new ArrayList<>(Collections.singletonList(new AnnotationNode("Lcorpus/Annotation" + index % 2 + ";")));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Loads the corpus jar into a session and writes a loaded session back out into a jar, including frame computation
+ * and compression.
+ *
+ * @author ItzSomebody
+ */
+public class JarBenchmark extends CorpusBenchmark {
+    private Radon loading;
+    private Radon writing;
+
+    @Setup(Level.Iteration)
+    public void load() {
+        this.loading = createSession(Collections.emptyList());
+        this.loading.loadClassPath();
+        this.writing = loadSession(Collections.emptyList());
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        this.loading.closeJarFiles();
+        this.writing.closeJarFiles();
+        this.writing.sessionInfo.getOutput().delete();
+    }
+
+    @Benchmark
+    public Map<String, ClassWrapper> loadJar() {
+        this.loading.loadInput();
+
+        return this.loading.classes;
+    }
+
+    @Benchmark
+    public void writeJar() {
+        this.writing.writeOutput();
+    }
+}
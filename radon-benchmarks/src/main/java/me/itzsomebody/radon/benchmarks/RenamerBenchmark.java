@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.transformers.obfuscators.renamer.Renamer;
+import me.itzsomebody.radon.transformers.obfuscators.renamer.RenamerSetup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Generates the renamer's mappings for the corpus. Every iteration starts with a fresh session, so names already
+ * taken by earlier iterations don't make the name generator retry more and more often.
+ *
+ * @author ItzSomebody
+ */
+public class RenamerBenchmark extends CorpusBenchmark {
+    private Radon radon;
+    private Renamer renamer;
+
+    @Setup(Level.Iteration)
+    public void load() {
+        this.radon = loadSession(Collections.emptyList());
+        this.renamer = new Renamer(new RenamerSetup(null, null));
+        this.renamer.init(this.radon);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        this.radon.closeJarFiles();
+    }
+
+    @Benchmark
+    public Map<String, String> generateMappings() {
+        return this.renamer.generateMappings();
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import me.itzsomebody.radon.Dictionaries;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.SessionInfo;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
+import me.itzsomebody.radon.utils.LoggerUtils;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how much slower a workload runs once it has been obfuscated. The workload jar is obfuscated once per
+ * transformer, then the original and every variant are run through {@link WorkloadBenchmark} twice:
+ * <ul>
+ * <li>in throughput mode with the GC profiler, for the steady state throughput and the bytes allocated per call.</li>
+ * <li>as a single call in a fresh JVM, repeated over several forks, for the cost of the first call. This includes
+ * loading and initializing the classes, bootstrapping invokedynamic call sites and decrypting strings.</li>
+ * </ul>
+ * Every variant is compared against the original in {@code runtime-overhead.csv} in the output directory.
+ *
+ * @author ItzSomebody
+ */
+public class RuntimeOverhead {
+    private static final String ORIGINAL = "Original";
+    private static final List<String> DEFAULT_TRANSFORMERS = Arrays.asList("LightStringEncryption",
+            "NormalStringEncryption", "HeavyStringEncryption", "LightInvokeDynamic", "NormalInvokeDynamic",
+            "HeavyInvokeDynamic", "LightNumberObfuscation", "NormalNumberObfuscation", "HeavyNumberObfuscation",
+            "LightFlowObfuscation", "NormalFlowObfuscation", "HeavyFlowObfuscation");
+
+    private final File workload;
+    private final String entryPoint;
+    private final List<File> libraries = new ArrayList<>();
+    private List<String> transformers = DEFAULT_TRANSFORMERS;
+    private File outputDirectory = new File("runtime-overhead");
+    private int forks = 3;
+    private int iterations = 10;
+    private int coldForks = 20;
+
+    private RuntimeOverhead(File workload, String entryPoint) {
+        this.workload = workload;
+        this.entryPoint = entryPoint;
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.out.println("Usage: java -cp Radon-Benchmarks.jar " + RuntimeOverhead.class.getName()
+                    + " <workload jar> <class>#<method> [options]");
+            System.out.println("Options:");
+            System.out.println("    --libraries <paths>      Jars the workload depends on.");
+            System.out.println("    --transformers <names>   Comma separated transformers to compare. Defaults to "
+                    + "every string encryption, invokedynamic, number and flow obfuscation mode.");
+            System.out.println("    --output <directory>     Where the variants and the report are written to. "
+                    + "Defaults to runtime-overhead.");
+            System.out.println("    --forks <count>          Forks of the throughput measurement. Defaults to 3.");
+            System.out.println("    --iterations <count>     Warmup and measurement iterations per fork. Defaults "
+                    + "to 10.");
+            System.out.println("    --cold-forks <count>     Forks measuring the first call. Defaults to 20.");
+            return;
+        }
+
+        RuntimeOverhead harness = new RuntimeOverhead(new File(args[0]), args[1]);
+        for (int i = 2; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--libraries":
+                    for (String path : value.split(File.pathSeparator)) {
+                        harness.libraries.add(new File(path));
+                    }
+                    break;
+                case "--transformers":
+                    harness.transformers = Arrays.asList(value.split(","));
+                    break;
+                case "--output":
+                    harness.outputDirectory = new File(value);
+                    break;
+                case "--forks":
+                    harness.forks = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    harness.iterations = Integer.parseInt(value);
+                    break;
+                case "--cold-forks":
+                    harness.coldForks = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        harness.run();
+    }
+
+    private void run() throws IOException, RunnerException {
+        if (!this.workload.exists())
+            throw new IllegalArgumentException("Workload " + this.workload.getAbsolutePath() + " does not exist.");
+        this.transformers.forEach(TransformerBenchmark::createTransformer); // Fail before anything is measured.
+        if (!this.outputDirectory.isDirectory() && !this.outputDirectory.mkdirs())
+            throw new IOException("Could not create " + this.outputDirectory.getAbsolutePath());
+
+        Map<String, File> variants = new LinkedHashMap<>();
+        variants.put(ORIGINAL, this.workload);
+        for (String transformer : this.transformers) {
+            LoggerUtils.stdOut(String.format("Obfuscating the workload with %s.", transformer));
+            variants.put(transformer, obfuscate(transformer));
+        }
+
+        Map<String, VariantResult> measurements = new LinkedHashMap<>();
+        for (Map.Entry<String, File> variant : variants.entrySet()) {
+            LoggerUtils.stdOut(String.format("Measuring %s.", variant.getKey()));
+            measurements.put(variant.getKey(), measure(variant.getValue()));
+        }
+
+        File report = new File(this.outputDirectory, "runtime-overhead.csv");
+        writeReport(report, measurements);
+        LoggerUtils.stdOut(String.format("Wrote the report to \"%s\".", report.getAbsolutePath()));
+    }
+
+    /**
+     * Obfuscates the workload with only the provided transformer enabled.
+     *
+     * @param transformer the simple name of the transformer class.
+     * @return the obfuscated jar.
+     */
+    private File obfuscate(String transformer) {
+        File output = new File(this.outputDirectory, transformer + ".jar");
+        output.delete();
+
+        List<File> libraries = new ArrayList<>(CorpusBenchmark.getLibraries());
+        libraries.addAll(this.libraries);
+        SessionInfo info = new SessionInfo();
+        info.setInput(this.workload);
+        info.setOutput(output);
+        info.setLibraries(libraries);
+        info.setTransformers(new ArrayList<>(Collections.singletonList(TransformerBenchmark
+                .createTransformer(transformer))));
+        info.setExclusions(new ExclusionManager());
+        info.setDictionaryType(Dictionaries.ALPHANUMERIC);
+
+        Radon radon = new Radon(info);
+        LoggerUtils.setSilent(true);
+        try {
+            radon.loadClassPath();
+            radon.loadInput();
+            radon.buildInheritance();
+            radon.executeTransformers();
+            radon.writeOutput();
+        } finally {
+            radon.closeJarFiles();
+            LoggerUtils.setSilent(false);
+        }
+
+        return output;
+    }
+
+    private VariantResult measure(File jar) throws RunnerException {
+        StringBuilder classPath = new StringBuilder(jar.getAbsolutePath());
+        this.libraries.forEach(library -> classPath.append(File.pathSeparator).append(library.getAbsolutePath()));
+
+        Options throughput = new OptionsBuilder()
+                .include(WorkloadBenchmark.class.getName())
+                .param("classPath", classPath.toString())
+                .param("entryPoint", this.entryPoint)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .forks(this.forks)
+                .warmupIterations(this.iterations)
+                .measurementIterations(this.iterations)
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true)
+                .build();
+        RunResult steady = single(new Runner(throughput).run());
+
+        Options firstCall = new OptionsBuilder()
+                .include(WorkloadBenchmark.class.getName())
+                .param("classPath", classPath.toString())
+                .param("entryPoint", this.entryPoint)
+                .mode(Mode.SingleShotTime)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(this.coldForks)
+                .warmupIterations(0)
+                .measurementIterations(1)
+                .shouldFailOnError(true)
+                .build();
+        RunResult cold = single(new Runner(firstCall).run());
+
+        VariantResult measurement = new VariantResult();
+        measurement.throughput = steady.getPrimaryResult().getScore();
+        measurement.throughputError = steady.getPrimaryResult().getScoreError();
+        measurement.firstCall = cold.getPrimaryResult().getScore();
+        measurement.firstCallError = cold.getPrimaryResult().getScoreError();
+        measurement.allocated = Double.NaN;
+        for (String label : steady.getSecondaryResults().keySet()) {
+            if (label.endsWith("gc.alloc.rate.norm")) {
+                Result<?> allocated = steady.getSecondaryResults().get(label);
+                measurement.allocated = allocated.getScore();
+            }
+        }
+
+        return measurement;
+    }
+
+    private static RunResult single(Collection<RunResult> results) {
+        if (results.size() != 1)
+            throw new IllegalStateException("Expected a single result but got " + results.size() + '.');
+
+        return results.iterator().next();
+    }
+
+    private static void writeReport(File file, Map<String, VariantResult> measurements) throws IOException {
+        VariantResult original = measurements.get(ORIGINAL);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()),
+                StandardCharsets.UTF_8))) {
+            writer.write("variant,throughput,throughputError,relativeThroughput,firstCallMs,firstCallError,"
+                    + "firstCallOverheadMs,allocatedBytesPerCall,allocationOverheadBytesPerCall\n");
+            for (Map.Entry<String, VariantResult> entry : measurements.entrySet()) {
+                VariantResult measurement = entry.getValue();
+                String row = entry.getKey() + ',' + measurement.throughput + ',' + measurement.throughputError + ','
+                        + measurement.throughput / original.throughput + ',' + measurement.firstCall + ','
+                        + measurement.firstCallError + ',' + (measurement.firstCall - original.firstCall) + ','
+                        + measurement.allocated + ',' + (measurement.allocated - original.allocated);
+                writer.write(row + '\n');
+            }
+        }
+
+        measurements.forEach((variant, measurement) -> LoggerUtils.stdOut(String.format(
+                "%-26s %14.1f ops/s (%6.1f%%) | first call %10.3f ms (%+10.3f ms) | %10.1f B/call (%+10.1f B/call)",
+                variant, measurement.throughput, measurement.throughput / original.throughput * 100,
+                measurement.firstCall, measurement.firstCall - original.firstCall, measurement.allocated,
+                measurement.allocated - original.allocated)));
+    }
+
+    private static class VariantResult {
+        private double throughput;
+        private double throughputError;
+        private double firstCall;
+        private double firstCallError;
+        private double allocated;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Generates a jar of synthetic classes for the benchmarks. Every class implements a common interface and extends
+ * the first class of its group, so the hierarchy has something to offer to the renamer and to frame computation.
+ * Methods are made of random blocks of arithmetic, string constants, loops, calls into other classes, merging object
+ * types and exception handlers until they reach the requested size. The same seed always generates the same corpus.
+ * <p>
+ * The classes are never loaded, so they are written without frames. Radon skips frames when it reads classes anyway.
+ *
+ * @author ItzSomebody
+ */
+public class SyntheticCorpus implements Opcodes {
+    private static final String INTERFACE = "corpus/Task";
+    private static final int GROUP_SIZE = 8;
+
+    private final int classCount;
+    private final int methodCount;
+    private final int methodSize;
+    private final Random random;
+
+    /**
+     * @param classCount  the amount of classes to generate.
+     * @param methodCount the amount of methods every class has besides its constructors.
+     * @param methodSize  the minimum amount of instructions every method has.
+     * @param seed        the seed of the corpus.
+     */
+    public SyntheticCorpus(int classCount, int methodCount, int methodSize, long seed) {
+        this.classCount = classCount;
+        this.methodCount = Math.max(methodCount, 1);
+        this.methodSize = methodSize;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return the generated class files mapped by their entry names.
+     */
+    public Map<String, byte[]> generate() {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        classes.put(INTERFACE + ".class", write(generateInterface()));
+        for (int i = 0; i < classCount; i++) {
+            ClassNode classNode = generateClass(i);
+            classes.put(classNode.name + ".class", write(classNode));
+        }
+
+        return classes;
+    }
+
+    /**
+     * Generates the corpus into a temporary jar which is deleted once the JVM exits.
+     *
+     * @return the jar.
+     * @throws IOException if the jar couldn't be written.
+     */
+    public File writeJar() throws IOException {
+        File jar = File.createTempFile("radon-corpus", ".jar");
+        jar.deleteOnExit();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (Map.Entry<String, byte[]> entry : generate().entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+
+    private static byte[] write(ClassNode classNode) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classNode.accept(cw);
+
+        return cw.toByteArray();
+    }
+
+    private static String getClassName(int index) {
+        return "corpus/p" + (index / GROUP_SIZE / GROUP_SIZE) + "/C" + index;
+    }
+
+    private ClassNode generateInterface() {
+        ClassNode classNode = new ClassNode();
+        classNode.visit(V1_8, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, INTERFACE, null, "java/lang/Object", null);
+        classNode.methods.add(new MethodNode(ACC_PUBLIC | ACC_ABSTRACT, "run", "(I)I", null, null));
+
+        return classNode;
+    }
+
+    private ClassNode generateClass(int index) {
+        String name = getClassName(index);
+        String superName = index % GROUP_SIZE == 0 ? "java/lang/Object" : getClassName(index - index % GROUP_SIZE);
+
+        ClassNode classNode = new ClassNode();
+        classNode.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, superName, new String[]{INTERFACE});
+        classNode.sourceFile = "C" + index + ".java";
+        classNode.fields.add(new FieldNode(ACC_PUBLIC | ACC_STATIC, "NAME", "Ljava/lang/String;", null, null));
+        classNode.fields.add(new FieldNode(ACC_PUBLIC, "value", "I", null, null));
+
+        MethodNode init = new MethodNode(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.instructions.add(new VarInsnNode(ALOAD, 0));
+        init.instructions.add(new MethodInsnNode(INVOKESPECIAL, superName, "<init>", "()V", false));
+        init.instructions.add(new VarInsnNode(ALOAD, 0));
+        init.instructions.add(new LdcInsnNode(random.nextInt()));
+        init.instructions.add(new FieldInsnNode(PUTFIELD, name, "value", "I"));
+        init.instructions.add(new InsnNode(RETURN));
+        classNode.methods.add(init);
+
+        MethodNode clinit = new MethodNode(ACC_STATIC, "<clinit>", "()V", null, null);
+        clinit.instructions.add(new LdcInsnNode(name.replace('/', '.')));
+        clinit.instructions.add(new FieldInsnNode(PUTSTATIC, name, "NAME", "Ljava/lang/String;"));
+        clinit.instructions.add(new InsnNode(RETURN));
+        classNode.methods.add(clinit);
+
+        classNode.methods.add(generateMethod(classNode, ACC_PUBLIC, "run"));
+        for (int i = 1; i < methodCount; i++) {
+            classNode.methods.add(generateMethod(classNode, ACC_PUBLIC | ACC_STATIC, "m" + i));
+        }
+
+        return classNode;
+    }
+
+    private MethodNode generateMethod(ClassNode classNode, int access, String name) {
+        MethodNode methodNode = new MethodNode(access, name, "(I)I", null, null);
+        boolean isStatic = (access & ACC_STATIC) != 0;
+        int x = isStatic ? 0 : 1;
+        int counter = x + 1;
+        int object = x + 2;
+        InsnList insns = methodNode.instructions;
+
+        LabelNode start = new LabelNode();
+        insns.add(start);
+        int line = 1;
+        while (insns.size() < methodSize) {
+            LabelNode label = new LabelNode();
+            insns.add(label);
+            insns.add(new LineNumberNode(line++, label));
+            switch (random.nextInt(6)) {
+                case 0: { // x = x * a + b
+                    insns.add(new VarInsnNode(ILOAD, x));
+                    insns.add(new LdcInsnNode(random.nextInt()));
+                    insns.add(new InsnNode(IMUL));
+                    insns.add(new LdcInsnNode(random.nextInt()));
+                    insns.add(new InsnNode(IADD));
+                    insns.add(new VarInsnNode(ISTORE, x));
+                    break;
+                }
+                case 1: { // x += "...".length() + NAME.length()
+                    insns.add(new VarInsnNode(ILOAD, x));
+                    insns.add(new LdcInsnNode(Long.toString(random.nextLong(), 36)));
+                    insns.add(new MethodInsnNode(INVOKEVIRTUAL, "java/lang/String", "length", "()I", false));
+                    insns.add(new InsnNode(IADD));
+                    insns.add(new FieldInsnNode(GETSTATIC, classNode.name, "NAME", "Ljava/lang/String;"));
+                    insns.add(new MethodInsnNode(INVOKEVIRTUAL, "java/lang/String", "length", "()I", false));
+                    insns.add(new InsnNode(IADD));
+                    insns.add(new VarInsnNode(ISTORE, x));
+                    break;
+                }
+                case 2: { // for (int i = 0; i < n; i++) x += i ^ a;
+                    LabelNode condition = new LabelNode();
+                    LabelNode body = new LabelNode();
+                    insns.add(new InsnNode(ICONST_0));
+                    insns.add(new VarInsnNode(ISTORE, counter));
+                    insns.add(new JumpInsnNode(GOTO, condition));
+                    insns.add(body);
+                    insns.add(new VarInsnNode(ILOAD, x));
+                    insns.add(new VarInsnNode(ILOAD, counter));
+                    insns.add(new LdcInsnNode(random.nextInt()));
+                    insns.add(new InsnNode(IXOR));
+                    insns.add(new InsnNode(IADD));
+                    insns.add(new VarInsnNode(ISTORE, x));
+                    insns.add(new IincInsnNode(counter, 1));
+                    insns.add(condition);
+                    insns.add(new VarInsnNode(ILOAD, counter));
+                    insns.add(new LdcInsnNode(random.nextInt(100) + 1));
+                    insns.add(new JumpInsnNode(IF_ICMPLT, body));
+                    break;
+                }
+                case 3: { // x = C.m(x)
+                    if (methodCount > 1) {
+                        insns.add(new VarInsnNode(ILOAD, x));
+                        insns.add(new MethodInsnNode(INVOKESTATIC, getClassName(random.nextInt(classCount)),
+                                "m" + (random.nextInt(methodCount - 1) + 1), "(I)I", false));
+                        insns.add(new VarInsnNode(ISTORE, x));
+                    }
+                    break;
+                }
+                case 4: { // Task o = (x & 1) == 0 ? new A() : new B(); x = o.run(x);
+                    LabelNode otherwise = new LabelNode();
+                    LabelNode merge = new LabelNode();
+                    insns.add(new VarInsnNode(ILOAD, x));
+                    insns.add(new InsnNode(ICONST_1));
+                    insns.add(new InsnNode(IAND));
+                    insns.add(new JumpInsnNode(IFNE, otherwise));
+                    newInstance(insns, getClassName(random.nextInt(classCount)));
+                    insns.add(new JumpInsnNode(GOTO, merge));
+                    insns.add(otherwise);
+                    newInstance(insns, getClassName(random.nextInt(classCount)));
+                    insns.add(merge);
+                    insns.add(new VarInsnNode(ASTORE, object));
+                    insns.add(new VarInsnNode(ALOAD, object));
+                    insns.add(new VarInsnNode(ILOAD, x));
+                    insns.add(new MethodInsnNode(INVOKEINTERFACE, INTERFACE, "run", "(I)I", true));
+                    insns.add(new VarInsnNode(ISTORE, x));
+                    break;
+                }
+                default: { // try { x = a / x; } catch (ArithmeticException e) { x = b; }
+                    LabelNode tryStart = new LabelNode();
+                    LabelNode tryEnd = new LabelNode();
+                    LabelNode handler = new LabelNode();
+                    LabelNode after = new LabelNode();
+                    insns.add(tryStart);
+                    insns.add(new LdcInsnNode(random.nextInt()));
+                    insns.add(new VarInsnNode(ILOAD, x));
+                    insns.add(new InsnNode(IDIV));
+                    insns.add(new VarInsnNode(ISTORE, x));
+                    insns.add(tryEnd);
+                    insns.add(new JumpInsnNode(GOTO, after));
+                    insns.add(handler);
+                    insns.add(new InsnNode(POP));
+                    insns.add(new LdcInsnNode(random.nextInt()));
+                    insns.add(new VarInsnNode(ISTORE, x));
+                    insns.add(after);
+                    methodNode.tryCatchBlocks.add(new TryCatchBlockNode(tryStart, tryEnd, handler,
+                            "java/lang/ArithmeticException"));
+                    break;
+                }
+            }
+        }
+        insns.add(new VarInsnNode(ILOAD, x));
+        insns.add(new InsnNode(IRETURN));
+        LabelNode end = new LabelNode();
+        insns.add(end);
+
+        methodNode.localVariables.add(new LocalVariableNode("x", "I", null, start, end, x));
+        if (!isStatic)
+            methodNode.localVariables.add(new LocalVariableNode("this", 'L' + classNode.name + ';', null, start, end,
+                    0));
+
+        return methodNode;
+    }
+
+    private static void newInstance(InsnList insns, String type) {
+        insns.add(new TypeInsnNode(NEW, type));
+        insns.add(new InsnNode(DUP));
+        insns.add(new MethodInsnNode(INVOKESPECIAL, type, "<init>", "()V", false));
+    }
+}
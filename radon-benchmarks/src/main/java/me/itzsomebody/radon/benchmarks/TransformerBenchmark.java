@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.miscellaneous.Crasher;
+import me.itzsomebody.radon.transformers.miscellaneous.expiration.Expiration;
+import me.itzsomebody.radon.transformers.miscellaneous.expiration.ExpirationSetup;
+import me.itzsomebody.radon.transformers.miscellaneous.watermarker.Watermarker;
+import me.itzsomebody.radon.transformers.miscellaneous.watermarker.WatermarkerSetup;
+import me.itzsomebody.radon.transformers.obfuscators.flow.HeavyFlowObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.flow.LightFlowObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.flow.NormalFlowObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.HeavyInvokeDynamic;
+import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.LightInvokeDynamic;
+import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.NormalInvokeDynamic;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.HideCode;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.LineNumbers;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.LocalVariables;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.MemberShuffler;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.SourceDebug;
+import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.SourceName;
+import me.itzsomebody.radon.transformers.obfuscators.numbers.HeavyNumberObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.numbers.LightNumberObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.numbers.NormalNumberObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.strings.ConstantStringEncryption;
+import me.itzsomebody.radon.transformers.obfuscators.strings.HeavyStringEncryption;
+import me.itzsomebody.radon.transformers.obfuscators.strings.LightStringEncryption;
+import me.itzsomebody.radon.transformers.obfuscators.strings.NormalStringEncryption;
+import me.itzsomebody.radon.transformers.obfuscators.strings.StringEncryptionSetup;
+import me.itzsomebody.radon.transformers.obfuscators.strings.StringPool;
+import me.itzsomebody.radon.transformers.optimizers.GotoGotoRemover;
+import me.itzsomebody.radon.transformers.optimizers.GotoReturnRemover;
+import me.itzsomebody.radon.transformers.optimizers.NopRemover;
+import me.itzsomebody.radon.transformers.shrinkers.AttributesRemover;
+import me.itzsomebody.radon.transformers.shrinkers.DebugInfoRemover;
+import me.itzsomebody.radon.transformers.shrinkers.InvisibleAnnotationsRemover;
+import me.itzsomebody.radon.transformers.shrinkers.VisibleAnnotationsRemover;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs a single transformer over the corpus through the {@link me.itzsomebody.radon.transformers.PassManager}, the
+ * same way a session with only that transformer enabled would. The renamer dumps its mappings into the working
+ * directory whenever it runs, so it is benchmarked by {@link RenamerBenchmark} instead.
+ *
+ * @author ItzSomebody
+ */
+public class TransformerBenchmark extends CorpusBenchmark {
+    @Param({"LightFlowObfuscation", "NormalFlowObfuscation", "HeavyFlowObfuscation", "LightInvokeDynamic",
+            "NormalInvokeDynamic", "HeavyInvokeDynamic", "LightNumberObfuscation", "NormalNumberObfuscation",
+            "HeavyNumberObfuscation", "LightStringEncryption", "NormalStringEncryption", "HeavyStringEncryption",
+            "ConstantStringEncryption", "StringPool", "HideCode", "LineNumbers", "LocalVariables", "MemberShuffler",
+            "SourceDebug", "SourceName", "Crasher", "Expiration", "Watermarker", "TrashClasses", "NopRemover",
+            "GotoGotoRemover", "GotoReturnRemover", "AttributesRemover", "DebugInfoRemover",
+            "InvisibleAnnotationsRemover", "VisibleAnnotationsRemover"})
+    public String transformer;
+
+    private Radon radon;
+
+    @Setup(Level.Iteration)
+    public void load() {
+        List<Transformer> transformers = new ArrayList<>();
+        if (!"TrashClasses".equals(transformer))
+            transformers.add(createTransformer(transformer));
+
+        this.radon = loadSession(transformers);
+        // Trash classes are only ever added by the session itself.
+        if ("TrashClasses".equals(transformer))
+            this.radon.sessionInfo.setTrashClasses(classes);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        this.radon.closeJarFiles();
+    }
+
+    @Benchmark
+    public Map<String, ClassWrapper> transform() {
+        this.radon.executeTransformers();
+
+        return this.radon.classes;
+    }
+
+    /**
+     * @param name the simple name of the transformer class.
+     * @return a new instance of the transformer with its default setup.
+     */
+    static Transformer createTransformer(String name) {
+        StringEncryptionSetup strings = new StringEncryptionSetup(Collections.emptyList());
+        switch (name) {
+            case "LightFlowObfuscation":
+                return new LightFlowObfuscation();
+            case "NormalFlowObfuscation":
+                return new NormalFlowObfuscation();
+            case "HeavyFlowObfuscation":
+                return new HeavyFlowObfuscation();
+            case "LightInvokeDynamic":
+                return new LightInvokeDynamic();
+            case "NormalInvokeDynamic":
+                return new NormalInvokeDynamic();
+            case "HeavyInvokeDynamic":
+                return new HeavyInvokeDynamic();
+            case "LightNumberObfuscation":
+                return new LightNumberObfuscation();
+            case "NormalNumberObfuscation":
+                return new NormalNumberObfuscation();
+            case "HeavyNumberObfuscation":
+                return new HeavyNumberObfuscation();
+            case "LightStringEncryption":
+                return new LightStringEncryption(strings);
+            case "NormalStringEncryption":
+                return new NormalStringEncryption(strings);
+            case "HeavyStringEncryption":
+                return new HeavyStringEncryption(strings);
+            case "ConstantStringEncryption":
+                return new ConstantStringEncryption(strings, new NormalStringEncryption(strings));
+            case "StringPool":
+                return new StringPool(strings);
+            case "HideCode":
+                return new HideCode();
+            case "LineNumbers":
+                return new LineNumbers(false);
+            case "LocalVariables":
+                return new LocalVariables(false);
+            case "MemberShuffler":
+                return new MemberShuffler();
+            case "SourceDebug":
+                return new SourceDebug(false);
+            case "SourceName":
+                return new SourceName(false);
+            case "Crasher":
+                return new Crasher();
+            case "Expiration":
+                return new Expiration(new ExpirationSetup("Expired.", Long.MAX_VALUE, false));
+            case "Watermarker":
+                return new Watermarker(new WatermarkerSetup("Radon benchmark", "key"));
+            case "NopRemover":
+                return new NopRemover();
+            case "GotoGotoRemover":
+                return new GotoGotoRemover();
+            case "GotoReturnRemover":
+                return new GotoReturnRemover();
+            case "AttributesRemover":
+                return new AttributesRemover();
+            case "DebugInfoRemover":
+                return new DebugInfoRemover();
+            case "InvisibleAnnotationsRemover":
+                return new InvisibleAnnotationsRemover();
+            case "VisibleAnnotationsRemover":
+                return new VisibleAnnotationsRemover();
+            default:
+                throw new IllegalArgumentException("Unknown transformer " + name);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.benchmarks;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Calls the entry point of a workload jar. The jar is loaded into its own class loader which only sees the JDK, so
+ * the original and the obfuscated variants of a workload can't interfere with each other or with Radon. Meant to be
+ * run by {@link RuntimeOverhead}, which provides the parameters.
+ *
+ * @author ItzSomebody
+ */
+@State(Scope.Benchmark)
+public class WorkloadBenchmark {
+    /**
+     * The workload jar followed by the jars it depends on, separated by the path separator.
+     */
+    @Param("")
+    public String classPath;
+
+    /**
+     * The static method to call in the format {@code <class>#<method>}. The method either takes no arguments or a
+     * string array, which is passed empty.
+     */
+    @Param("")
+    public String entryPoint;
+
+    private Method method;
+    private Object[] arguments;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        if (classPath.isEmpty() || !entryPoint.contains("#"))
+            throw new IllegalStateException("The class path and the entry point of the workload have to be set. Use "
+                    + RuntimeOverhead.class.getName() + " to run this benchmark.");
+
+        String[] paths = classPath.split(File.pathSeparator);
+        URL[] urls = new URL[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            urls[i] = new File(paths[i]).toURI().toURL();
+        }
+        ClassLoader loader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+
+        String className = entryPoint.substring(0, entryPoint.indexOf('#'));
+        String methodName = entryPoint.substring(entryPoint.indexOf('#') + 1);
+        // The class is initialized by the first call, so its initializer counts towards the cold start.
+        Class<?> clazz = Class.forName(className, false, loader);
+        for (Method candidate : clazz.getDeclaredMethods()) {
+            if (candidate.getName().equals(methodName) && Modifier.isStatic(candidate.getModifiers())) {
+                Class<?>[] parameters = candidate.getParameterTypes();
+                if (parameters.length == 0) {
+                    this.arguments = new Object[0];
+                } else if (parameters.length == 1 && parameters[0] == String[].class) {
+                    this.arguments = new Object[]{new String[0]};
+                } else {
+                    continue;
+                }
+
+                candidate.setAccessible(true);
+                this.method = candidate;
+                return;
+            }
+        }
+
+        throw new IllegalStateException("Could not find a static method " + methodName + " in " + className
+                + " which takes no arguments or a string array.");
+    }
+
+    @Benchmark
+    public Object run() throws Throwable {
+        try {
+            return this.method.invoke(null, this.arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import me.itzsomebody.radon.exceptions.IllegalDictionaryException;
+import me.itzsomebody.radon.utils.RandomUtils;
+
+/**
+ * Generates names from a {@link Dictionaries} type which are unique for the whole session. Instead of generating
+ * random strings until one hasn't been used yet, every length has its own counter which is mapped onto the strings of
+ * that length by a random bijection, so a name can never come up twice and there is nothing to retry. Threads reserve
+ * small blocks of the counter at a time, so generating names from many threads at once doesn't contend on anything.
+ *
+ * @author ItzSomebody
+ */
+public class NameGenerator {
+    /**
+     * Amount of names a thread reserves at once.
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    /**
+     * Largest amount of names one length can have. Keeps the bijection from overflowing a long.
+     */
+    private static final long MAX_SIZE = 1L << 42;
+
+    private final char[] alphabet;
+    private final Map<Integer, Sequence> sequences = new ConcurrentHashMap<>();
+
+    public NameGenerator(Dictionaries dictionary) {
+        this.alphabet = getAlphabet(dictionary);
+    }
+
+    /**
+     * Generates a name which hasn't been generated before by this generator. Once every name of the requested length
+     * has been used, longer names are generated instead.
+     *
+     * @param length the length of the name.
+     * @return the generated name.
+     */
+    public String next(int length) {
+        while (true) {
+            String name = sequences.computeIfAbsent(length, Sequence::new).next();
+            if (name != null)
+                return name;
+
+            length++;
+        }
+    }
+
+    private static char[] getAlphabet(Dictionaries dictionary) {
+        switch (dictionary) {
+            case SPACES:
+                return range('\u2000', 16);
+            case UNRECOGNIZED:
+                return range('\ua6ac', 8);
+            case ALPHABETICAL:
+                return "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+            case ALPHANUMERIC:
+                return "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+            default:
+                throw new IllegalDictionaryException();
+        }
+    }
+
+    private static char[] range(char first, int count) {
+        char[] chars = new char[count];
+        for (int i = 0; i < count; i++) {
+            chars[i] = (char) (first + i);
+        }
+
+        return chars;
+    }
+
+    /**
+     * Every name of one length. Index i of the sequence is turned into the name (multiplier * i + offset) mod size
+     * written in base alphabet.length, which is a bijection as long as multiplier and size are coprime.
+     */
+    private class Sequence {
+        private final int length;
+        private final int digits;
+        private final long size;
+        private final long multiplier;
+        private final long offset;
+        private final AtomicLong counter = new AtomicLong();
+        private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]);
+
+        private Sequence(int length) {
+            int digits = 0;
+            long size = 1;
+            while (digits < length && size <= MAX_SIZE / alphabet.length) {
+                size *= alphabet.length;
+                digits++;
+            }
+
+            this.length = length;
+            this.digits = digits;
+            this.size = size;
+
+            // Keeps multiplier * index below 2^63.
+            long bound = Math.min(size, Long.MAX_VALUE / MAX_SIZE);
+            long multiplier;
+            do {
+                multiplier = bound > 1 ? RandomUtils.getRandomLong(bound) : 1;
+            } while (!BigInteger.valueOf(multiplier).gcd(BigInteger.valueOf(size)).equals(BigInteger.ONE));
+
+            this.multiplier = multiplier;
+            this.offset = size > 1 ? RandomUtils.getRandomLong(size) : 0;
+        }
+
+        /**
+         * @return the next name or null if this sequence is out of names.
+         */
+        private String next() {
+            long[] block = blocks.get();
+            if (block[0] == block[1]) {
+                long start = counter.getAndAdd(BLOCK_SIZE);
+                if (start >= size)
+                    return null;
+
+                block[0] = start;
+                block[1] = Math.min(start + BLOCK_SIZE, size);
+            }
+
+            long value = (multiplier * block[0]++ + offset) % size;
+            char[] name = new char[length];
+            for (int i = length - 1; i >= length - digits; i--) {
+                name[i] = alphabet[(int) (value % alphabet.length)];
+                value /= alphabet.length;
+            }
+            // Lengths with more names than MAX_SIZE are already unique through their last digits.
+            for (int i = length - digits - 1; i >= 0; i--) {
+                name[i] = alphabet[RandomUtils.getRandomIntNoOrigin(alphabet.length)];
+            }
+
+            return new String(name);
+        }
+    }
+}
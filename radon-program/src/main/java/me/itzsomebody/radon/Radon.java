@@ -18,27 +18,39 @@
 package me.itzsomebody.radon;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
-import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.zip.ZipEntry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipException;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
-import me.itzsomebody.radon.asm.ClassTree;
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.HierarchyIndex;
+import me.itzsomebody.radon.asm.LazyClassPath;
 import me.itzsomebody.radon.exceptions.BadInputException;
 import me.itzsomebody.radon.exceptions.InputNotFoundException;
 import me.itzsomebody.radon.exceptions.MissingClassException;
 import me.itzsomebody.radon.exceptions.NoTransformersException;
 import me.itzsomebody.radon.exceptions.OutputWriteException;
+import me.itzsomebody.radon.io.JarWriter;
+import me.itzsomebody.radon.io.LazyResources;
+import me.itzsomebody.radon.io.MappedJarFile;
+import me.itzsomebody.radon.transformers.PassManager;
 import me.itzsomebody.radon.transformers.miscellaneous.TrashClasses;
 import me.itzsomebody.radon.utils.IOUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
@@ -51,18 +63,30 @@ import org.objectweb.asm.tree.MethodNode;
 
 /**
  * This class is how Radon processes the provided {@link SessionInfo} to produce an obfuscated jar.
+ * <p>
+ * {@link #partyTime()} is the only entry point. The phases it runs ({@link #loadClassPath()}, {@link #loadInput()},
+ * {@link #buildInheritance()}, {@link #executeTransformers()}, {@link #writeOutput()} and {@link #closeJarFiles()})
+ * and {@link #writeClass(ClassNode)} are only public so the benchmarks can run and time them one by one. They aren't
+ * API: they expect to be called in that order on a fresh session and may change with the way a session is run.
  *
  * @author ItzSomebody
  */
 public class Radon {
     public SessionInfo sessionInfo;
-    private Map<String, ClassTree> hierarchy = new HashMap<>();
-    public Map<String, ClassWrapper> classes = new HashMap<>();
-    public Map<String, ClassWrapper> classPath = new HashMap<>();
-    public Map<String, byte[]> resources = new HashMap<>();
+    private volatile HierarchyIndex hierarchy;
+    private Map<String, Ancestors> ancestors = new ConcurrentHashMap<>();
+    private Map<String, String> commonSuperClasses = new ConcurrentHashMap<>();
+    public Map<String, ClassWrapper> classes = new ConcurrentHashMap<>();
+    public LazyClassPath classPath = new LazyClassPath();
+    public LazyResources resources = new LazyResources();
+    private List<MappedJarFile> jarFiles = new ArrayList<>();
+    private volatile NameGenerator nameGenerator;
+    private Scheduler scheduler;
+    private final Telemetry telemetry;
 
     public Radon(SessionInfo sessionInfo) {
         this.sessionInfo = sessionInfo;
+        this.telemetry = new Telemetry(sessionInfo.isTelemetry());
     }
 
     /**
@@ -74,138 +98,254 @@ public class Radon {
         buildInheritance();
         executeTransformers();
         writeOutput();
+        LoggerUtils.stdOut(String.format("Parsed %d library classes on demand.", classPath.getLoadedLibraryCount()));
+        closeJarFiles();
+        writeTelemetry();
         LoggerUtils.dumpLog();
     }
 
-    private void writeOutput() {
+    private void writeTelemetry() {
+        if (!this.telemetry.isEnabled())
+            return;
+
+        File json = new File("Radon-telemetry.json");
+        File csv = new File("Radon-telemetry.csv");
+        try {
+            this.telemetry.write(json, csv);
+            LoggerUtils.stdOut(String.format("Wrote telemetry to \"%s\" and \"%s\".", json.getAbsolutePath(),
+                    csv.getAbsolutePath()));
+        } catch (IOException e) {
+            LoggerUtils.stdErr("Error occurred while writing telemetry.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes every class and resource of the session to the output. The classes are written with
+     * {@link #writeClass(ClassNode)}.
+     */
+    public void writeOutput() {
+        Telemetry.Phase phase = this.telemetry.begin("Write output");
         File output = this.sessionInfo.getOutput();
         LoggerUtils.stdOut(String.format("Writing output to \"%s\".", output.getAbsolutePath()));
         if (output.exists()) {
             LoggerUtils.stdOut(String.format("Output file already exists, renamed to %s.", IOUtils.renameExistingFile(output)));
         }
 
-        try {
-            ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(output));
-
-            this.classes.values().forEach(classWrapper -> {
-                try {
-                    ZipEntry entry = new ZipEntry(classWrapper.classNode.name + ".class");
-                    entry.setCompressedSize(-1);
-
-                    ClassWriter cw = new CustomClassWriter(ClassWriter.COMPUTE_FRAMES);
-                    cw.newUTF8("RADON" + Main.VERSION);
+        // The hierarchy can't change anymore, so the ancestors of every class can be computed once up front.
+        long current = System.currentTimeMillis();
+        this.classes.values().stream().filter(classWrapper -> classPath.containsKey(classWrapper.classNode.name))
+                .forEach(classWrapper -> {
                     try {
-                        classWrapper.classNode.accept(cw);
-                    } catch (Throwable t) {
-                        LoggerUtils.stdErr(String.format("Error writing class %s.", classWrapper.classNode.name + ".class"));
-                        t.printStackTrace();
-                        cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-                        cw.newUTF8("RADON" + Main.VERSION);
-                        classWrapper.classNode.accept(cw);
+                        getAncestors(classWrapper.classNode.name);
+                    } catch (MissingClassException e) {
+                        // Reported again once the class is written.
                     }
+                });
+        LoggerUtils.stdOut(String.format("Computed ancestors of %d classes. [%dms]", this.ancestors.size(), (System.currentTimeMillis() - current)));
 
-                    zos.putNextEntry(entry);
-                    zos.write(cw.toByteArray());
-                    zos.closeEntry();
-                } catch (Throwable t) {
-                    LoggerUtils.stdErr(String.format("Error writing class %s. Skipping.", classWrapper.classNode.name + ".class"));
-                    t.printStackTrace();
+        try (JarWriter writer = new JarWriter(output, this.sessionInfo.getCompressionLevel())) {
+            // Classes are serialized and every entry is compressed on the worker pool while this thread writes the
+            // finished entries in submission order. Only a few entries per worker are allowed to wait for the writer
+            // at any time.
+            ExecutorService executor = Executors.newFixedThreadPool(this.sessionInfo.getThreads());
+            try {
+                Deque<Future<JarWriter.Entry>> pending = new ArrayDeque<>();
+                int window = this.sessionInfo.getThreads() * 4;
+                for (ClassWrapper classWrapper : this.classes.values()) {
+                    pending.add(executor.submit(this.telemetry.track(() -> serializeClass(writer, classWrapper))));
+                    if (pending.size() >= window) {
+                        writeEntry(writer, pending.poll());
+                    }
                 }
-            });
-
-            this.resources.forEach((name, bytes) -> {
-                try {
-                    ZipEntry entry = new ZipEntry(name);
-                    entry.setCompressedSize(-1);
-
-                    zos.putNextEntry(entry);
-                    zos.write(bytes);
-                    zos.closeEntry();
-                } catch (Throwable t) {
-                    LoggerUtils.stdErr(String.format("Error writing resource %s. Skipping.", name));
-                    t.printStackTrace();
+                for (String name : this.resources.keySet()) {
+                    pending.add(executor.submit(this.telemetry.track(() -> prepareResource(writer, name))));
+                    if (pending.size() >= window) {
+                        writeEntry(writer, pending.poll());
+                    }
                 }
-            });
+                while (!pending.isEmpty()) {
+                    writeEntry(writer, pending.poll());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
 
-            zos.setComment(Main.PROPAGANDA_GARBAGE);
-            zos.close();
+            writer.setComment(Main.PROPAGANDA_GARBAGE);
         } catch (Throwable t) {
             t.printStackTrace();
             throw new OutputWriteException();
         }
+        phase.set("classes", this.classes.size());
+        phase.set("resources", this.resources.size());
+        this.telemetry.end(phase);
+    }
+
+    private JarWriter.Entry serializeClass(JarWriter writer, ClassWrapper classWrapper) {
+        try {
+            return writer.compress(classWrapper.classNode.name + ".class", writeClass(classWrapper.classNode));
+        } catch (Throwable t) {
+            LoggerUtils.stdErr(String.format("Error writing class %s. Skipping.", classWrapper.classNode.name + ".class"));
+            t.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the provided class with frames computed against the classpath of this session. Only the maximum stack
+     * size and locals are computed if the frames can't be.
+     *
+     * @param classNode the class to write.
+     * @return the bytes of the class file.
+     */
+    public byte[] writeClass(ClassNode classNode) {
+        ClassWriter cw = new CustomClassWriter(ClassWriter.COMPUTE_FRAMES);
+        cw.newUTF8("RADON" + Main.VERSION);
+        try {
+            classNode.accept(cw);
+        } catch (Throwable t) {
+            LoggerUtils.stdErr(String.format("Error writing class %s.", classNode.name + ".class"));
+            t.printStackTrace();
+            cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.newUTF8("RADON" + Main.VERSION);
+            classNode.accept(cw);
+        }
+
+        return cw.toByteArray();
+    }
+
+    private JarWriter.Entry prepareResource(JarWriter writer, String name) {
+        try {
+            // Resources no transformer looked at are copied straight out of the input without being decompressed.
+            MappedJarFile.Entry unread = this.resources.getDeferred(name);
+            if (unread != null) {
+                return JarWriter.copy(name, unread);
+            }
+
+            return writer.compress(name, this.resources.get(name));
+        } catch (Throwable t) {
+            LoggerUtils.stdErr(String.format("Error writing resource %s. Skipping.", name));
+            t.printStackTrace();
+            return null;
+        }
     }
 
-    private void loadClassPath() {
+    private static void writeEntry(JarWriter writer, Future<JarWriter.Entry> future) throws IOException, InterruptedException {
+        JarWriter.Entry entry;
+        try {
+            entry = future.get();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            writer.write(entry);
+        } catch (ZipException e) {
+            LoggerUtils.stdErr(String.format("Error writing %s. Skipping.", entry.getName()));
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Indexes the classes of every library of the session. Library classes are only parsed once they are requested.
+     */
+    public void loadClassPath() {
+        Telemetry.Phase phase = this.telemetry.begin("Load libraries");
+        ExecutorService executor = Executors.newFixedThreadPool(this.sessionInfo.getThreads());
+        Map<File, Future<MappedJarFile>> libraries = new LinkedHashMap<>();
         for (File file : this.sessionInfo.getLibraries()) {
             if (file.exists()) {
                 LoggerUtils.stdOut(String.format("Loading library \"%s\".", file.getAbsolutePath()));
+                libraries.put(file, executor.submit(this.telemetry.track(() -> new MappedJarFile(file))));
+            } else {
+                LoggerUtils.stdWarn(String.format("Library \"%s\" could not be found and will be ignored.", file.getAbsolutePath()));
+            }
+        }
+
+        try {
+            // Libraries are indexed in the order they were provided so later libraries take precedence like before.
+            for (Map.Entry<File, Future<MappedJarFile>> library : libraries.entrySet()) {
+                File file = library.getKey();
+                long current = System.currentTimeMillis();
                 try {
-                    ZipFile zipFile = new ZipFile(file);
-                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
-                    while (entries.hasMoreElements()) {
-                        ZipEntry entry = entries.nextElement();
-                        if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
-                            try {
-                                ClassReader cr = new ClassReader(zipFile.getInputStream(entry));
-                                ClassNode classNode = new ClassNode();
-                                cr.accept(classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
-                                ClassWrapper classWrapper = new ClassWrapper(classNode, true);
-
-                                this.classPath.put(classWrapper.originalName, classWrapper);
-                            } catch (Throwable t) {
-                                // Don't care.
-                            }
-                        }
+                    MappedJarFile jarFile = library.getValue().get();
+                    this.jarFiles.add(jarFile);
+                    int count = this.classPath.index(jarFile);
+                    phase.add("libraries", 1);
+                    phase.add("classes", count);
+                    LoggerUtils.stdOut(String.format("Indexed %d classes from \"%s\". [%dms]", count, file.getAbsolutePath(), (System.currentTimeMillis() - current)));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ZipException) {
+                        LoggerUtils.stdErr(String.format("Library \"%s\" could not be opened as a zip file.", file.getAbsolutePath()));
+                    } else {
+                        LoggerUtils.stdErr(String.format("IOException happened while trying to load classes from \"%s\".", file.getAbsolutePath()));
                     }
-                } catch (ZipException e) {
-                    LoggerUtils.stdErr(String.format("Library \"%s\" could not be opened as a zip file.", file.getAbsolutePath()));
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    LoggerUtils.stdErr(String.format("IOException happened while trying to load classes from \"%s\".", file.getAbsolutePath()));
-                    e.printStackTrace();
+                    e.getCause().printStackTrace();
                 }
-            } else {
-                LoggerUtils.stdWarn(String.format("Library \"%s\" could not be found and will be ignored.", file.getAbsolutePath()));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadInputException();
+        } finally {
+            executor.shutdownNow();
         }
+        this.telemetry.end(phase);
     }
 
-    private void loadInput() {
+    /**
+     * Loads every class and resource of the input of the session.
+     */
+    public void loadInput() {
         File input = this.sessionInfo.getInput();
         if (input.exists()) {
             LoggerUtils.stdOut(String.format("Loading input \"%s\".", input.getAbsolutePath()));
+            Telemetry.Phase phase = this.telemetry.begin("Load input");
+            ExecutorService executor = Executors.newFixedThreadPool(this.sessionInfo.getThreads());
             try {
-                ZipFile zipFile = new ZipFile(input);
-                Enumeration<? extends ZipEntry> entries = zipFile.entries();
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = entries.nextElement();
+                MappedJarFile jarFile = new MappedJarFile(input);
+                this.jarFiles.add(jarFile);
+                LoadingJob job = new LoadingJob(input, this.telemetry);
+                for (MappedJarFile.Entry entry : jarFile.getEntries()) {
                     if (!entry.isDirectory()) {
                         if (entry.getName().endsWith(".class")) {
-                            try {
-                                ClassReader cr = new ClassReader(zipFile.getInputStream(entry));
-                                ClassNode classNode = new ClassNode();
-                                cr.accept(classNode, ClassReader.SKIP_FRAMES);
-                                if (classNode.version <= Opcodes.V1_5) {
-                                    for (int i = 0; i < classNode.methods.size(); i++) {
-                                        MethodNode methodNode = classNode.methods.get(i);
-                                        JSRInlinerAdapter adapter = new JSRInlinerAdapter(methodNode, methodNode.access, methodNode.name, methodNode.desc, methodNode.signature, methodNode.exceptions.toArray(new String[0]));
-                                        methodNode.accept(adapter);
-                                        classNode.methods.set(i, adapter);
+                            job.submit(executor, entry.getName(), () -> {
+                                try {
+                                    ClassReader cr = new ClassReader(entry.read());
+                                    ClassNode classNode = new ClassNode();
+                                    cr.accept(classNode, ClassReader.SKIP_FRAMES);
+                                    if (classNode.version <= Opcodes.V1_5) {
+                                        for (int i = 0; i < classNode.methods.size(); i++) {
+                                            MethodNode methodNode = classNode.methods.get(i);
+                                            JSRInlinerAdapter adapter = new JSRInlinerAdapter(methodNode, methodNode.access, methodNode.name, methodNode.desc, methodNode.signature, methodNode.exceptions.toArray(new String[0]));
+                                            methodNode.accept(adapter);
+                                            classNode.methods.set(i, adapter);
+                                        }
                                     }
+                                    ClassWrapper classWrapper = new ClassWrapper(classNode, false);
+
+                                    this.classPath.put(classWrapper.originalName, classWrapper);
+                                    this.classes.put(classWrapper.originalName, classWrapper);
+                                } catch (Throwable t) {
+                                    LoggerUtils.stdWarn(String.format("Could not load %s as a class.", entry.getName()));
+                                    this.resources.defer(entry.getName(), entry);
                                 }
-                                ClassWrapper classWrapper = new ClassWrapper(classNode, false);
-
-                                this.classPath.put(classWrapper.originalName, classWrapper);
-                                this.classes.put(classWrapper.originalName, classWrapper);
-                            } catch (Throwable t) {
-                                LoggerUtils.stdWarn(String.format("Could not load %s as a class.", entry.getName()));
-                                this.resources.put(entry.getName(), IOUtils.toByteArray(zipFile.getInputStream(entry)));
-                            }
+                            });
                         } else {
-                            this.resources.put(entry.getName(), IOUtils.toByteArray(zipFile.getInputStream(entry)));
+                            this.resources.defer(entry.getName(), entry);
                         }
                     }
                 }
+                job.await();
+                phase.set("classes", this.classes.size());
+                phase.set("methods", this.classes.values().stream().mapToLong(classWrapper ->
+                        classWrapper.methods.size()).sum());
+                phase.set("instructions", this.classes.values().stream().flatMap(classWrapper ->
+                        classWrapper.methods.stream()).mapToLong(Scheduler::getCost).sum());
+                phase.set("resources", this.resources.size());
             } catch (ZipException e) {
                 LoggerUtils.stdErr(String.format("Input file \"%s\" could not be opened as a zip file.", input.getAbsolutePath()));
                 e.printStackTrace();
@@ -214,53 +354,122 @@ public class Radon {
                 LoggerUtils.stdErr(String.format("IOException happened while trying to load classes from \"%s\".", input.getAbsolutePath()));
                 e.printStackTrace();
                 throw new BadInputException();
+            } finally {
+                executor.shutdownNow();
             }
+            this.telemetry.end(phase);
         } else {
             LoggerUtils.stdErr(String.format("Unable to find \"%s\".", input.getAbsolutePath()));
             throw new InputNotFoundException();
         }
     }
 
-    public ClassTree getTree(String ref) {
-        if (!hierarchy.containsKey(ref)) {
-            ClassWrapper wrapper = classPath.get(ref);
-            buildHierarchy(wrapper, null);
+    /**
+     * Closes the input and every library. Resources and library classes which haven't been read yet are dropped.
+     */
+    public void closeJarFiles() {
+        for (MappedJarFile jarFile : this.jarFiles) {
+            try {
+                jarFile.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
-
-        return hierarchy.get(ref);
+        this.jarFiles.clear();
+        this.classPath.clearDeferred();
+        this.resources.clearDeferred();
     }
 
-    private void buildHierarchy(ClassWrapper classWrapper, ClassWrapper sub) {
-        if (hierarchy.get(classWrapper.classNode.name) == null) {
-            ClassTree tree = new ClassTree(classWrapper);
-            if (classWrapper.classNode.superName != null) {
-                tree.parentClasses.add(classWrapper.classNode.superName);
-                ClassWrapper superClass = classPath.get(classWrapper.classNode.superName);
-                if (superClass == null)
-                    throw new MissingClassException(classWrapper.classNode.superName + " is missing in the classpath.");
-                buildHierarchy(superClass, classWrapper);
+    /**
+     * @return the generator every transformer takes its names from.
+     */
+    public NameGenerator getNameGenerator() {
+        NameGenerator generator = nameGenerator;
+        if (generator == null) {
+            synchronized (this) {
+                if (nameGenerator == null)
+                    nameGenerator = new NameGenerator(this.sessionInfo.getDictionaryType());
+
+                generator = nameGenerator;
             }
-            if (classWrapper.classNode.interfaces != null && !classWrapper.classNode.interfaces.isEmpty()) {
-                for (String s : classWrapper.classNode.interfaces) {
-                    tree.parentClasses.add(s);
-                    ClassWrapper interfaceClass = classPath.get(s);
-                    if (interfaceClass == null)
-                        throw new MissingClassException(s + " is missing in the classpath.");
-                    buildHierarchy(interfaceClass, classWrapper);
+        }
+
+        return generator;
+    }
+
+    /**
+     * @return the telemetry of this session.
+     */
+    public Telemetry getTelemetry() {
+        return telemetry;
+    }
+
+    /**
+     * @return the scheduler every transformer runs its work on.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns the hierarchy index, extending it first if the provided class hasn't been indexed yet.
+     *
+     * @param ref the internal name of the class which should be part of the hierarchy.
+     * @return a hierarchy index which contains the provided class.
+     */
+    public HierarchyIndex getHierarchy(String ref) {
+        return getHierarchy(Collections.singletonList(ref));
+    }
+
+    /**
+     * Returns the hierarchy index, extending it first by every provided class which hasn't been indexed yet. Extending
+     * the index rebuilds it, so all classes a phase needs should be requested at once.
+     *
+     * @param refs the internal names of the classes which should be part of the hierarchy.
+     * @return a hierarchy index which contains the provided classes.
+     */
+    public HierarchyIndex getHierarchy(Collection<String> refs) {
+        HierarchyIndex index = hierarchy;
+        if (refs.stream().anyMatch(ref -> index.getId(ref) < 0)) {
+            // Indexes are immutable, so classes which weren't there yet get a new index with the same ids for every
+            // class which already was. Only one thread may build it at a time.
+            synchronized (this) {
+                Map<String, ClassWrapper> missing = new LinkedHashMap<>();
+                for (String ref : refs) {
+                    if (hierarchy.getId(ref) < 0 && !missing.containsKey(ref)) {
+                        ClassWrapper wrapper = classPath.get(ref);
+                        if (wrapper == null)
+                            throw new MissingClassException(ref + " is missing in the classpath.");
+
+                        missing.put(ref, wrapper);
+                    }
                 }
+                if (!missing.isEmpty())
+                    hierarchy = hierarchy.with(missing.values(), classPath);
+
+                return hierarchy;
             }
-            hierarchy.put(classWrapper.classNode.name, tree);
-        }
-        if (sub != null) {
-            hierarchy.get(classWrapper.classNode.name).subClasses.add(sub.classNode.name);
         }
+
+        return index;
     }
 
-    private void buildInheritance() {
-        classes.values().forEach(classWrapper -> buildHierarchy(classWrapper, null));
+    /**
+     * Indexes the hierarchy of the loaded input. Has to be done before any transformer runs.
+     */
+    public void buildInheritance() {
+        Telemetry.Phase phase = this.telemetry.begin("Index hierarchy");
+        long current = System.currentTimeMillis();
+        hierarchy = HierarchyIndex.build(classes.values(), classPath);
+        phase.set("classes", hierarchy.size());
+        this.telemetry.end(phase);
+        LoggerUtils.stdOut(String.format("Indexed hierarchy of %d classes. [%dms]", hierarchy.size(), (System.currentTimeMillis() - current)));
     }
 
-    private void executeTransformers() {
+    /**
+     * Runs every transformer of the session on the loaded input.
+     */
+    public void executeTransformers() {
         if (this.sessionInfo.getTrashClasses() > 0) {
             this.sessionInfo.getTransformers().add(new TrashClasses());
         }
@@ -268,14 +477,137 @@ public class Radon {
             throw new NoTransformersException();
         }
         LoggerUtils.stdOut("------------------------------------------------");
-        this.sessionInfo.getTransformers().stream().filter(Objects::nonNull).forEach(transformer -> {
-            long current = System.currentTimeMillis();
-            LoggerUtils.stdOut(String.format("Running %s transformer.", transformer.getName()));
-            transformer.init(this);
-            transformer.transform();
-            LoggerUtils.stdOut(String.format("Finished running %s transformer. [%dms]", transformer.getName(), (System.currentTimeMillis() - current)));
-            LoggerUtils.stdOut("------------------------------------------------");
-        });
+        this.scheduler = new Scheduler(this.sessionInfo.getThreads(), this.telemetry);
+        try {
+            this.telemetry.measure(null, this.scheduler, this.classes.values());
+            new PassManager(this).run(this.sessionInfo.getTransformers());
+        } finally {
+            this.scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Tracks the entries of a single zip file which are being loaded on the worker pool so we can report how long the
+     * zip file took as a whole and how long its entries took individually.
+     */
+    private static class LoadingJob {
+        private final File file;
+        private final Telemetry telemetry;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private final long start = System.nanoTime();
+        private final AtomicLong end = new AtomicLong(start);
+        private final AtomicLong entryNanos = new AtomicLong();
+        private long slowestNanos;
+        private String slowestEntry;
+
+        private LoadingJob(File file, Telemetry telemetry) {
+            this.file = file;
+            this.telemetry = telemetry;
+        }
+
+        private void submit(ExecutorService executor, String name, Runnable task) {
+            futures.add(executor.submit(telemetry.track(() -> {
+                long current = System.nanoTime();
+                task.run();
+                long took = System.nanoTime() - current;
+
+                entryNanos.addAndGet(took);
+                end.accumulateAndGet(System.nanoTime(), Math::max);
+                synchronized (this) {
+                    if (took > slowestNanos) {
+                        slowestNanos = took;
+                        slowestEntry = name;
+                    }
+                }
+                return null;
+            })));
+        }
+
+        /**
+         * Waits for every submitted entry of this zip file to finish loading and logs the timings.
+         */
+        private void await() {
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BadInputException();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+
+                e.printStackTrace();
+                throw new BadInputException();
+            }
+
+            if (futures.isEmpty()) {
+                LoggerUtils.stdOut(String.format("Loaded 0 entries from \"%s\".", file.getAbsolutePath()));
+            } else {
+                LoggerUtils.stdOut(String.format("Loaded %d entries from \"%s\". [%dms, %.3fms per entry, slowest: %s %.3fms]",
+                        futures.size(), file.getAbsolutePath(), TimeUnit.NANOSECONDS.toMillis(end.get() - start),
+                        entryNanos.get() / 1_000_000D / futures.size(), slowestEntry, slowestNanos / 1_000_000D));
+            }
+        }
+    }
+
+    /**
+     * Returns the ancestors of the provided class. Ancestors are only computed once per class and shared between
+     * every {@link CustomClassWriter}.
+     *
+     * @param name the internal name of the class.
+     * @return the ancestors of the provided class.
+     */
+    private Ancestors getAncestors(String name) {
+        Ancestors ancestors = this.ancestors.get(name);
+        if (ancestors == null) {
+            ClassNode classNode = returnClazz(name);
+            ancestors = new Ancestors();
+            if (classNode.superName != null) {
+                Ancestors parent = getAncestors(classNode.superName);
+                ancestors.superClasses.add(classNode.superName);
+                ancestors.superClasses.addAll(parent.superClasses);
+                ancestors.interfaces.addAll(parent.interfaces);
+            }
+            if (classNode.interfaces != null) {
+                for (String itf : classNode.interfaces) {
+                    ancestors.interfaces.add(itf);
+                    ancestors.interfaces.addAll(getAncestors(itf).interfaces);
+                }
+            }
+
+            Ancestors existing = this.ancestors.putIfAbsent(name, ancestors);
+            if (existing != null) {
+                ancestors = existing;
+            }
+        }
+
+        return ancestors;
+    }
+
+    private ClassNode returnClazz(String ref) {
+        ClassWrapper clazz = classPath.get(ref);
+        if (clazz == null) {
+            throw new MissingClassException(ref + " does not exist in classpath!");
+        }
+        return clazz.classNode;
+    }
+
+    /**
+     * Superclass chain and every implemented interface of a class.
+     */
+    private static class Ancestors {
+        /**
+         * Superclasses ordered from the direct superclass up to java/lang/Object.
+         */
+        private final Set<String> superClasses = new LinkedHashSet<>();
+
+        /**
+         * Every interface the class implements, including interfaces implemented by superclasses and
+         * superinterfaces.
+         */
+        private final Set<String> interfaces = new HashSet<>();
     }
 
     class CustomClassWriter extends ClassWriter {
@@ -285,71 +617,48 @@ public class Radon {
 
         @Override
         protected String getCommonSuperClass(final String type1, final String type2) {
-            if ("java/lang/Object".equals(type1) || "java/lang/Object".equals(type2)) {
-                return "java/lang/Object";
-            }
-
-            String first = deriveCommonSuperName(type1, type2);
-            String second = deriveCommonSuperName(type2, type1);
-            if (!"java/lang/Object".equals(first)) {
-                return first;
-            }
-            if (!"java/lang/Object".equals(second)) {
-                return second;
+            // ';' can't be part of an internal name and the result doesn't depend on the order of the types.
+            String key = type1.compareTo(type2) <= 0 ? type1 + ';' + type2 : type2 + ';' + type1;
+            String common = commonSuperClasses.get(key);
+            if (common == null) {
+                common = deriveCommonSuperName(type1, type2);
+                commonSuperClasses.put(key, common);
             }
 
-            return getCommonSuperClass(returnClazz(type1).superName, returnClazz(type2).superName);
+            return common;
         }
 
         private String deriveCommonSuperName(String type1, String type2) {
-            ClassNode first = returnClazz(type1);
-            ClassNode second = returnClazz(type2);
+            if ("java/lang/Object".equals(type1) || "java/lang/Object".equals(type2)) {
+                return "java/lang/Object";
+            }
             if (isAssignableFrom(type1, type2)) {
                 return type1;
-            } else if (isAssignableFrom(type2, type1)) {
+            }
+            if (isAssignableFrom(type2, type1)) {
                 return type2;
-            } else if (Modifier.isInterface(first.access) || Modifier.isInterface(second.access)) {
+            }
+            if (Modifier.isInterface(returnClazz(type1).access) || Modifier.isInterface(returnClazz(type2).access)) {
                 return "java/lang/Object";
-            } else {
-                do {
-                    type1 = first.superName;
-                    first = returnClazz(type1);
-                } while (!isAssignableFrom(type1, type2));
-                return type1;
             }
-        }
 
-        private ClassNode returnClazz(String ref) {
-            ClassWrapper clazz = classPath.get(ref);
-            if (clazz == null) {
-                throw new MissingClassException(ref + " does not exist in classpath!");
+            Set<String> superClasses = getAncestors(type2).superClasses;
+            for (String superClass : getAncestors(type1).superClasses) {
+                if (superClasses.contains(superClass)) {
+                    return superClass;
+                }
             }
-            return clazz.classNode;
+
+            return "java/lang/Object";
         }
 
         private boolean isAssignableFrom(String type1, String type2) {
-            if ("java/lang/Object".equals(type1))
+            if ("java/lang/Object".equals(type1) || type1.equals(type2)) {
                 return true;
-            if (type1.equals(type2)) {
-                return true;
-            }
-            returnClazz(type1);
-            returnClazz(type2);
-            ClassTree firstTree = getTree(type1);
-            if (firstTree == null) {
-                throw new MissingClassException("Could not find " + type1 + " in the built class hierarchy");
             }
-            Set<String> allChildren = new HashSet<>();
-            LinkedList<String> toProcess = new LinkedList<>(firstTree.subClasses);
-            while (!toProcess.isEmpty()) {
-                String s = toProcess.poll();
-                if (allChildren.add(s)) {
-                    returnClazz(s);
-                    ClassTree tempTree = getTree(s);
-                    toProcess.addAll(tempTree.subClasses);
-                }
-            }
-            return allChildren.contains(type2);
+
+            Ancestors ancestors = getAncestors(type2);
+            return ancestors.superClasses.contains(type1) || ancestors.interfaces.contains(type1);
         }
     }
 }
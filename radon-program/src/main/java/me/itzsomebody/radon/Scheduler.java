@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
+
+/**
+ * Runs the work of the transformers on a dedicated {@link ForkJoinPool}. Work is handed over as a flat list of tasks
+ * which are ordered by their estimated cost, largest first, and every worker takes the next task of the list as soon
+ * as it is done with its last one. A few huge methods therefore start right away and never end up queued behind
+ * thousands of small ones, which is what happens when every class is split into its own parallel stream.
+ *
+ * @author ItzSomebody
+ */
+public class Scheduler {
+    /**
+     * How many workers are running on the current thread. Nested batches run their workers on the thread of the
+     * worker which started them, so only the outermost worker reports what was allocated.
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final ForkJoinPool pool;
+    private final Telemetry telemetry;
+
+    /**
+     * @param threads   the amount of worker threads.
+     * @param telemetry the telemetry the memory allocated by the workers is reported to.
+     */
+    public Scheduler(int threads, Telemetry telemetry) {
+        this.pool = new ForkJoinPool(threads);
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Runs the provided action on every task and waits for all of them to finish. Tasks with a higher cost are
+     * started first. If an action throws, the remaining tasks are skipped and the exception is rethrown.
+     *
+     * @param tasks  the tasks to run.
+     * @param cost   the estimated cost of a task.
+     * @param action the action to run on every task.
+     * @param <T>    the type of the tasks.
+     */
+    public <T> void forEach(Collection<T> tasks, ToIntFunction<T> cost, Consumer<T> action) {
+        List<Task<T>> sorted = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> sorted.add(new Task<>(task, cost.applyAsInt(task))));
+        if (sorted.isEmpty())
+            return;
+
+        sorted.sort((first, second) -> Integer.compare(second.cost, first.cost));
+        Batch<T> batch = new Batch<>(sorted, action);
+
+        // Transformers scheduling work from inside a task join the batch instead of blocking a worker.
+        if (ForkJoinTask.getPool() == pool) {
+            batch.invoke();
+        } else {
+            pool.invoke(batch);
+        }
+    }
+
+    /**
+     * @param classWrapper the class.
+     * @return the estimated cost of transforming the class, which is the amount of instructions it has.
+     */
+    public static int getCost(ClassWrapper classWrapper) {
+        int cost = 1;
+        for (MethodWrapper methodWrapper : classWrapper.methods) {
+            cost += getCost(methodWrapper);
+        }
+
+        return cost;
+    }
+
+    /**
+     * @param methodWrapper the method.
+     * @return the estimated cost of transforming the method, which is the amount of instructions it has.
+     */
+    public static int getCost(MethodWrapper methodWrapper) {
+        return methodWrapper.methodNode.instructions == null ? 0 : methodWrapper.methodNode.instructions.size();
+    }
+
+    /**
+     * Stops the worker threads once they are done with the work they were given.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static class Task<T> {
+        private final T value;
+        private final int cost;
+
+        private Task(T value, int cost) {
+            this.value = value;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Forks one worker per thread of the pool. Workers share the index of the next task, so whichever worker is idle
+     * takes the largest task which hasn't been started yet.
+     */
+    private class Batch<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Task<T>> tasks;
+        private final Consumer<T> action;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Batch(List<Task<T>> tasks, Consumer<T> action) {
+            this.tasks = tasks;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            int workers = Math.min(pool.getParallelism(), tasks.size());
+            List<Worker> forked = new ArrayList<>(workers - 1);
+            for (int i = 1; i < workers; i++) {
+                Worker worker = new Worker();
+                worker.fork();
+                forked.add(worker);
+            }
+
+            // Joining a worker which hasn't been stolen yet simply runs it on this thread.
+            new Worker().compute();
+            forked.forEach(ForkJoinTask::join);
+        }
+
+        private class Worker extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                int[] depth = DEPTH.get();
+                boolean outermost = depth[0]++ == 0;
+                long bytes = outermost && telemetry.isEnabled() ? Telemetry.getAllocatedBytes() : 0;
+                try {
+                    int index;
+                    while ((index = next.getAndIncrement()) < tasks.size()) {
+                        try {
+                            action.accept(tasks.get(index).value);
+                        } catch (Throwable t) {
+                            next.set(tasks.size());
+                            throw t;
+                        }
+                    }
+                } finally {
+                    depth[0]--;
+                    if (outermost && telemetry.isEnabled())
+                        telemetry.addAllocatedBytes(Telemetry.getAllocatedBytes() - bytes);
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package me.itzsomebody.radon;
 
 import java.io.File;
 import java.util.List;
+import java.util.zip.Deflater;
 import me.itzsomebody.radon.exclusions.ExclusionManager;
 import me.itzsomebody.radon.transformers.Transformer;
 
@@ -30,6 +31,9 @@ public class SessionInfo {
     private ExclusionManager exclusions;
     private int trashClasses;
     private Dictionaries dictionaryType;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private boolean telemetry;
 
     public void setInput(File input) {
         this.input = input;
@@ -86,4 +90,28 @@ public class SessionInfo {
     public Dictionaries getDictionaryType() {
         return this.dictionaryType;
     }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    public void setTelemetry(boolean telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    public boolean isTelemetry() {
+        return this.telemetry;
+    }
 }
@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
+import org.objectweb.asm.commons.CodeSizeEvaluator;
+
+/**
+ * Collects how long every phase of a session took, how much memory it allocated and how much code it touched, and
+ * writes it out as a report which can be compared between builds. Phases are loading, indexing, every transformer,
+ * every transformer of a fused pass and writing.
+ * <p>
+ * Allocations are measured per thread, so work which runs on worker threads has to be wrapped by
+ * {@link #track(Callable)} or report its own allocations through {@link #addAllocatedBytes(long)}. The code size of
+ * every method is measured with a {@link CodeSizeEvaluator} before the first transformer and after every transformer
+ * to count the methods it touched and to report how much every method grew over the whole session.
+ * <p>
+ * When telemetry isn't enabled, every method of this class does nothing besides running the provided work.
+ *
+ * @author ItzSomebody
+ */
+public class Telemetry {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final boolean enabled;
+    private final List<Phase> phases = new ArrayList<>();
+    private volatile Phase current;
+    private Map<MethodWrapper, MethodSize> initialSizes;
+    private Map<MethodWrapper, MethodSize> sizes;
+
+    public Telemetry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a new phase. Allocations reported by worker threads are added to this phase until it ends.
+     *
+     * @param name the name of the phase.
+     * @return the phase.
+     */
+    public Phase begin(String name) {
+        Phase phase = new Phase(name, enabled);
+        if (enabled) {
+            phases.add(phase);
+            current = phase;
+            phase.start();
+        }
+
+        return phase;
+    }
+
+    /**
+     * Ends the provided phase.
+     *
+     * @param phase the phase to end.
+     */
+    public void end(Phase phase) {
+        if (enabled) {
+            phase.stop();
+            current = null;
+        }
+    }
+
+    /**
+     * Wraps work which runs on a worker thread, so the memory it allocates is added to the phase which is running.
+     *
+     * @param task the work.
+     * @param <T>  the result of the work.
+     * @return the wrapped work.
+     */
+    public <T> Callable<T> track(Callable<T> task) {
+        if (!enabled)
+            return task;
+
+        return () -> {
+            long bytes = getAllocatedBytes();
+            try {
+                return task.call();
+            } finally {
+                addAllocatedBytes(getAllocatedBytes() - bytes);
+            }
+        };
+    }
+
+    /**
+     * Adds memory allocated by a worker thread to the phase which is running.
+     *
+     * @param bytes the amount of allocated bytes.
+     */
+    public void addAllocatedBytes(long bytes) {
+        Phase phase = current;
+        if (phase != null)
+            phase.allocatedBytes.add(bytes);
+    }
+
+    /**
+     * Measures the size of every method of the provided classes. The first measurement is what the growth of every
+     * method is reported against, every following one counts the methods which changed since the last measurement
+     * towards the provided phase.
+     *
+     * @param phase     the phase which ran since the last measurement or null if this is the first measurement.
+     * @param scheduler the scheduler to measure on.
+     * @param classes   the classes to measure.
+     */
+    public void measure(Phase phase, Scheduler scheduler, Collection<ClassWrapper> classes) {
+        if (!enabled)
+            return;
+
+        List<MethodWrapper> methodWrappers = new ArrayList<>();
+        classes.forEach(classWrapper -> methodWrappers.addAll(classWrapper.methods));
+        Map<MethodWrapper, MethodSize> measured = new ConcurrentHashMap<>();
+        scheduler.forEach(methodWrappers, Scheduler::getCost, methodWrapper ->
+                measured.put(methodWrapper, new MethodSize(methodWrapper)));
+
+        if (phase != null && sizes != null) {
+            long touched = 0;
+            long instructionsBefore = 0;
+            long instructionsAfter = 0;
+            long codeSizeBefore = 0;
+            long codeSizeAfter = 0;
+            for (Map.Entry<MethodWrapper, MethodSize> entry : measured.entrySet()) {
+                MethodSize before = sizes.getOrDefault(entry.getKey(), MethodSize.NONE);
+                MethodSize after = entry.getValue();
+                if (before.instructions != after.instructions || before.codeSize != after.codeSize)
+                    touched++;
+
+                instructionsBefore += before.instructions;
+                instructionsAfter += after.instructions;
+                codeSizeBefore += before.codeSize;
+                codeSizeAfter += after.codeSize;
+            }
+
+            phase.set("methods", measured.size());
+            phase.set("methodsTouched", touched);
+            phase.set("instructionsBefore", instructionsBefore);
+            phase.set("instructionsAfter", instructionsAfter);
+            phase.set("codeSizeBefore", codeSizeBefore);
+            phase.set("codeSizeAfter", codeSizeAfter);
+        }
+
+        if (initialSizes == null)
+            initialSizes = measured;
+        sizes = measured;
+    }
+
+    /**
+     * Writes the phases as JSON and the growth of every method as CSV.
+     *
+     * @param json the file to write the phases to.
+     * @param csv  the file to write the growth of every method to.
+     * @throws IOException if one of the files can't be written.
+     */
+    public void write(File json, File csv) throws IOException {
+        if (!enabled)
+            return;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(json.toPath()),
+                StandardCharsets.UTF_8))) {
+            writer.write("{\n  \"version\": " + quote(Main.VERSION) + ",\n");
+            writer.write("  \"allocationsSupported\": " + isAllocationSupported() + ",\n");
+            writer.write("  \"phases\": [");
+            writePhases(writer, phases, "    ");
+            writer.write("\n  ]\n}\n");
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(csv.toPath()),
+                StandardCharsets.UTF_8))) {
+            writer.write("class,method,descriptor,instructionsBefore,instructionsAfter,codeSizeBefore,codeSizeAfter\n");
+            if (sizes == null)
+                return;
+
+            List<MethodWrapper> methodWrappers = new ArrayList<>(sizes.keySet());
+            methodWrappers.sort(Comparator.comparing((MethodWrapper methodWrapper) ->
+                    methodWrapper.owner.classNode.name).thenComparing(methodWrapper -> methodWrapper.methodNode.name)
+                    .thenComparing(methodWrapper -> methodWrapper.methodNode.desc));
+            for (MethodWrapper methodWrapper : methodWrappers) {
+                MethodSize before = initialSizes.getOrDefault(methodWrapper, MethodSize.NONE);
+                MethodSize after = sizes.get(methodWrapper);
+                writer.write(csvField(methodWrapper.owner.classNode.name) + ','
+                        + csvField(methodWrapper.methodNode.name) + ',' + csvField(methodWrapper.methodNode.desc)
+                        + ',' + before.instructions + ',' + after.instructions + ',' + before.codeSize + ','
+                        + after.codeSize + '\n');
+            }
+        }
+    }
+
+    private static void writePhases(Writer writer, List<Phase> phases, String indent) throws IOException {
+        for (int i = 0; i < phases.size(); i++) {
+            Phase phase = phases.get(i);
+            writer.write((i == 0 ? "\n" : ",\n") + indent + "{\n");
+            writer.write(indent + "  \"name\": " + quote(phase.name) + ",\n");
+            writer.write(indent + "  \"nanos\": " + phase.nanos.sum() + ",\n");
+            writer.write(indent + "  \"allocatedBytes\": " + phase.allocatedBytes.sum());
+            for (Map.Entry<String, LongAdder> count : phase.getCounts().entrySet()) {
+                writer.write(",\n" + indent + "  " + quote(count.getKey()) + ": " + count.getValue().sum());
+            }
+            if (!phase.subPasses.isEmpty()) {
+                writer.write(",\n" + indent + "  \"subPasses\": [");
+                writePhases(writer, phase.subPasses, indent + "    ");
+                writer.write("\n" + indent + "  ]");
+            }
+            writer.write("\n" + indent + "}");
+        }
+    }
+
+    private static String quote(String str) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : str.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    private static String csvField(String str) {
+        return '"' + str.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isAllocationSupported() {
+        return THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return the amount of bytes the current thread allocated so far or 0 if the JVM can't tell.
+     */
+    public static long getAllocatedBytes() {
+        if (!isAllocationSupported())
+            return 0;
+
+        return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread()
+                .getId());
+    }
+
+    /**
+     * A phase of the session. Sub-passes measure the work of a single transformer within a fused pass and are added
+     * to from many threads at once.
+     */
+    public static class Phase {
+        private final String name;
+        private final boolean enabled;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final Map<String, LongAdder> counts = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final List<Phase> subPasses = new ArrayList<>();
+        private long startNanos;
+        private long startBytes;
+
+        private Phase(String name, boolean enabled) {
+            this.name = name;
+            this.enabled = enabled;
+        }
+
+        private void start() {
+            startBytes = getAllocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        private void stop() {
+            nanos.add(System.nanoTime() - startNanos);
+            allocatedBytes.add(getAllocatedBytes() - startBytes);
+        }
+
+        /**
+         * Adds a sub-pass to this phase. Has to be called before the phase is shared with other threads.
+         *
+         * @param name the name of the sub-pass.
+         * @return the sub-pass.
+         */
+        public Phase subPass(String name) {
+            Phase subPass = new Phase(name, enabled);
+            if (enabled)
+                subPasses.add(subPass);
+
+            return subPass;
+        }
+
+        /**
+         * Runs the provided work and adds the time it took and the memory it allocated to this phase.
+         *
+         * @param work the work to run.
+         */
+        public void time(Runnable work) {
+            if (!enabled) {
+                work.run();
+                return;
+            }
+
+            long bytes = getAllocatedBytes();
+            long current = System.nanoTime();
+            try {
+                work.run();
+            } finally {
+                nanos.add(System.nanoTime() - current);
+                allocatedBytes.add(getAllocatedBytes() - bytes);
+            }
+        }
+
+        /**
+         * Adds to one of the counts of this phase.
+         *
+         * @param count the name of the count.
+         * @param value the amount to add.
+         */
+        public void add(String count, long value) {
+            if (enabled)
+                counts.computeIfAbsent(count, k -> new LongAdder()).add(value);
+        }
+
+        /**
+         * Sets one of the counts of this phase.
+         *
+         * @param count the name of the count.
+         * @param value the value of the count.
+         */
+        public void set(String count, long value) {
+            if (!enabled)
+                return;
+
+            LongAdder adder = counts.computeIfAbsent(count, k -> new LongAdder());
+            adder.reset();
+            adder.add(value);
+        }
+
+        private Map<String, LongAdder> getCounts() {
+            synchronized (counts) {
+                return new LinkedHashMap<>(counts);
+            }
+        }
+    }
+
+    /**
+     * The size of a method when it was measured.
+     */
+    private static class MethodSize {
+        private static final MethodSize NONE = new MethodSize(0, 0);
+
+        private final int instructions;
+        private final int codeSize;
+
+        private MethodSize(int instructions, int codeSize) {
+            this.instructions = instructions;
+            this.codeSize = codeSize;
+        }
+
+        private MethodSize(MethodWrapper methodWrapper) {
+            this(Scheduler.getCost(methodWrapper), getCodeSize(methodWrapper));
+        }
+
+        private static int getCodeSize(MethodWrapper methodWrapper) {
+            if (methodWrapper.methodNode.instructions == null || methodWrapper.methodNode.instructions.size() == 0)
+                return 0;
+
+            CodeSizeEvaluator cse = new CodeSizeEvaluator(null);
+            methodWrapper.methodNode.accept(cse);
+            return cse.getMaxSize();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Moves the code which decodes an obfuscated constant out of the loops it is in. The decoded value is computed once in
+ * a preheader, which is a new block every entry into the loop goes through, and stored into a new local which the
+ * loop loads instead. The constant stays obfuscated, but the loop no longer pays for decoding it on every iteration.
+ * <p>
+ * Constants are hoisted while the method is transformed and the preheaders are inserted by {@link #apply()} once the
+ * method is done, since the loops were found before any instruction of the method was replaced.
+ *
+ * @author ItzSomebody
+ */
+public class ConstantHoister implements Opcodes {
+    private final MethodNode methodNode;
+    private final LoopAnalyzer loopAnalyzer;
+    private final Map<LoopAnalyzer.Loop, InsnList> preheaders = new IdentityHashMap<>();
+    private int hoisted;
+
+    /**
+     * Finds the loops of the provided method. Has to be created before any instruction of the method is replaced.
+     *
+     * @param owner      the internal name of the class the method is in.
+     * @param methodNode the method constants are hoisted in.
+     */
+    public ConstantHoister(String owner, MethodNode methodNode) {
+        this.methodNode = methodNode;
+        this.loopAnalyzer = LoopAnalyzer.analyze(owner, methodNode);
+    }
+
+    /**
+     * Replaces an instruction with the provided instructions and hoists them if the instruction is in a loop.
+     *
+     * @param insn        the instruction to replace.
+     * @param replacement the instructions which push the value of the replaced instruction.
+     * @param type        the type of the pushed value.
+     */
+    public void replace(AbstractInsnNode insn, InsnList replacement, Type type) {
+        AbstractInsnNode first = replacement.getFirst();
+        AbstractInsnNode last = replacement.getLast();
+        methodNode.instructions.insertBefore(insn, replacement);
+        methodNode.instructions.remove(insn);
+        hoist(insn, first, last, type);
+    }
+
+    /**
+     * Moves the instructions between first and last (inclusive) into the preheader of the outermost loop the provided
+     * instruction is in. The moved instructions may not depend on anything besides constants and have to leave a
+     * single value on the stack.
+     *
+     * @param insn  the instruction the moved instructions were generated for, as it was found by the analysis.
+     * @param first the first instruction to move.
+     * @param last  the last instruction to move.
+     * @param type  the type of the value left on the stack.
+     * @return true if the instructions were moved.
+     */
+    public boolean hoist(AbstractInsnNode insn, AbstractInsnNode first, AbstractInsnNode last, Type type) {
+        LoopAnalyzer.Loop loop = loopAnalyzer.getOutermostLoop(insn);
+        if (loop == null || !(loop.getHeader() instanceof LabelNode))
+            return false;
+
+        int local = methodNode.maxLocals;
+        methodNode.maxLocals += type.getSize();
+
+        InsnList preheader = preheaders.computeIfAbsent(loop, k -> new InsnList());
+        methodNode.instructions.insertBefore(first, new VarInsnNode(type.getOpcode(ILOAD), local));
+
+        AbstractInsnNode end = last.getNext();
+        AbstractInsnNode current = first;
+        while (current != end) {
+            AbstractInsnNode next = current.getNext();
+            methodNode.instructions.remove(current);
+            preheader.add(current);
+            current = next;
+        }
+        preheader.add(new VarInsnNode(type.getOpcode(ISTORE), local));
+        hoisted++;
+
+        return true;
+    }
+
+    /**
+     * Inserts the preheaders of every loop something was hoisted out of.
+     *
+     * @return the amount of hoisted constants.
+     */
+    public int apply() {
+        preheaders.forEach((loop, code) -> {
+            LabelNode header = (LabelNode) loop.getHeader();
+            LabelNode preheader = new LabelNode();
+
+            InsnList insns = new InsnList();
+            if (loop.isFallingIntoHeader())
+                insns.add(new JumpInsnNode(GOTO, header));
+            insns.add(preheader);
+            insns.add(code);
+            methodNode.instructions.insertBefore(header, insns);
+
+            loop.getEntries().forEach(entry -> redirect(entry, header, preheader));
+        });
+        preheaders.clear();
+
+        return hoisted;
+    }
+
+    private static void redirect(AbstractInsnNode insn, LabelNode from, LabelNode to) {
+        if (insn instanceof JumpInsnNode) {
+            JumpInsnNode jump = (JumpInsnNode) insn;
+            if (jump.label == from)
+                jump.label = to;
+        } else if (insn instanceof TableSwitchInsnNode) {
+            TableSwitchInsnNode tableSwitch = (TableSwitchInsnNode) insn;
+            if (tableSwitch.dflt == from)
+                tableSwitch.dflt = to;
+            tableSwitch.labels.replaceAll(label -> label == from ? to : label);
+        } else if (insn instanceof LookupSwitchInsnNode) {
+            LookupSwitchInsnNode lookupSwitch = (LookupSwitchInsnNode) insn;
+            if (lookupSwitch.dflt == from)
+                lookupSwitch.dflt = to;
+            lookupSwitch.labels.replaceAll(label -> label == from ? to : label);
+        }
+    }
+}
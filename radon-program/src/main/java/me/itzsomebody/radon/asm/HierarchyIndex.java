@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import me.itzsomebody.radon.exceptions.MissingClassException;
+
+/**
+ * Used to keep information on the hierarchy of all loaded classes. Every class is interned to an int id and the
+ * edges between classes are stored as compressed adjacency arrays, so walking the hierarchy doesn't touch a single
+ * {@link java.util.Set}. An index is never modified after it has been built, which makes it safe to query from any
+ * amount of threads.
+ *
+ * @author ItzSomebody
+ */
+public class HierarchyIndex {
+    private final Map<String, Integer> ids;
+    private final ClassWrapper[] classWrappers;
+
+    /**
+     * Parents of class i are parents[parentOffsets[i]] until parents[parentOffsets[i + 1]].
+     */
+    private final int[] parentOffsets;
+    private final int[] parents;
+
+    /**
+     * Direct subclasses of class i are children[childOffsets[i]] until children[childOffsets[i + 1]].
+     */
+    private final int[] childOffsets;
+    private final int[] children;
+
+    private HierarchyIndex(Map<String, Integer> ids, ClassWrapper[] classWrappers, int[] parentOffsets,
+                           int[] parents, int[] childOffsets, int[] children) {
+        this.ids = ids;
+        this.classWrappers = classWrappers;
+        this.parentOffsets = parentOffsets;
+        this.parents = parents;
+        this.childOffsets = childOffsets;
+        this.children = children;
+    }
+
+    /**
+     * Builds the hierarchy of the provided classes and all of their ancestors in a single pass.
+     *
+     * @param classWrappers the classes to build the hierarchy of.
+     * @param classPath     the classpath to look up ancestors in.
+     * @return the built index.
+     * @throws MissingClassException if an ancestor isn't in the classpath.
+     */
+    public static HierarchyIndex build(Collection<ClassWrapper> classWrappers, Map<String, ClassWrapper> classPath) {
+        return build(new ArrayList<>(classWrappers), new HashMap<>(), classPath);
+    }
+
+    /**
+     * Creates a new index which also contains the provided classes and their ancestors. Classes which were already
+     * indexed keep their id. Every call rebuilds the whole index, so classes should be added all at once rather than
+     * one by one.
+     *
+     * @param added     the classes to add.
+     * @param classPath the classpath to look up ancestors in.
+     * @return the new index.
+     * @throws MissingClassException if an ancestor isn't in the classpath.
+     */
+    public HierarchyIndex with(Collection<ClassWrapper> added, Map<String, ClassWrapper> classPath) {
+        List<ClassWrapper> seed = new ArrayList<>(classWrappers.length + added.size());
+        seed.addAll(Arrays.asList(classWrappers));
+        seed.addAll(added);
+
+        return build(seed, new HashMap<>(ids.size() * 2), classPath);
+    }
+
+    private static HierarchyIndex build(List<ClassWrapper> wrappers, Map<String, Integer> ids,
+                                        Map<String, ClassWrapper> classPath) {
+        List<ClassWrapper> seed = new ArrayList<>(wrappers);
+        wrappers.clear();
+        for (ClassWrapper classWrapper : seed) {
+            if (ids.putIfAbsent(classWrapper.classNode.name, wrappers.size()) == null) {
+                wrappers.add(classWrapper);
+            }
+        }
+
+        // Every class is visited once in id order, ancestors which haven't been seen yet get appended.
+        int[] edgeChildren = new int[Math.max(16, wrappers.size() * 2)];
+        int[] edgeParents = new int[edgeChildren.length];
+        int edges = 0;
+        for (int id = 0; id < wrappers.size(); id++) {
+            ClassWrapper classWrapper = wrappers.get(id);
+            List<String> parentNames = new ArrayList<>();
+            if (classWrapper.classNode.superName != null) {
+                parentNames.add(classWrapper.classNode.superName);
+            }
+            if (classWrapper.classNode.interfaces != null) {
+                parentNames.addAll(classWrapper.classNode.interfaces);
+            }
+
+            for (String parentName : parentNames) {
+                Integer parent = ids.get(parentName);
+                if (parent == null) {
+                    ClassWrapper parentWrapper = classPath.get(parentName);
+                    if (parentWrapper == null)
+                        throw new MissingClassException(parentName + " is missing in the classpath.");
+
+                    parent = wrappers.size();
+                    ids.put(parentName, parent);
+                    wrappers.add(parentWrapper);
+                }
+
+                if (edges == edgeChildren.length) {
+                    edgeChildren = Arrays.copyOf(edgeChildren, edges * 2);
+                    edgeParents = Arrays.copyOf(edgeParents, edges * 2);
+                }
+                edgeChildren[edges] = id;
+                edgeParents[edges] = parent;
+                edges++;
+            }
+        }
+
+        int count = wrappers.size();
+        int[] parentOffsets = new int[count + 1];
+        int[] childOffsets = new int[count + 1];
+        for (int i = 0; i < edges; i++) {
+            parentOffsets[edgeChildren[i] + 1]++;
+            childOffsets[edgeParents[i] + 1]++;
+        }
+        for (int i = 0; i < count; i++) {
+            parentOffsets[i + 1] += parentOffsets[i];
+            childOffsets[i + 1] += childOffsets[i];
+        }
+
+        int[] parents = new int[edges];
+        int[] children = new int[edges];
+        int[] parentFill = Arrays.copyOf(parentOffsets, count);
+        int[] childFill = Arrays.copyOf(childOffsets, count);
+        for (int i = 0; i < edges; i++) {
+            parents[parentFill[edgeChildren[i]]++] = edgeParents[i];
+            children[childFill[edgeParents[i]]++] = edgeChildren[i];
+        }
+
+        return new HierarchyIndex(ids, wrappers.toArray(new ClassWrapper[0]), parentOffsets, parents, childOffsets,
+                children);
+    }
+
+    /**
+     * @param name the internal name of the class.
+     * @return the id of the class or -1 if it isn't indexed.
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the amount of indexed classes. Ids range from 0 to this (exclusive).
+     */
+    public int size() {
+        return classWrappers.length;
+    }
+
+    public ClassWrapper getClassWrapper(int id) {
+        return classWrappers[id];
+    }
+
+    public int getParentCount(int id) {
+        return parentOffsets[id + 1] - parentOffsets[id];
+    }
+
+    /**
+     * @param id    the id of the class.
+     * @param index the index of the parent, between 0 and {@link #getParentCount(int)} (exclusive).
+     * @return the id of the superclass or interface at the provided index.
+     */
+    public int getParent(int id, int index) {
+        return parents[parentOffsets[id] + index];
+    }
+
+    public int getChildCount(int id) {
+        return childOffsets[id + 1] - childOffsets[id];
+    }
+
+    /**
+     * @param id    the id of the class.
+     * @param index the index of the child, between 0 and {@link #getChildCount(int)} (exclusive).
+     * @return the id of the direct subclass or subinterface at the provided index.
+     */
+    public int getChild(int id, int index) {
+        return children[childOffsets[id] + index];
+    }
+
+    /**
+     * @param id the id of the class.
+     * @return the ids of every indexed class which directly or indirectly extends or implements the provided class.
+     */
+    public BitSet getSubTypes(int id) {
+        BitSet subTypes = new BitSet(classWrappers.length);
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = id;
+        while (size > 0) {
+            int current = stack[--size];
+            for (int i = childOffsets[current]; i < childOffsets[current + 1]; i++) {
+                int child = children[i];
+                if (!subTypes.get(child)) {
+                    subTypes.set(child);
+                    if (size == stack.length)
+                        stack = Arrays.copyOf(stack, size * 2);
+                    stack[size++] = child;
+                }
+            }
+        }
+
+        return subTypes;
+    }
+
+    /**
+     * @param subType   the id of the possible subtype.
+     * @param superType the id of the possible supertype.
+     * @return true if the first class is, extends or implements the second class.
+     */
+    public boolean isSubType(int subType, int superType) {
+        if (subType == superType)
+            return true;
+
+        BitSet visited = new BitSet(classWrappers.length);
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = subType;
+        while (size > 0) {
+            int current = stack[--size];
+            for (int i = parentOffsets[current]; i < parentOffsets[current + 1]; i++) {
+                int parent = parents[i];
+                if (parent == superType)
+                    return true;
+                if (!visited.get(parent)) {
+                    visited.set(parent);
+                    if (size == stack.length)
+                        stack = Arrays.copyOf(stack, size * 2);
+                    stack[size++] = parent;
+                }
+            }
+        }
+
+        return false;
+    }
+}
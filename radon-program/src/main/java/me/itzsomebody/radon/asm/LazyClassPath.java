@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import me.itzsomebody.radon.io.LazyMap;
+import me.itzsomebody.radon.io.MappedJarFile;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * Classpath which only indexes the names of library classes up front and parses them into {@link ClassWrapper}s the
+ * first time they are requested. Most library classes are never looked at during obfuscation, so there is no point
+ * in keeping all of them in memory.
+ *
+ * @author ItzSomebody
+ */
+public class LazyClassPath extends LazyMap<MappedJarFile.Entry, ClassWrapper> {
+    /**
+     * Adds all of the classes found in the provided library to the index. Classes indexed later replace classes
+     * indexed earlier, so libraries should be indexed in the order they were provided in.
+     *
+     * @param jarFile the library to index.
+     * @return the amount of classes indexed.
+     */
+    public int index(MappedJarFile jarFile) {
+        int count = 0;
+        for (MappedJarFile.Entry entry : jarFile.getEntries()) {
+            String name = entry.getName();
+            if (!entry.isDirectory() && name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                defer(name.substring(0, name.length() - ".class".length()), entry);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the amount of library classes which have been parsed so far.
+     */
+    public int getLoadedLibraryCount() {
+        return (int) getLoaded().values().stream().filter(classWrapper -> classWrapper.libraryNode).count();
+    }
+
+    @Override
+    protected ClassWrapper load(MappedJarFile.Entry entry) {
+        try {
+            ClassReader cr = new ClassReader(entry.read());
+            ClassNode classNode = new ClassNode();
+            cr.accept(classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+
+            return new ClassWrapper(classNode, true);
+        } catch (Throwable t) {
+            // Don't care.
+            return null;
+        }
+    }
+}
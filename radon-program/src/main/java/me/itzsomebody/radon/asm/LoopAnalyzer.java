@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import me.itzsomebody.radon.utils.LoggerUtils;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.BasicInterpreter;
+import org.objectweb.asm.tree.analysis.BasicValue;
+
+/**
+ * Finds the natural loops of a method. The control flow graph is recorded by an {@link Analyzer}, dominators are
+ * computed with the iterative algorithm of Cooper, Harvey and Kennedy and every back edge (an edge whose target
+ * dominates its source) forms a loop together with every instruction which can reach the back edge without passing
+ * the loop header. Irreducible cycles don't have a single header and are not reported.
+ *
+ * @author ItzSomebody
+ */
+public class LoopAnalyzer {
+    private final List<Loop> loops;
+    private final Map<AbstractInsnNode, Loop> outermostLoops;
+
+    private LoopAnalyzer(List<Loop> loops, Map<AbstractInsnNode, Loop> outermostLoops) {
+        this.loops = loops;
+        this.outermostLoops = outermostLoops;
+    }
+
+    /**
+     * Finds the loops of the provided method. Methods which can't be analyzed are treated as if they had no loops
+     * and a warning is logged.
+     *
+     * @param owner      the internal name of the class the method is in.
+     * @param methodNode the method to analyze.
+     * @return the loops of the method.
+     */
+    public static LoopAnalyzer analyze(String owner, MethodNode methodNode) {
+        if (!mayLoop(methodNode))
+            return new LoopAnalyzer(Collections.emptyList(), Collections.emptyMap());
+
+        InsnList insns = methodNode.instructions;
+        int size = insns.size();
+        int[][] successors = new int[size][];
+        int[] successorCounts = new int[size];
+        boolean[] handlers = new boolean[size];
+
+        Analyzer<BasicValue> analyzer = new Analyzer<BasicValue>(new BasicInterpreter()) {
+            @Override
+            protected void newControlFlowEdge(int insn, int successor) {
+                addEdge(insn, successor);
+            }
+
+            @Override
+            protected boolean newControlFlowExceptionEdge(int insn, int successor) {
+                handlers[successor] = true;
+                addEdge(insn, successor);
+                return true;
+            }
+
+            private void addEdge(int insn, int successor) {
+                int[] edges = successors[insn];
+                if (edges == null) {
+                    edges = successors[insn] = new int[2];
+                } else if (successorCounts[insn] == edges.length) {
+                    edges = successors[insn] = Arrays.copyOf(edges, edges.length * 2);
+                }
+                edges[successorCounts[insn]++] = successor;
+            }
+        };
+
+        try {
+            analyzer.analyze(owner, methodNode);
+        } catch (AnalyzerException e) {
+            LoggerUtils.stdWarn(String.format("Could not find the loops of %s.%s%s, treating it as loop-free: %s",
+                    owner, methodNode.name, methodNode.desc, e.getMessage()));
+            return new LoopAnalyzer(Collections.emptyList(), Collections.emptyMap());
+        }
+
+        // Reverse postorder of every reachable instruction.
+        int[] order = new int[size];
+        int[] postIndex = new int[size];
+        Arrays.fill(postIndex, -1);
+        int orderSize = 0;
+        {
+            boolean[] visited = new boolean[size];
+            int[] stack = new int[size];
+            int[] next = new int[size];
+            int stackSize = 0;
+            stack[stackSize++] = 0;
+            visited[0] = true;
+            while (stackSize > 0) {
+                int current = stack[stackSize - 1];
+                if (next[current] < successorCounts[current]) {
+                    int successor = successors[current][next[current]++];
+                    if (!visited[successor]) {
+                        visited[successor] = true;
+                        stack[stackSize++] = successor;
+                    }
+                } else {
+                    stackSize--;
+                    postIndex[current] = orderSize;
+                    order[orderSize++] = current;
+                }
+            }
+        }
+
+        int[][] predecessors = new int[size][];
+        int[] predecessorCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < successorCounts[i]; j++) {
+                predecessorCounts[successors[i][j]]++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            predecessors[i] = new int[predecessorCounts[i]];
+            predecessorCounts[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < successorCounts[i]; j++) {
+                int successor = successors[i][j];
+                predecessors[successor][predecessorCounts[successor]++] = i;
+            }
+        }
+
+        int[] dominators = new int[size];
+        Arrays.fill(dominators, -1);
+        dominators[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = orderSize - 2; i >= 0; i--) {
+                int current = order[i];
+                int dominator = -1;
+                for (int predecessor : predecessors[current]) {
+                    if (dominators[predecessor] == -1)
+                        continue;
+
+                    dominator = dominator == -1 ? predecessor
+                            : intersect(dominator, predecessor, dominators, postIndex);
+                }
+                if (dominators[current] != dominator) {
+                    dominators[current] = dominator;
+                    changed = true;
+                }
+            }
+        }
+
+        // Loops which share a header are merged into one.
+        Map<Integer, BitSet> bodies = new TreeMap<>();
+        for (int source = 0; source < size; source++) {
+            if (dominators[source] == -1)
+                continue;
+
+            for (int j = 0; j < successorCounts[source]; j++) {
+                int header = successors[source][j];
+                if (!dominates(header, source, dominators)) {
+                    continue;
+                }
+
+                BitSet body = bodies.computeIfAbsent(header, k -> {
+                    BitSet bits = new BitSet(size);
+                    bits.set(k);
+                    return bits;
+                });
+                int[] stack = new int[16];
+                int stackSize = 0;
+                if (!body.get(source)) {
+                    body.set(source);
+                    stack[stackSize++] = source;
+                }
+                while (stackSize > 0) {
+                    int current = stack[--stackSize];
+                    for (int predecessor : predecessors[current]) {
+                        if (dominators[predecessor] != -1 && !body.get(predecessor)) {
+                            body.set(predecessor);
+                            if (stackSize == stack.length)
+                                stack = Arrays.copyOf(stack, stackSize * 2);
+                            stack[stackSize++] = predecessor;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (bodies.isEmpty())
+            return new LoopAnalyzer(Collections.emptyList(), Collections.emptyMap());
+
+        List<Loop> loops = new ArrayList<>(bodies.size());
+        AbstractInsnNode[] nodes = insns.toArray();
+        for (Map.Entry<Integer, BitSet> entry : bodies.entrySet()) {
+            int header = entry.getKey();
+            BitSet body = entry.getValue();
+
+            List<AbstractInsnNode> entries = new ArrayList<>();
+            for (int predecessor : predecessors[header]) {
+                if (!body.get(predecessor))
+                    entries.add(nodes[predecessor]);
+            }
+            boolean fallsIntoHeader = header > 0 && body.get(header - 1)
+                    && Arrays.stream(predecessors[header]).anyMatch(predecessor -> predecessor == header - 1);
+
+            loops.add(new Loop(nodes[header], body, handlers[header], entries, fallsIntoHeader));
+        }
+
+        // Bigger loops contain the smaller loops they overlap with, so they get to claim instructions first.
+        List<Loop> bySize = new ArrayList<>(loops);
+        bySize.sort((first, second) -> Integer.compare(second.getSize(), first.getSize()));
+        Map<AbstractInsnNode, Loop> outermostLoops = new IdentityHashMap<>();
+        for (Loop loop : bySize) {
+            if (loop.handler)
+                continue;
+
+            for (int i = loop.body.nextSetBit(0); i >= 0; i = loop.body.nextSetBit(i + 1)) {
+                outermostLoops.putIfAbsent(nodes[i], loop);
+            }
+        }
+
+        return new LoopAnalyzer(loops, outermostLoops);
+    }
+
+    /**
+     * @return every loop of the method.
+     */
+    public List<Loop> getLoops() {
+        return loops;
+    }
+
+    /**
+     * @param insn an instruction which was in the method when it was analyzed.
+     * @return the outermost loop the instruction is in or null if it isn't in a loop. Loops whose header is the start
+     * of an exception handler can't be entered from a single place, so they are never returned.
+     */
+    public Loop getOutermostLoop(AbstractInsnNode insn) {
+        return outermostLoops.get(insn);
+    }
+
+    /**
+     * A method without a transfer of control to an earlier instruction can't have a cycle, which lets most methods
+     * skip the analysis entirely.
+     */
+    private static boolean mayLoop(MethodNode methodNode) {
+        InsnList insns = methodNode.instructions;
+        for (TryCatchBlockNode tryCatchBlock : methodNode.tryCatchBlocks) {
+            if (insns.indexOf(tryCatchBlock.handler) < insns.indexOf(tryCatchBlock.end))
+                return true;
+        }
+        for (AbstractInsnNode insn : insns.toArray()) {
+            if (insn instanceof JumpInsnNode) {
+                if (isBackwards(insns, insn, ((JumpInsnNode) insn).label))
+                    return true;
+            } else if (insn instanceof TableSwitchInsnNode) {
+                TableSwitchInsnNode tableSwitch = (TableSwitchInsnNode) insn;
+                if (isBackwards(insns, insn, tableSwitch.dflt)
+                        || tableSwitch.labels.stream().anyMatch(label -> isBackwards(insns, insn, label)))
+                    return true;
+            } else if (insn instanceof LookupSwitchInsnNode) {
+                LookupSwitchInsnNode lookupSwitch = (LookupSwitchInsnNode) insn;
+                if (isBackwards(insns, insn, lookupSwitch.dflt)
+                        || lookupSwitch.labels.stream().anyMatch(label -> isBackwards(insns, insn, label)))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isBackwards(InsnList insns, AbstractInsnNode insn, LabelNode label) {
+        return insns.indexOf(label) <= insns.indexOf(insn);
+    }
+
+    private static int intersect(int first, int second, int[] dominators, int[] postIndex) {
+        while (first != second) {
+            while (postIndex[first] < postIndex[second]) {
+                first = dominators[first];
+            }
+            while (postIndex[second] < postIndex[first]) {
+                second = dominators[second];
+            }
+        }
+
+        return first;
+    }
+
+    private static boolean dominates(int dominator, int insn, int[] dominators) {
+        while (true) {
+            if (insn == dominator)
+                return true;
+            if (insn == dominators[insn])
+                return false;
+
+            insn = dominators[insn];
+        }
+    }
+
+    /**
+     * A natural loop.
+     */
+    public static class Loop {
+        private final AbstractInsnNode header;
+        private final BitSet body;
+        private final boolean handler;
+        private final List<AbstractInsnNode> entries;
+        private final boolean fallsIntoHeader;
+
+        private Loop(AbstractInsnNode header, BitSet body, boolean handler, List<AbstractInsnNode> entries,
+                     boolean fallsIntoHeader) {
+            this.header = header;
+            this.body = body;
+            this.handler = handler;
+            this.entries = entries;
+            this.fallsIntoHeader = fallsIntoHeader;
+        }
+
+        /**
+         * @return the first instruction of the loop, which every instruction of the loop is dominated by.
+         */
+        public AbstractInsnNode getHeader() {
+            return header;
+        }
+
+        /**
+         * @return the amount of instructions in the loop.
+         */
+        public int getSize() {
+            return body.cardinality();
+        }
+
+        /**
+         * @return true if the header is the start of an exception handler.
+         */
+        public boolean isHandler() {
+            return handler;
+        }
+
+        /**
+         * @return the instructions outside of the loop which transfer control to the header.
+         */
+        public List<AbstractInsnNode> getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return true if the instruction right before the header is in the loop and falls through into the header.
+         */
+        public boolean isFallingIntoHeader() {
+            return fallsIntoHeader;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.Arrays;
+import java.util.List;
+import me.itzsomebody.radon.exceptions.StackEmulationException;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+/**
+ * Computes the height of the operand stack (in words, so longs and doubles count twice) before every instruction of a
+ * method. Instructions are visited through a worklist which follows jumps, switches, subroutines and exception
+ * handlers, so every reachable instruction is visited exactly once and heights are exact rather than guessed from the
+ * instruction order.
+ *
+ * @author ItzSomebody
+ */
+public class StackHeightAnalyzer implements Opcodes {
+    /**
+     * Height of instructions which can't be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final AbstractInsnNode[] insns;
+    private final int[] heights;
+
+    private StackHeightAnalyzer(AbstractInsnNode[] insns, int[] heights) {
+        this.insns = insns;
+        this.heights = heights;
+    }
+
+    /**
+     * Computes the stack heights of the provided method.
+     *
+     * @param methodNode the method to analyze.
+     * @return the stack heights of the method.
+     * @throws StackEmulationException if the method underflows the stack or reaches an instruction with two
+     *                                 different heights.
+     */
+    public static StackHeightAnalyzer analyze(MethodNode methodNode) {
+        InsnList insnList = methodNode.instructions;
+        AbstractInsnNode[] insns = insnList.toArray();
+        int size = insns.length;
+        int[] heights = new int[size];
+        Arrays.fill(heights, UNREACHABLE);
+        if (size == 0)
+            return new StackHeightAnalyzer(insns, heights);
+
+        // Handlers[i] holds the indexes of the handlers which cover instruction i.
+        int[][] handlers = new int[size][];
+        int[] handlerCounts = new int[size];
+        for (TryCatchBlockNode tryCatchBlock : methodNode.tryCatchBlocks) {
+            int handler = insnList.indexOf(tryCatchBlock.handler);
+            int end = insnList.indexOf(tryCatchBlock.end);
+            for (int i = insnList.indexOf(tryCatchBlock.start); i < end; i++) {
+                if (handlers[i] == null) {
+                    handlers[i] = new int[2];
+                } else if (handlerCounts[i] == handlers[i].length) {
+                    handlers[i] = Arrays.copyOf(handlers[i], handlers[i].length * 2);
+                }
+                handlers[i][handlerCounts[i]++] = handler;
+            }
+        }
+
+        int[] worklist = new int[size];
+        int worklistSize = 0;
+        heights[0] = 0;
+        worklist[worklistSize++] = 0;
+        while (worklistSize > 0) {
+            int index = worklist[--worklistSize];
+            AbstractInsnNode insn = insns[index];
+            int height = heights[index];
+
+            for (int i = 0; i < handlerCounts[index]; i++) {
+                worklistSize = flow(heights, worklist, worklistSize, handlers[index][i], 1, insn);
+            }
+
+            int next = height + getDelta(insn);
+            if (next < 0)
+                throw new StackEmulationException("Stack underflow at instruction " + index + " in "
+                        + methodNode.name + methodNode.desc);
+
+            switch (insn.getType()) {
+                case AbstractInsnNode.JUMP_INSN: {
+                    int target = insnList.indexOf(((JumpInsnNode) insn).label);
+                    worklistSize = flow(heights, worklist, worklistSize, target, next, insn);
+                    if (insn.getOpcode() == JSR) {
+                        // Subroutines return with the stack they were called with.
+                        worklistSize = flow(heights, worklist, worklistSize, index + 1, height, insn);
+                    } else if (insn.getOpcode() != GOTO) {
+                        worklistSize = flow(heights, worklist, worklistSize, index + 1, next, insn);
+                    }
+                    break;
+                }
+                case AbstractInsnNode.TABLESWITCH_INSN: {
+                    TableSwitchInsnNode tableSwitch = (TableSwitchInsnNode) insn;
+                    worklistSize = flow(heights, worklist, worklistSize, insnList.indexOf(tableSwitch.dflt), next,
+                            insn);
+                    worklistSize = flowAll(insnList, heights, worklist, worklistSize, tableSwitch.labels, next, insn);
+                    break;
+                }
+                case AbstractInsnNode.LOOKUPSWITCH_INSN: {
+                    LookupSwitchInsnNode lookupSwitch = (LookupSwitchInsnNode) insn;
+                    worklistSize = flow(heights, worklist, worklistSize, insnList.indexOf(lookupSwitch.dflt), next,
+                            insn);
+                    worklistSize = flowAll(insnList, heights, worklist, worklistSize, lookupSwitch.labels, next, insn);
+                    break;
+                }
+                default: {
+                    int opcode = insn.getOpcode();
+                    if ((opcode < IRETURN || opcode > RETURN) && opcode != ATHROW && opcode != RET)
+                        worklistSize = flow(heights, worklist, worklistSize, index + 1, next, insn);
+                }
+            }
+        }
+
+        return new StackHeightAnalyzer(insns, heights);
+    }
+
+    /**
+     * @return the instructions of the method at the time it was analyzed. Indexes into this array are the indexes
+     * accepted by {@link #getHeight(int)} and {@link #isEmptyAt(int)}.
+     */
+    public AbstractInsnNode[] getInstructions() {
+        return insns;
+    }
+
+    /**
+     * @param index the index of the instruction.
+     * @return the height of the stack before the instruction is executed or {@link #UNREACHABLE}.
+     */
+    public int getHeight(int index) {
+        return heights[index];
+    }
+
+    /**
+     * @param index the index of the instruction.
+     * @return true if the instruction can be reached and the stack is empty before it is executed.
+     */
+    public boolean isEmptyAt(int index) {
+        return heights[index] == 0;
+    }
+
+    private static int flow(int[] heights, int[] worklist, int worklistSize, int target, int height,
+                            AbstractInsnNode from) {
+        if (target >= heights.length)
+            throw new StackEmulationException("Execution falls off the end of the method");
+
+        if (heights[target] == UNREACHABLE) {
+            heights[target] = height;
+            worklist[worklistSize++] = target;
+        } else if (heights[target] != height) {
+            throw new StackEmulationException("Stack height mismatch after opcode " + from.getOpcode() + ": "
+                    + heights[target] + " and " + height);
+        }
+
+        return worklistSize;
+    }
+
+    private static int flowAll(InsnList insnList, int[] heights, int[] worklist, int worklistSize,
+                               List<LabelNode> labels, int height, AbstractInsnNode from) {
+        for (LabelNode label : labels) {
+            worklistSize = flow(heights, worklist, worklistSize, insnList.indexOf(label), height, from);
+        }
+
+        return worklistSize;
+    }
+
+    /**
+     * @param insn the instruction.
+     * @return by how many words the instruction changes the height of the stack when it doesn't throw.
+     */
+    private static int getDelta(AbstractInsnNode insn) {
+        int opcode = insn.getOpcode();
+        switch (opcode) {
+            case ACONST_NULL:
+            case ICONST_M1:
+            case ICONST_0:
+            case ICONST_1:
+            case ICONST_2:
+            case ICONST_3:
+            case ICONST_4:
+            case ICONST_5:
+            case FCONST_0:
+            case FCONST_1:
+            case FCONST_2:
+            case BIPUSH:
+            case SIPUSH:
+            case ILOAD:
+            case FLOAD:
+            case ALOAD:
+            case DUP:
+            case DUP_X1:
+            case DUP_X2:
+            case I2L:
+            case I2D:
+            case F2L:
+            case F2D:
+            case NEW:
+            case JSR:
+                return 1;
+            case LCONST_0:
+            case LCONST_1:
+            case DCONST_0:
+            case DCONST_1:
+            case LLOAD:
+            case DLOAD:
+            case DUP2:
+            case DUP2_X1:
+            case DUP2_X2:
+                return 2;
+            case LDC: {
+                Object cst = ((LdcInsnNode) insn).cst;
+                return cst instanceof Long || cst instanceof Double ? 2 : 1;
+            }
+            case IALOAD:
+            case FALOAD:
+            case AALOAD:
+            case BALOAD:
+            case CALOAD:
+            case SALOAD:
+            case ISTORE:
+            case FSTORE:
+            case ASTORE:
+            case POP:
+            case IADD:
+            case FADD:
+            case ISUB:
+            case FSUB:
+            case IMUL:
+            case FMUL:
+            case IDIV:
+            case FDIV:
+            case IREM:
+            case FREM:
+            case ISHL:
+            case ISHR:
+            case IUSHR:
+            case LSHL:
+            case LSHR:
+            case LUSHR:
+            case IAND:
+            case IOR:
+            case IXOR:
+            case L2I:
+            case L2F:
+            case D2I:
+            case D2F:
+            case FCMPL:
+            case FCMPG:
+            case IFEQ:
+            case IFNE:
+            case IFLT:
+            case IFGE:
+            case IFGT:
+            case IFLE:
+            case TABLESWITCH:
+            case LOOKUPSWITCH:
+            case IRETURN:
+            case FRETURN:
+            case ARETURN:
+            case ATHROW:
+            case MONITORENTER:
+            case MONITOREXIT:
+            case IFNULL:
+            case IFNONNULL:
+                return -1;
+            case LSTORE:
+            case DSTORE:
+            case POP2:
+            case LADD:
+            case DADD:
+            case LSUB:
+            case DSUB:
+            case LMUL:
+            case DMUL:
+            case LDIV:
+            case DDIV:
+            case LREM:
+            case DREM:
+            case LAND:
+            case LOR:
+            case LXOR:
+            case IF_ICMPEQ:
+            case IF_ICMPNE:
+            case IF_ICMPLT:
+            case IF_ICMPGE:
+            case IF_ICMPGT:
+            case IF_ICMPLE:
+            case IF_ACMPEQ:
+            case IF_ACMPNE:
+            case LRETURN:
+            case DRETURN:
+                return -2;
+            case IASTORE:
+            case FASTORE:
+            case AASTORE:
+            case BASTORE:
+            case CASTORE:
+            case SASTORE:
+            case LCMP:
+            case DCMPL:
+            case DCMPG:
+                return -3;
+            case LASTORE:
+            case DASTORE:
+                return -4;
+            case GETSTATIC:
+                return Type.getType(((FieldInsnNode) insn).desc).getSize();
+            case PUTSTATIC:
+                return -Type.getType(((FieldInsnNode) insn).desc).getSize();
+            case GETFIELD:
+                return Type.getType(((FieldInsnNode) insn).desc).getSize() - 1;
+            case PUTFIELD:
+                return -Type.getType(((FieldInsnNode) insn).desc).getSize() - 1;
+            case INVOKEVIRTUAL:
+            case INVOKESPECIAL:
+            case INVOKEINTERFACE:
+            case INVOKESTATIC: {
+                // The argument size includes the receiver.
+                int sizes = Type.getArgumentsAndReturnSizes(((MethodInsnNode) insn).desc);
+                int argumentSize = (sizes >> 2) - (opcode == INVOKESTATIC ? 1 : 0);
+                return (sizes & 3) - argumentSize;
+            }
+            case INVOKEDYNAMIC: {
+                int sizes = Type.getArgumentsAndReturnSizes(((InvokeDynamicInsnNode) insn).desc);
+                return (sizes & 3) - ((sizes >> 2) - 1);
+            }
+            case MULTIANEWARRAY:
+                return 1 - ((MultiANewArrayInsnNode) insn).dims;
+            default:
+                // Labels, frames, line numbers and instructions which replace the top of the stack.
+                return 0;
+        }
+    }
+}
@@ -18,20 +18,24 @@
 package me.itzsomebody.radon.config;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.Deflater;
 import me.itzsomebody.radon.Dictionaries;
 import me.itzsomebody.radon.SessionInfo;
 import me.itzsomebody.radon.exceptions.IllegalConfigurationKeyException;
 import me.itzsomebody.radon.exceptions.IllegalConfigurationValueException;
 import me.itzsomebody.radon.exclusions.Exclusion;
 import me.itzsomebody.radon.exclusions.ExclusionManager;
+import me.itzsomebody.radon.io.JarWriter;
 import me.itzsomebody.radon.transformers.Transformer;
 import me.itzsomebody.radon.transformers.miscellaneous.Crasher;
 import me.itzsomebody.radon.transformers.miscellaneous.expiration.Expiration;
@@ -39,6 +43,7 @@ import me.itzsomebody.radon.transformers.miscellaneous.expiration.ExpirationSetu
 import me.itzsomebody.radon.transformers.miscellaneous.watermarker.Watermarker;
 import me.itzsomebody.radon.transformers.miscellaneous.watermarker.WatermarkerSetup;
 import me.itzsomebody.radon.transformers.obfuscators.flow.FlowObfuscation;
+import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.HotMethodProfile;
 import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.InvokeDynamic;
 import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.HideCode;
 import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.LineNumbers;
@@ -49,6 +54,7 @@ import me.itzsomebody.radon.transformers.obfuscators.miscellaneous.SourceName;
 import me.itzsomebody.radon.transformers.obfuscators.numbers.NumberObfuscation;
 import me.itzsomebody.radon.transformers.obfuscators.renamer.Renamer;
 import me.itzsomebody.radon.transformers.obfuscators.renamer.RenamerSetup;
+import me.itzsomebody.radon.transformers.obfuscators.strings.ConstantStringEncryption;
 import me.itzsomebody.radon.transformers.obfuscators.strings.StringEncryption;
 import me.itzsomebody.radon.transformers.obfuscators.strings.StringEncryptionSetup;
 import me.itzsomebody.radon.transformers.obfuscators.strings.StringPool;
@@ -91,6 +97,9 @@ public class ConfigurationParser {
         info.setExclusions(getExclusions());
         info.setTrashClasses(getTrashClasses());
         info.setDictionaryType(getDictionary());
+        info.setThreads(getThreads());
+        info.setCompressionLevel(getCompressionLevel());
+        info.setTelemetry(isTelemetryEnabled());
 
         return info;
     }
@@ -288,16 +297,43 @@ public class ConfigurationParser {
         Object o = map.get(ConfigurationSettings.INVOKEDYNAMIC.getValue());
         if (o == null)
             return null;
-        if (!(o instanceof String))
+        if (!(o instanceof String) && !(o instanceof Map))
             throw new IllegalConfigurationValueException(ConfigurationSettings.INVOKEDYNAMIC.getValue(), String.class,
                     o.getClass());
-        String s = (String) o;
-        if (!"Light".equals(s) && !"Normal".equals(s) && !"Heavy".equals(s))
-            throw new IllegalConfigurationValueException("Expected Light, Normal or Heavy as mode for invokedynamic " +
-                    "obfuscation. Got " + s + " instead.");
 
+        Map<String, Object> settings = new HashMap<>();
+        if (o instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> invokeDynamicSettings = (Map<String, Object>) o;
+            settings.putAll(invokeDynamicSettings);
+        } else {
+            settings.put("Mode", o);
+        }
+
+        try {
+            String s = (String) settings.get("Mode");
+            if (!"Light".equals(s) && !"Normal".equals(s) && !"Heavy".equals(s))
+                throw new IllegalConfigurationValueException("Expected Light, Normal or Heavy as mode for " +
+                        "invokedynamic obfuscation. Got " + s + " instead.");
+
+            InvokeDynamic invokeDynamic = InvokeDynamic.getTransformerFromString(s);
+
+            String profile = (String) settings.get("HotMethodProfile");
+            if (profile != null) {
+                double percentage = ((Number) settings.getOrDefault("HotPercentage", 5)).doubleValue();
+                try {
+                    invokeDynamic.setHotMethods(HotMethodProfile.load(new File(profile), percentage));
+                } catch (IOException e) {
+                    throw new IllegalConfigurationValueException("Could not read hot method profile " + profile
+                            + ": " + e.getMessage());
+                }
+            }
 
-        return InvokeDynamic.getTransformerFromString(s);
+            return invokeDynamic;
+        } catch (ClassCastException e) {
+            throw new IllegalConfigurationValueException("Error while parsing invokedynamic setup: "
+                    + e.getMessage());
+        }
     }
 
     private List<StringEncryption> getStringEncryptionTransformers() {
@@ -313,17 +349,33 @@ public class ConfigurationParser {
             return null;
 
         String s = (String) settings.get("Mode");
-        if (!"Light".equals(s) && !"Normal".equals(s) && !"Heavy".equals(s))
-            throw new IllegalConfigurationValueException("Expected Light, Normal or Heavy as mode for string " +
-                    "encryption. Got " + s + " instead.");
+        if (!"Light".equals(s) && !"Normal".equals(s) && !"Heavy".equals(s) && !"Constant".equals(s))
+            throw new IllegalConfigurationValueException("Expected Light, Normal, Heavy or Constant as mode for " +
+                    "string encryption. Got " + s + " instead.");
+
+        String fallback = (String) settings.getOrDefault("Fallback", "Normal");
+        if ("Constant".equals(s) && !"Light".equals(fallback) && !"Normal".equals(fallback)
+                && !"Heavy".equals(fallback))
+            throw new IllegalConfigurationValueException("Expected Light, Normal or Heavy as fallback for constant " +
+                    "string encryption. Got " + fallback + " instead.");
 
         boolean pool = (boolean) settings.getOrDefault("StringPool", false);
+        String poolMode = (String) settings.getOrDefault("PoolMode", "Plain");
+        if (!"Plain".equals(poolMode) && !"Encrypted".equals(poolMode) && !"Lazy".equals(poolMode))
+            throw new IllegalConfigurationValueException("Expected Plain, Encrypted or Lazy as string pool mode. Got "
+                    + poolMode + " instead.");
+        boolean bindCaller = (boolean) settings.getOrDefault("BindCaller", false);
         List<String> exclusions = (List) settings.getOrDefault("Exclusions", new ArrayList<String>());
 
         ArrayList<StringEncryption> things = new ArrayList<>();
-        things.add(StringEncryption.getTransformerFromString(s, new StringEncryptionSetup(exclusions)));
+        StringEncryptionSetup setup = new StringEncryptionSetup(exclusions, bindCaller);
+        if ("Constant".equals(s))
+            things.add(new ConstantStringEncryption(setup, StringEncryption.getTransformerFromString(fallback, setup)));
+        else
+            things.add(StringEncryption.getTransformerFromString(s, setup));
         if (pool)
-            things.add(new StringPool(new StringEncryptionSetup(exclusions)));
+            things.add(new StringPool(new StringEncryptionSetup(exclusions),
+                    StringPool.PoolMode.valueOf(poolMode.toUpperCase())));
 
         return things;
     }
@@ -547,4 +599,47 @@ public class ConfigurationParser {
         else
             return Dictionaries.intToDictionary((int) o);
     }
+
+    private int getThreads() {
+        Object o = map.get(ConfigurationSettings.THREADS.getValue());
+        if (o == null)
+            return Runtime.getRuntime().availableProcessors();
+        if (!(o instanceof Integer))
+            throw new IllegalConfigurationValueException(ConfigurationSettings.THREADS.getValue(), Integer.class,
+                    o.getClass());
+
+        int threads = (int) o;
+        if (threads <= 0)
+            throw new IllegalConfigurationValueException("Expected a positive amount of threads. Got " + threads
+                    + " instead.");
+
+        return threads;
+    }
+
+    private int getCompressionLevel() {
+        Object o = map.get(ConfigurationSettings.COMPRESSION.getValue());
+        if (o == null)
+            return Deflater.DEFAULT_COMPRESSION;
+        if (!(o instanceof Integer))
+            throw new IllegalConfigurationValueException(ConfigurationSettings.COMPRESSION.getValue(), Integer.class,
+                    o.getClass());
+
+        int level = (int) o;
+        if (level < JarWriter.STORE || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalConfigurationValueException("Expected a compression level between 0 and 9. Got "
+                    + level + " instead.");
+
+        return level;
+    }
+
+    private boolean isTelemetryEnabled() {
+        Object o = map.get(ConfigurationSettings.TELEMETRY.getValue());
+        if (o == null)
+            return false;
+        if (!(o instanceof Boolean))
+            throw new IllegalConfigurationValueException(ConfigurationSettings.TELEMETRY.getValue(), Boolean.class,
+                    o.getClass());
+
+        return (Boolean) o;
+    }
 }
@@ -44,7 +44,10 @@ public enum ConfigurationSettings {
     SOURCE_DEBUG("SourceDebug"),
     RENAMER("Renamer"),
     DICTIONARY("Dictionary"),
-    TRASH_CLASSES("TrashClasses");
+    TRASH_CLASSES("TrashClasses"),
+    THREADS("Threads"),
+    COMPRESSION("Compression"),
+    TELEMETRY("Telemetry");
 
     private String value;
 
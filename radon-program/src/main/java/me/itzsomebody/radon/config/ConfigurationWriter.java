@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.Deflater;
 import me.itzsomebody.radon.SessionInfo;
 import me.itzsomebody.radon.transformers.Transformer;
 import me.itzsomebody.radon.transformers.miscellaneous.Crasher;
@@ -33,6 +34,7 @@ import me.itzsomebody.radon.transformers.obfuscators.flow.HeavyFlowObfuscation;
 import me.itzsomebody.radon.transformers.obfuscators.flow.LightFlowObfuscation;
 import me.itzsomebody.radon.transformers.obfuscators.flow.NormalFlowObfuscation;
 import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.HeavyInvokeDynamic;
+import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.HotMethodProfile;
 import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.InvokeDynamic;
 import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.LightInvokeDynamic;
 import me.itzsomebody.radon.transformers.obfuscators.invokedynamic.NormalInvokeDynamic;
@@ -47,6 +49,7 @@ import me.itzsomebody.radon.transformers.obfuscators.numbers.LightNumberObfuscat
 import me.itzsomebody.radon.transformers.obfuscators.numbers.NormalNumberObfuscation;
 import me.itzsomebody.radon.transformers.obfuscators.numbers.NumberObfuscation;
 import me.itzsomebody.radon.transformers.obfuscators.renamer.Renamer;
+import me.itzsomebody.radon.transformers.obfuscators.strings.ConstantStringEncryption;
 import me.itzsomebody.radon.transformers.obfuscators.strings.HeavyStringEncryption;
 import me.itzsomebody.radon.transformers.obfuscators.strings.LightStringEncryption;
 import me.itzsomebody.radon.transformers.obfuscators.strings.NormalStringEncryption;
@@ -81,7 +84,14 @@ public class ConfigurationWriter {
                     ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
                             .putIfAbsent("Enabled", true);
 
-                    if (transformer instanceof LightStringEncryption)
+                    if (transformer instanceof ConstantStringEncryption) {
+                        StringEncryption fallback = ((ConstantStringEncryption) transformer).getFallback();
+                        ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
+                                .put("Mode", "Constant");
+                        ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
+                                .put("Fallback", fallback instanceof LightStringEncryption ? "Light"
+                                        : fallback instanceof HeavyStringEncryption ? "Heavy" : "Normal");
+                    } else if (transformer instanceof LightStringEncryption)
                         ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
                                 .put("Mode", "Light");
                     else if (transformer instanceof NormalStringEncryption)
@@ -90,10 +100,20 @@ public class ConfigurationWriter {
                     else if (transformer instanceof HeavyStringEncryption)
                         ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
                                 .put("Mode", "Heavy");
-                    else if (transformer instanceof StringPool)
+                    else if (transformer instanceof StringPool) {
                         ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
                                 .put("StringPool", true);
 
+                        StringPool.PoolMode poolMode = ((StringPool) transformer).getMode();
+                        if (poolMode != StringPool.PoolMode.PLAIN)
+                            ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
+                                    .put("PoolMode", poolMode == StringPool.PoolMode.LAZY ? "Lazy" : "Encrypted");
+                    }
+
+                    if (encryption.isBindCaller())
+                        ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
+                                .put("BindCaller", true);
+
                     if (encryption.getExcludedStrings() != null)
                         ((LinkedHashMap) documentMap.get(ConfigurationSettings.STRING_ENCRYPTION.getValue()))
                                 .putIfAbsent("Exclusions", encryption.getExcludedStrings());
@@ -106,6 +126,15 @@ public class ConfigurationWriter {
                     else if (transformer instanceof HeavyInvokeDynamic)
                         documentMap.put(ConfigurationSettings.INVOKEDYNAMIC.getValue(), "Heavy");
 
+                    HotMethodProfile hotMethods = ((InvokeDynamic) transformer).getHotMethods();
+                    if (hotMethods != null) {
+                        LinkedHashMap<String, Object> invokeDynamic = new LinkedHashMap<>();
+                        invokeDynamic.put("Mode", documentMap.get(ConfigurationSettings.INVOKEDYNAMIC.getValue()));
+                        invokeDynamic.put("HotMethodProfile", hotMethods.getFile().getPath());
+                        invokeDynamic.put("HotPercentage", hotMethods.getPercentage());
+                        documentMap.put(ConfigurationSettings.INVOKEDYNAMIC.getValue(), invokeDynamic);
+                    }
+
                 } else if (transformer instanceof NumberObfuscation) {
                     if (transformer instanceof LightNumberObfuscation)
                         documentMap.put(ConfigurationSettings.NUMBER_OBFUSCATION.getValue(), "Light");
@@ -232,6 +261,12 @@ public class ConfigurationWriter {
         if (info.getDictionaryType() != null)
             documentMap.put("Dictionary", info.getDictionaryType().getValue());
         documentMap.put("TrashClasses", info.getTrashClasses());
+        if (info.getThreads() != Runtime.getRuntime().availableProcessors())
+            documentMap.put("Threads", info.getThreads());
+        if (info.getCompressionLevel() != Deflater.DEFAULT_COMPRESSION)
+            documentMap.put("Compression", info.getCompressionLevel());
+        if (info.isTelemetry())
+            documentMap.put("Telemetry", true);
         if (info.getLibraries() != null) {
             ArrayList<String> libs = new ArrayList<>();
             info.getLibraries().forEach(file -> libs.add(file.getAbsolutePath()));
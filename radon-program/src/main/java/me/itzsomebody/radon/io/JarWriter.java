@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Jar writer which expects its entries to already be compressed. Compression is done through
+ * {@link #compress(String, byte[])}, which can be called from any amount of threads at once, while the writer itself
+ * only has to copy finished entries into the file. Entries which were never modified can be copied from their
+ * {@link MappedJarFile} without being decompressed at all.
+ *
+ * @author ItzSomebody
+ */
+public class JarWriter implements Closeable {
+    /**
+     * Compression level which stores entries instead of deflating them.
+     */
+    public static final int STORE = 0;
+
+    private static final int LOCAL_HEADER = 0x04034B50;
+    private static final int CENTRAL_HEADER = 0x02014B50;
+    private static final int END_HEADER = 0x06054B50;
+    private static final int ZIP64_END_HEADER = 0x06064B50;
+    private static final int ZIP64_END_LOCATOR = 0x07064B50;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int UTF8_FLAG = 0x0800;
+
+    private final int level;
+    private final OutputStream out;
+    private final int dosTime;
+    private final List<CentralEntry> centralEntries = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    /**
+     * {@link Deflater}s which aren't in use. Threads compressing an entry take one from here instead of creating one
+     * per entry and put it back afterwards. Deflaters hold native memory, so they are ended once the writer is closed.
+     */
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+    private byte[] comment = new byte[0];
+    private long written;
+
+    /**
+     * Creates a jar writer.
+     *
+     * @param file  the file to write to.
+     * @param level the deflate level between {@link #STORE} and {@link Deflater#BEST_COMPRESSION} or
+     *              {@link Deflater#DEFAULT_COMPRESSION}.
+     * @throws IOException if the file couldn't be created.
+     */
+    public JarWriter(File file, int level) throws IOException {
+        if ((level < STORE || level > Deflater.BEST_COMPRESSION) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+
+        this.level = level;
+        this.out = new BufferedOutputStream(new FileOutputStream(file), 65536);
+        this.dosTime = toDosTime(System.currentTimeMillis());
+    }
+
+    /**
+     * Compresses the provided data with this writer's compression level. This is thread-safe and is meant to be
+     * called from worker threads.
+     *
+     * @param name the name of the entry.
+     * @param data the uncompressed data.
+     * @return the compressed entry.
+     */
+    public Entry compress(String name, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        if (level != STORE && data.length > 0) {
+            Deflater deflater = deflaters.poll();
+            if (deflater == null)
+                deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+            try {
+                deflater.reset();
+                deflater.setLevel(level);
+                deflater.setInput(data);
+                deflater.finish();
+
+                byte[] buffer = new byte[data.length + (data.length >> 12) + (data.length >> 14) + 64];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == buffer.length)
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+
+                // Incompressible data is stored as-is.
+                if (length < data.length)
+                    return new Entry(name, ZipEntry.DEFLATED, crc.getValue(), data.length,
+                            ByteBuffer.wrap(buffer, 0, length));
+            } finally {
+                deflaters.add(deflater);
+                // Deflaters which were still in use when the writer was closed are ended once they are put back.
+                if (closed)
+                    endDeflaters();
+            }
+        }
+
+        return new Entry(name, ZipEntry.STORED, crc.getValue(), data.length, ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Creates an entry which copies the raw data of the provided entry without decompressing it.
+     *
+     * @param name  the name of the entry in the output.
+     * @param entry the entry to copy.
+     * @return the entry to write.
+     * @throws ZipException if the entry couldn't be read.
+     */
+    public static Entry copy(String name, MappedJarFile.Entry entry) throws ZipException {
+        return new Entry(name, entry.getMethod(), entry.getCrc(), entry.getSize(), entry.getRawData());
+    }
+
+    /**
+     * Sets the comment of the jar.
+     *
+     * @param comment the comment.
+     */
+    public void setComment(String comment) {
+        byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF)
+            throw new IllegalArgumentException("Comment is too long.");
+
+        this.comment = bytes;
+    }
+
+    /**
+     * Writes an entry into the jar.
+     *
+     * @param entry the entry to write.
+     * @throws IOException if the entry couldn't be written.
+     */
+    public void write(Entry entry) throws IOException {
+        if (!names.add(entry.name))
+            throw new ZipException("duplicate entry: " + entry.name);
+
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        long offset = written;
+        long compressedSize = entry.data.remaining();
+
+        ByteBuffer header = header(30 + name.length);
+        header.putInt(LOCAL_HEADER);
+        header.putShort((short) versionNeeded(entry.method, false));
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) entry.method);
+        header.putInt(dosTime);
+        header.putInt((int) entry.crc);
+        header.putInt((int) compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) name.length);
+        header.putShort((short) 0);
+        header.put(name);
+        header.flip();
+        writeBuffer(header);
+        writeBuffer(entry.data.duplicate());
+
+        centralEntries.add(new CentralEntry(name, entry.method, entry.crc, compressedSize, entry.size, offset));
+    }
+
+    /**
+     * Writes the central directory and closes the jar.
+     *
+     * @throws IOException if the central directory couldn't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long centralOffset = written;
+            for (CentralEntry entry : centralEntries) {
+                boolean zip64 = entry.offset >= ZIP64_MAGIC;
+
+                ByteBuffer header = header(46 + entry.name.length + (zip64 ? 12 : 0));
+                header.putInt(CENTRAL_HEADER);
+                header.putShort((short) versionNeeded(entry.method, zip64));
+                header.putShort((short) versionNeeded(entry.method, zip64));
+                header.putShort((short) UTF8_FLAG);
+                header.putShort((short) entry.method);
+                header.putInt(dosTime);
+                header.putInt((int) entry.crc);
+                header.putInt((int) entry.compressedSize);
+                header.putInt((int) entry.size);
+                header.putShort((short) entry.name.length);
+                header.putShort((short) (zip64 ? 12 : 0));
+                header.putShort((short) 0);
+                header.putShort((short) 0);
+                header.putShort((short) 0);
+                header.putInt(0);
+                header.putInt((int) (zip64 ? ZIP64_MAGIC : entry.offset));
+                header.put(entry.name);
+                if (zip64) {
+                    header.putShort((short) ZIP64_EXTRA);
+                    header.putShort((short) 8);
+                    header.putLong(entry.offset);
+                }
+                header.flip();
+                writeBuffer(header);
+            }
+            long centralSize = written - centralOffset;
+
+            int count = centralEntries.size();
+            if (count >= 0xFFFF || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+                long zip64End = written;
+
+                ByteBuffer record = header(56 + 20);
+                record.putInt(ZIP64_END_HEADER);
+                record.putLong(44);
+                record.putShort((short) 45);
+                record.putShort((short) 45);
+                record.putInt(0);
+                record.putInt(0);
+                record.putLong(count);
+                record.putLong(count);
+                record.putLong(centralSize);
+                record.putLong(centralOffset);
+
+                record.putInt(ZIP64_END_LOCATOR);
+                record.putInt(0);
+                record.putLong(zip64End);
+                record.putInt(1);
+                record.flip();
+                writeBuffer(record);
+            }
+
+            ByteBuffer end = header(22 + comment.length);
+            end.putInt(END_HEADER);
+            end.putShort((short) 0);
+            end.putShort((short) 0);
+            end.putShort((short) Math.min(count, 0xFFFF));
+            end.putShort((short) Math.min(count, 0xFFFF));
+            end.putInt((int) Math.min(centralSize, ZIP64_MAGIC));
+            end.putInt((int) Math.min(centralOffset, ZIP64_MAGIC));
+            end.putShort((short) comment.length);
+            end.put(comment);
+            end.flip();
+            writeBuffer(end);
+        } finally {
+            closed = true;
+            endDeflaters();
+            out.close();
+        }
+    }
+
+    private void endDeflaters() {
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    private static ByteBuffer header(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            written += buffer.remaining();
+        } else {
+            byte[] chunk = new byte[Math.min(buffer.remaining(), 65536)];
+            while (buffer.hasRemaining()) {
+                int n = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, n);
+                out.write(chunk, 0, n);
+                written += n;
+            }
+        }
+    }
+
+    private static int versionNeeded(int method, boolean zip64) {
+        if (zip64)
+            return 45;
+
+        return method == ZipEntry.DEFLATED ? 20 : 10;
+    }
+
+    private static int toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980)
+            return (1 << 21) | (1 << 16);
+
+        return (year - 1980) << 25 | (calendar.get(Calendar.MONTH) + 1) << 21
+                | calendar.get(Calendar.DAY_OF_MONTH) << 16 | calendar.get(Calendar.HOUR_OF_DAY) << 11
+                | calendar.get(Calendar.MINUTE) << 5 | calendar.get(Calendar.SECOND) >> 1;
+    }
+
+    /**
+     * An entry whose data is ready to be written.
+     */
+    public static class Entry {
+        private final String name;
+        private final int method;
+        private final long crc;
+        private final long size;
+        private final ByteBuffer data;
+
+        private Entry(String name, int method, long crc, long size, ByteBuffer data) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * What the central directory needs to know about an entry which has already been written.
+     */
+    private static class CentralEntry {
+        private final byte[] name;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long offset;
+
+        private CentralEntry(byte[] name, int method, long crc, long compressedSize, long size, long offset) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.offset = offset;
+        }
+    }
+}
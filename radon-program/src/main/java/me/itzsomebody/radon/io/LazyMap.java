@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map which knows where its values can be found up front but only loads them the first time they are requested.
+ * Values which are put into the map replace the deferred ones.
+ *
+ * @param <S> the type of the source a value is loaded from.
+ * @param <V> the type of the values.
+ * @author ItzSomebody
+ */
+public abstract class LazyMap<S, V> extends AbstractMap<String, V> {
+    /**
+     * Values which have either been put into this map or have already been loaded.
+     */
+    private final Map<String, V> loaded = new ConcurrentHashMap<>();
+
+    /**
+     * Sources of values which can be loaded on demand.
+     */
+    private final Map<String, S> deferred = new ConcurrentHashMap<>();
+
+    /**
+     * Loads a value from its source.
+     *
+     * @param source the source to load the value from.
+     * @return the loaded value or null if it couldn't be loaded.
+     */
+    protected abstract V load(S source);
+
+    /**
+     * Registers a value which should only be loaded once it is requested.
+     *
+     * @param key    the key of the value.
+     * @param source the source to load the value from.
+     */
+    public void defer(String key, S source) {
+        deferred.put(key, source);
+    }
+
+    /**
+     * @param key the key of the value.
+     * @return the source of the value if it hasn't been loaded or replaced yet, otherwise null.
+     */
+    public S getDeferred(String key) {
+        return loaded.containsKey(key) ? null : deferred.get(key);
+    }
+
+    /**
+     * @return the values which have been loaded or put so far.
+     */
+    public Map<String, V> getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Drops every source which hasn't been loaded yet.
+     */
+    public void clearDeferred() {
+        deferred.clear();
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = loaded.get(key);
+        if (value != null)
+            return value;
+
+        S source = deferred.get(key);
+        if (source == null)
+            return null;
+
+        return loaded.computeIfAbsent((String) key, name -> load(source));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return loaded.containsKey(key) || deferred.containsKey(key);
+    }
+
+    @Override
+    public V put(String key, V value) {
+        return loaded.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        deferred.remove(key);
+        return loaded.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return keySet().size();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<String> loadedNames = loaded.keySet().iterator();
+                Iterator<String> indexedNames = deferred.keySet().iterator();
+
+                return new Iterator<String>() {
+                    private String next;
+
+                    @Override
+                    public boolean hasNext() {
+                        if (next != null)
+                            return true;
+                        if (loadedNames.hasNext()) {
+                            next = loadedNames.next();
+                            return true;
+                        }
+                        while (indexedNames.hasNext()) {
+                            String name = indexedNames.next();
+                            if (!loaded.containsKey(name)) {
+                                next = name;
+                                return true;
+                            }
+                        }
+
+                        return false;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+
+                        String name = next;
+                        next = null;
+                        return name;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                int size = loaded.size();
+                for (String name : deferred.keySet()) {
+                    if (!loaded.containsKey(name))
+                        size++;
+                }
+
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Loads every deferred value. Only use this if every single value is really needed.
+     */
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                Iterator<String> names = keySet().iterator();
+
+                return new Iterator<Entry<String, V>>() {
+                    private Entry<String, V> next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next == null && names.hasNext()) {
+                            String name = names.next();
+                            V value = get(name);
+                            if (value != null)
+                                next = new SimpleImmutableEntry<>(name, value);
+                        }
+
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+
+                        Entry<String, V> entry = next;
+                        next = null;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyMap.this.size();
+            }
+        };
+    }
+}
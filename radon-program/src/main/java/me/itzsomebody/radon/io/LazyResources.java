@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.IOException;
+import me.itzsomebody.radon.exceptions.ByteArrayConversionException;
+
+/**
+ * Resources of the input which are only read into memory once a transformer asks for them. Resources which are never
+ * requested can be copied from the input to the output without ever ending up on the heap.
+ *
+ * @author ItzSomebody
+ */
+public class LazyResources extends LazyMap<MappedJarFile.Entry, byte[]> {
+    @Override
+    protected byte[] load(MappedJarFile.Entry entry) {
+        try {
+            return entry.read();
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+            throw new ByteArrayConversionException(ioe);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Jar reader which memory-maps the whole file and parses the central directory itself. Entry data is read straight
+ * out of the mapping, so stored entries never have to be copied through an {@link InputStream} and resources which
+ * are never modified never have to end up on the heap at all.
+ *
+ * @author ItzSomebody
+ */
+public class MappedJarFile implements Closeable {
+    private static final int LOCAL_HEADER = 0x04034B50;
+    private static final int CENTRAL_HEADER = 0x02014B50;
+    private static final int END_HEADER = 0x06054B50;
+    private static final int ZIP64_END_HEADER = 0x06064B50;
+    private static final int ZIP64_END_LOCATOR = 0x07064B50;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Maps the provided file and reads its central directory.
+     *
+     * @param file the jar to open.
+     * @throws ZipException if the file isn't a valid zip file.
+     * @throws IOException  if the file couldn't be mapped.
+     */
+    public MappedJarFile(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new ZipException(String.format("%s is too large to be mapped.", file.getAbsolutePath()));
+
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            readCentralDirectory();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readCentralDirectory() throws ZipException {
+        int end = findEndHeader();
+        long count = u16(end + 10);
+        long cenSize = u32(end + 12);
+        long offset = u32(end + 16);
+
+        if (count == 0xFFFF || cenSize == ZIP64_MAGIC || offset == ZIP64_MAGIC) {
+            int locator = end - 20;
+            if (locator >= 0 && buffer.getInt(locator) == ZIP64_END_LOCATOR) {
+                int zip64End = position(buffer.getLong(locator + 8));
+                if (zip64End > buffer.limit() - 56 || buffer.getInt(zip64End) != ZIP64_END_HEADER)
+                    throw new ZipException("Invalid zip64 END header.");
+
+                count = buffer.getLong(zip64End + 32);
+                cenSize = buffer.getLong(zip64End + 40);
+                offset = buffer.getLong(zip64End + 48);
+            }
+        }
+
+        // Every length read from the central directory is checked against its size, so a truncated or corrupt one
+        // fails with a ZipException instead of reading past the mapping.
+        int pos = position(offset);
+        if (cenSize < 0 || cenSize > buffer.limit() - pos)
+            throw new ZipException("Invalid CEN header.");
+        int cenEnd = (int) (pos + cenSize);
+        for (long i = 0; i < count; i++) {
+            if (pos > cenEnd - 46 || buffer.getInt(pos) != CENTRAL_HEADER)
+                throw new ZipException("Invalid CEN header.");
+
+            int flags = u16(pos + 8);
+            int method = u16(pos + 10);
+            long crc = u32(pos + 16);
+            long compressedSize = u32(pos + 20);
+            long size = u32(pos + 24);
+            int nameLength = u16(pos + 28);
+            int extraLength = u16(pos + 30);
+            int commentLength = u16(pos + 32);
+            long localOffset = u32(pos + 42);
+            if (pos + 46L + nameLength + extraLength + commentLength > cenEnd)
+                throw new ZipException("Invalid CEN header.");
+
+            byte[] nameBytes = new byte[nameLength];
+            ((ByteBuffer) buffer.duplicate().position(pos + 46)).get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            if (size == ZIP64_MAGIC || compressedSize == ZIP64_MAGIC || localOffset == ZIP64_MAGIC) {
+                int extra = pos + 46 + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int tag = u16(extra);
+                    int dataSize = u16(extra + 2);
+                    if (extra + 4 + dataSize > extraEnd)
+                        throw new ZipException("Invalid CEN header.");
+
+                    if (tag == ZIP64_EXTRA) {
+                        int data = extra + 4;
+                        int fields = (size == ZIP64_MAGIC ? 1 : 0) + (compressedSize == ZIP64_MAGIC ? 1 : 0)
+                                + (localOffset == ZIP64_MAGIC ? 1 : 0);
+                        if (fields * 8 > dataSize)
+                            throw new ZipException("Invalid zip64 extra field.");
+
+                        if (size == ZIP64_MAGIC) {
+                            size = buffer.getLong(data);
+                            data += 8;
+                        }
+                        if (compressedSize == ZIP64_MAGIC) {
+                            compressedSize = buffer.getLong(data);
+                            data += 8;
+                        }
+                        if (localOffset == ZIP64_MAGIC) {
+                            localOffset = buffer.getLong(data);
+                        }
+                        break;
+                    }
+                    extra += 4 + dataSize;
+                }
+            }
+
+            entries.putIfAbsent(name, new Entry(name, flags, method, crc, compressedSize, size, localOffset));
+            pos += 46 + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private int findEndHeader() throws ZipException {
+        // The END header is 22 bytes long and may be followed by a comment of up to 65535 bytes.
+        int last = buffer.limit() - 22;
+        int first = Math.max(0, last - 0xFFFF);
+        for (int pos = last; pos >= first; pos--) {
+            if (buffer.getInt(pos) == END_HEADER && pos + 22 + u16(pos + 20) == buffer.limit())
+                return pos;
+        }
+        for (int pos = last; pos >= first; pos--) {
+            if (buffer.getInt(pos) == END_HEADER)
+                return pos;
+        }
+
+        throw new ZipException(String.format("%s has no END header.", file.getAbsolutePath()));
+    }
+
+    private int position(long offset) throws ZipException {
+        if (offset < 0 || offset >= buffer.limit())
+            throw new ZipException(String.format("Offset %d is out of bounds in %s.", offset, file.getAbsolutePath()));
+
+        return (int) offset;
+    }
+
+    private int u16(int pos) {
+        return buffer.getShort(pos) & 0xFFFF;
+    }
+
+    private long u32(int pos) {
+        return buffer.getInt(pos) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return the file this jar was mapped from.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return every entry of this jar in central directory order.
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * @param name the name of the entry.
+     * @return the entry with the provided name or null if there is none.
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released once it's garbage collected.
+        channel.close();
+    }
+
+    /**
+     * A single entry of a {@link MappedJarFile}.
+     */
+    public class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localOffset;
+
+        private Entry(String name, int flags, int method, long crc, long compressedSize, long size,
+                      long localOffset) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localOffset = localOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        /**
+         * @return either {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}.
+         */
+        public int getMethod() {
+            return method;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the jar this entry belongs to.
+         */
+        public MappedJarFile getJarFile() {
+            return MappedJarFile.this;
+        }
+
+        /**
+         * Returns a view of the raw (possibly compressed) data of this entry. No bytes are copied.
+         *
+         * @return a read-only view of the raw data of this entry.
+         * @throws ZipException if the local header of this entry is invalid.
+         */
+        public ByteBuffer getRawData() throws ZipException {
+            if ((flags & 1) != 0)
+                throw new ZipException(String.format("%s is encrypted.", name));
+
+            int local = position(localOffset);
+            if (local > buffer.limit() - 30 || buffer.getInt(local) != LOCAL_HEADER)
+                throw new ZipException(String.format("Invalid LOC header for %s.", name));
+
+            int data = local + 30 + u16(local + 26) + u16(local + 28);
+            if (data + compressedSize > buffer.limit())
+                throw new ZipException(String.format("%s is truncated.", name));
+
+            ByteBuffer raw = buffer.duplicate();
+            raw.position(data);
+            raw.limit((int) (data + compressedSize));
+            return raw.slice().asReadOnlyBuffer();
+        }
+
+        /**
+         * Reads the uncompressed data of this entry. Stored entries are copied directly out of the mapping, deflated
+         * entries are inflated directly into the returned array.
+         *
+         * @return the uncompressed data of this entry.
+         * @throws IOException if the entry couldn't be read.
+         */
+        public byte[] read() throws IOException {
+            if (size > Integer.MAX_VALUE - 8)
+                throw new ZipException(String.format("%s is too large to be read into memory.", name));
+
+            ByteBuffer raw = getRawData();
+            byte[] bytes = new byte[(int) size];
+            switch (method) {
+                case ZipEntry.STORED: {
+                    if (compressedSize != size)
+                        throw new ZipException(String.format("Invalid size for stored entry %s.", name));
+
+                    raw.get(bytes);
+                    return bytes;
+                }
+                case ZipEntry.DEFLATED: {
+                    // Java 8's Inflater only takes arrays. The extra byte is the dummy byte nowrap mode may need.
+                    byte[] compressed = new byte[raw.remaining() + 1];
+                    raw.get(compressed, 0, raw.remaining());
+
+                    Inflater inflater = new Inflater(true);
+                    try {
+                        inflater.setInput(compressed);
+                        int read = 0;
+                        while (read < bytes.length) {
+                            int n = inflater.inflate(bytes, read, bytes.length - read);
+                            if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+                                break;
+                            read += n;
+                        }
+                        if (read != bytes.length)
+                            throw new ZipException(String.format("Invalid size for deflated entry %s.", name));
+                    } catch (DataFormatException e) {
+                        throw new ZipException(String.format("Invalid deflated data in %s: %s", name, e.getMessage()));
+                    } finally {
+                        inflater.end();
+                    }
+
+                    return bytes;
+                }
+                default:
+                    throw new ZipException(String.format("Unsupported compression method %d for %s.", method, name));
+            }
+        }
+
+        /**
+         * Opens a stream of the uncompressed data of this entry without reading all of it into memory.
+         *
+         * @return a stream of the uncompressed data of this entry.
+         * @throws IOException if the entry couldn't be read.
+         */
+        public InputStream openStream() throws IOException {
+            ByteBuffer raw = getRawData();
+            switch (method) {
+                case ZipEntry.STORED:
+                    return new ByteBufferInputStream(raw);
+                case ZipEntry.DEFLATED:
+                    return new MappedInflaterInputStream(new ByteBufferInputStream(raw));
+                default:
+                    throw new ZipException(String.format("Unsupported compression method %d for %s.", method, name));
+            }
+        }
+    }
+
+    /**
+     * {@link InputStream} which reads from a {@link ByteBuffer}.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * {@link InflaterInputStream} which releases its {@link Inflater} when closed and feeds the inflater the dummy
+     * byte it may need at the end of the input, just like {@link java.util.zip.ZipFile} does.
+     */
+    private static class MappedInflaterInputStream extends InflaterInputStream {
+        private boolean eof;
+
+        private MappedInflaterInputStream(InputStream in) {
+            super(in, new Inflater(true), 8192);
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if (eof)
+                throw new EOFException("Unexpected end of deflated data.");
+
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            inf.end();
+        }
+    }
+}
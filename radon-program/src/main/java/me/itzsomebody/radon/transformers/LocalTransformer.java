@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers;
+
+import java.util.Collections;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.FieldWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
+
+/**
+ * Transformer which only ever looks at one class at a time. Instead of traversing every class on its own, it declares
+ * what it does to a single class, field and method, which lets the {@link PassManager} run consecutive local
+ * transformers together in a single traversal of the program.
+ * <p>
+ * For every class which isn't excluded, {@link #transformClass(ClassWrapper)} is called first, followed by
+ * {@link #transformField(FieldWrapper)} for each of its fields and {@link #transformMethod(MethodWrapper)} for each of
+ * its methods. Fields and methods are handed over without checking their exclusions. Different classes and different
+ * methods of the same class may be transformed at the same time, so implementations have to be thread-safe.
+ *
+ * @author ItzSomebody
+ */
+public abstract class LocalTransformer extends Transformer {
+    /**
+     * Called once before any class is transformed.
+     */
+    protected void begin() {
+    }
+
+    /**
+     * Transforms a class which isn't excluded.
+     *
+     * @param classWrapper the class to transform.
+     */
+    protected void transformClass(ClassWrapper classWrapper) {
+    }
+
+    /**
+     * Transforms a field of a class which isn't excluded.
+     *
+     * @param fieldWrapper the field to transform.
+     */
+    protected void transformField(FieldWrapper fieldWrapper) {
+    }
+
+    /**
+     * Transforms a method of a class which isn't excluded.
+     *
+     * @param methodWrapper the method to transform.
+     */
+    protected void transformMethod(MethodWrapper methodWrapper) {
+    }
+
+    /**
+     * Called once after every class has been transformed.
+     */
+    protected void end() {
+    }
+
+    /**
+     * @return true if {@link #transformClass(ClassWrapper)} or {@link #transformField(FieldWrapper)} reads or changes
+     * the methods of the class. The {@link PassManager} never fuses such a transformer with the ones before it, so the
+     * methods it sees have already been through their method phases.
+     */
+    protected boolean inspectsMethods() {
+        return false;
+    }
+
+    @Override
+    public void transform() {
+        new PassManager(this.radon).runFused(Collections.singletonList(this));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.Scheduler;
+import me.itzsomebody.radon.Telemetry;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
+import me.itzsomebody.radon.utils.LoggerUtils;
+
+/**
+ * Runs the transformers of a session in order. Consecutive {@link LocalTransformer}s are fused, so they share one
+ * traversal over the classes and one over the methods on the {@link Scheduler} instead of each walking the whole
+ * program on its own.
+ * <p>
+ * A fused pass first runs the class and field phase of every fused transformer, in the order they were configured
+ * in, on every class. Only then are the methods scheduled, and every method goes through the method phase of all
+ * fused transformers in the order they were configured in. The class and field phase of a later transformer
+ * therefore runs before the method phase of an earlier one. That is only the same as running the transformers one
+ * after another if the later class and field phase neither reads nor changes methods, so a transformer which does
+ * (see {@link LocalTransformer#inspectsMethods()}, such as hide code which skips annotated methods and the member
+ * shuffler which reorders them) starts a new fused pass instead. Method phases only read the name of their class,
+ * which no local transformer changes.
+ * <p>
+ * Classes added by a transformer's {@link LocalTransformer#end()} go through the class, field and method phases of
+ * the transformers fused after it before those finish, just like they would if every transformer ran on its own.
+ *
+ * @author ItzSomebody
+ */
+public class PassManager {
+    private final Radon radon;
+
+    public PassManager(Radon radon) {
+        this.radon = radon;
+    }
+
+    /**
+     * Runs the provided transformers. Delegating transformers are replaced by the transformers they delegate to
+     * first, so those can be fused with their neighbours as well. A local transformer which inspects methods in its
+     * class phase closes the fused pass before it.
+     *
+     * @param transformers the transformers to run.
+     */
+    public void run(List<Transformer> transformers) {
+        List<LocalTransformer> fused = new ArrayList<>();
+        transformers.stream().filter(Objects::nonNull).flatMap(transformer -> transformer.getDelegates().stream())
+                .forEach(transformer -> {
+                    if (transformer instanceof LocalTransformer) {
+                        LocalTransformer localTransformer = (LocalTransformer) transformer;
+                        if (localTransformer.inspectsMethods()) {
+                            runFused(fused);
+                            fused.clear();
+                        }
+                        fused.add(localTransformer);
+                    } else {
+                        runFused(fused);
+                        fused.clear();
+                        runAlone(transformer);
+                    }
+                });
+        runFused(fused);
+    }
+
+    private void runAlone(Transformer transformer) {
+        Telemetry telemetry = this.radon.getTelemetry();
+        long current = System.currentTimeMillis();
+        LoggerUtils.stdOut(String.format("Running %s transformer.", transformer.getName()));
+        Telemetry.Phase phase = telemetry.begin(transformer.getName());
+        transformer.init(this.radon);
+        transformer.transform();
+        telemetry.end(phase);
+        LoggerUtils.stdOut(String.format("Finished running %s transformer. [%dms]", transformer.getName(),
+                (System.currentTimeMillis() - current)));
+        LoggerUtils.stdOut("------------------------------------------------");
+        telemetry.measure(phase, this.radon.getScheduler(), this.radon.classes.values());
+    }
+
+    /**
+     * Runs the provided transformers in a single traversal over the classes and their methods.
+     *
+     * @param transformers the transformers to run.
+     */
+    void runFused(List<LocalTransformer> transformers) {
+        if (transformers.isEmpty())
+            return;
+
+        long current = System.currentTimeMillis();
+        String names = transformers.stream().map(Transformer::getName).collect(Collectors.joining(", "));
+        LoggerUtils.stdOut(String.format("Running %s transformer%s.", names, transformers.size() > 1 ? "s fused"
+                : ""));
+        Telemetry telemetry = this.radon.getTelemetry();
+        Telemetry.Phase phase = telemetry.begin(names);
+        Map<LocalTransformer, Telemetry.Phase> subPasses = new IdentityHashMap<>();
+        transformers.forEach(transformer -> {
+            Telemetry.Phase subPass = phase.subPass(transformer.getName());
+            subPasses.put(transformer, subPass);
+            subPass.time(() -> {
+                transformer.init(this.radon);
+                transformer.begin();
+            });
+        });
+
+        // Local transformers don't add classes while traversing, but they may in end(). Those classes still have to
+        // go through every transformer fused after the one which added them.
+        Set<ClassWrapper> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ClassWrapper> classWrappers = new ArrayList<>(this.radon.classes.values());
+        seen.addAll(classWrappers);
+        traverse(transformers, classWrappers, subPasses);
+        for (int i = 0; i < transformers.size(); i++) {
+            LocalTransformer transformer = transformers.get(i);
+            subPasses.get(transformer).time(transformer::end);
+
+            List<ClassWrapper> added = this.radon.classes.values().stream().filter(seen::add)
+                    .collect(Collectors.toList());
+            if (!added.isEmpty() && i + 1 < transformers.size())
+                traverse(transformers.subList(i + 1, transformers.size()), added, subPasses);
+        }
+        telemetry.end(phase);
+        LoggerUtils.stdOut(String.format("Finished running %s transformer%s. [%dms]", names,
+                transformers.size() > 1 ? "s" : "", (System.currentTimeMillis() - current)));
+        LoggerUtils.stdOut("------------------------------------------------");
+        telemetry.measure(phase, this.radon.getScheduler(), this.radon.classes.values());
+    }
+
+    /**
+     * Runs the class and field phase of the provided transformers on every provided class, followed by the method
+     * phase on every method of those classes.
+     */
+    private void traverse(List<LocalTransformer> transformers, List<ClassWrapper> classWrappers,
+                          Map<LocalTransformer, Telemetry.Phase> subPasses) {
+        // Every class goes through the class and field phase before the methods are scheduled on their own, so huge
+        // methods don't hold up the rest of their class.
+        Map<ClassWrapper, List<LocalTransformer>> actives = new ConcurrentHashMap<>();
+        this.radon.getScheduler().forEach(classWrappers, Scheduler::getCost, classWrapper -> {
+            List<LocalTransformer> active = getActive(transformers, classWrapper);
+            if (active.isEmpty())
+                return;
+
+            active.forEach(transformer -> subPasses.get(transformer).time(() -> {
+                transformer.transformClass(classWrapper);
+                classWrapper.fields.forEach(transformer::transformField);
+            }));
+            actives.put(classWrapper, active);
+        });
+
+        List<MethodWrapper> methodWrappers = new ArrayList<>();
+        classWrappers.stream().filter(actives::containsKey).forEach(classWrapper ->
+                methodWrappers.addAll(classWrapper.methods));
+        this.radon.getScheduler().forEach(methodWrappers, Scheduler::getCost, methodWrapper ->
+                actives.get(methodWrapper.owner).forEach(transformer -> {
+                    Telemetry.Phase subPass = subPasses.get(transformer);
+                    int before = Scheduler.getCost(methodWrapper);
+                    subPass.time(() -> transformer.transformMethod(methodWrapper));
+                    int after = Scheduler.getCost(methodWrapper);
+                    if (before != after) {
+                        subPass.add("methodsTouched", 1);
+                        subPass.add("instructionDelta", after - before);
+                    }
+                }));
+    }
+
+    private static List<LocalTransformer> getActive(List<LocalTransformer> transformers, ClassWrapper classWrapper) {
+        List<LocalTransformer> active = new ArrayList<>(transformers.size());
+        for (LocalTransformer transformer : transformers) {
+            if (!transformer.excluded(classWrapper))
+                active.add(transformer);
+        }
+
+        return active;
+    }
+}
@@ -17,16 +17,19 @@
 
 package me.itzsomebody.radon.transformers;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.Scheduler;
 import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.asm.FieldWrapper;
 import me.itzsomebody.radon.asm.MethodWrapper;
-import me.itzsomebody.radon.exceptions.IllegalDictionaryException;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.utils.StringUtils;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.commons.CodeSizeEvaluator;
 import org.objectweb.asm.tree.MethodNode;
@@ -39,11 +42,6 @@ import org.objectweb.asm.tree.MethodNode;
 public abstract class Transformer implements Opcodes {
     protected Radon radon;
 
-    /**
-     * Strings which have already been generated and used.
-     */
-    private HashSet<String> usedStrings = new HashSet<>();
-
     public void init(Radon radon) {
         this.radon = radon;
     }
@@ -87,34 +85,76 @@ public abstract class Transformer implements Opcodes {
         return System.currentTimeMillis() - from;
     }
 
+    /**
+     * Generates a name from the session's dictionary which is unique across every transformer. Safe to call from
+     * parallel streams.
+     *
+     * @param length the length of the name.
+     * @return the generated name.
+     */
     protected String randomString(int length) {
-        String str;
-        do {
-            str = getRandomString(length);
-        } while (usedStrings.contains(str));
+        return this.radon.getNameGenerator().next(length);
+    }
 
-        usedStrings.add(str);
-        return str;
+    /**
+     * Runs the provided action on every class which isn't excluded on the session's {@link Scheduler}, largest
+     * classes first. Waits for every class to be done.
+     *
+     * @param action the action to run on every class.
+     */
+    protected void forEachClass(Consumer<ClassWrapper> action) {
+        forEachClass(classWrapper -> true, action);
     }
 
-    private String getRandomString(int length) {
-        switch (radon.sessionInfo.getDictionaryType()) {
-            case SPACES: {
-                return StringUtils.randomSpacesString(length);
-            }
-            case UNRECOGNIZED: {
-                return StringUtils.randomUnrecognizedString(length);
-            }
-            case ALPHABETICAL: {
-                return StringUtils.randomAlphaString(length);
-            }
-            case ALPHANUMERIC: {
-                return StringUtils.randomAlphaNumericString(length);
-            }
-            default: {
-                throw new IllegalDictionaryException();
+    /**
+     * Runs the provided action on every class which isn't excluded and matches the filter on the session's
+     * {@link Scheduler}, largest classes first. Waits for every class to be done.
+     *
+     * @param filter the classes to run the action on.
+     * @param action the action to run on every class.
+     */
+    protected void forEachClass(Predicate<ClassWrapper> filter, Consumer<ClassWrapper> action) {
+        List<ClassWrapper> classWrappers = new ArrayList<>();
+        for (ClassWrapper classWrapper : getClassWrappers()) {
+            if (!excluded(classWrapper) && filter.test(classWrapper))
+                classWrappers.add(classWrapper);
+        }
+
+        this.radon.getScheduler().forEach(classWrappers, Scheduler::getCost, action);
+    }
+
+    /**
+     * Runs the provided action on every method with instructions which isn't excluded and isn't in an excluded class
+     * on the session's {@link Scheduler}. The methods of every class are scheduled on their own, largest methods
+     * first. Waits for every method to be done.
+     *
+     * @param action the action to run on every method.
+     */
+    protected void forEachMethod(Consumer<MethodWrapper> action) {
+        forEachMethod(classWrapper -> true, action);
+    }
+
+    /**
+     * Runs the provided action on every method with instructions which isn't excluded and is in a class which isn't
+     * excluded and matches the filter on the session's {@link Scheduler}. The methods of every class are scheduled
+     * on their own, largest methods first. Waits for every method to be done.
+     *
+     * @param filter the classes to run the action on the methods of.
+     * @param action the action to run on every method.
+     */
+    protected void forEachMethod(Predicate<ClassWrapper> filter, Consumer<MethodWrapper> action) {
+        List<MethodWrapper> methodWrappers = new ArrayList<>();
+        for (ClassWrapper classWrapper : getClassWrappers()) {
+            if (excluded(classWrapper) || !filter.test(classWrapper))
+                continue;
+
+            for (MethodWrapper methodWrapper : classWrapper.methods) {
+                if (!excluded(methodWrapper) && hasInstructions(methodWrapper.methodNode))
+                    methodWrappers.add(methodWrapper);
             }
         }
+
+        this.radon.getScheduler().forEach(methodWrappers, Scheduler::getCost, action);
     }
 
     protected Map<String, ClassWrapper> getClasses() {
@@ -133,6 +173,16 @@ public abstract class Transformer implements Opcodes {
         return this.radon.resources;
     }
 
+    /**
+     * Returns the transformers this transformer consists of. Transformers which only enable and run other
+     * transformers return those, so the {@link PassManager} can fuse them with their neighbours.
+     *
+     * @return the transformers this transformer consists of.
+     */
+    public List<Transformer> getDelegates() {
+        return Collections.singletonList(this);
+    }
+
     public abstract void transform();
 
     public abstract String getName();
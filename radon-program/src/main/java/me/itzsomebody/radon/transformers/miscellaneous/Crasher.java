@@ -32,8 +32,7 @@ public class Crasher extends Transformer {
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)
-                && classWrapper.classNode.signature == null).forEach(classWrapper -> {
+        forEachClass(classWrapper -> classWrapper.classNode.signature == null, classWrapper -> {
             ClassNode classNode = classWrapper.classNode;
             classNode.signature = randomString(4);
             counter.incrementAndGet();
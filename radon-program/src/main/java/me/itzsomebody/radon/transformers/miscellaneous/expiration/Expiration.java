@@ -48,7 +48,7 @@ public class Expiration extends Transformer {
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
+        forEachClass(classWrapper -> {
             ClassNode classNode = classWrapper.classNode;
 
             classNode.methods.stream().filter(methodNode -> "<init>".equals(methodNode.name)).forEach(methodNode -> {
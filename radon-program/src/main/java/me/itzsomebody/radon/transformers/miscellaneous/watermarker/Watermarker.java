@@ -57,7 +57,7 @@ public class Watermarker extends Transformer {
 
                     if (counter > 20)
                         throw new RuntimeException("Radon couldn't find any methods to embed a watermark in after " + counter + "tries.");
-                } while (classWrapper.classNode.methods.size() != 0);
+                } while (classWrapper.classNode.methods.size() == 0);
 
                 MethodNode methodNode = classWrapper.classNode.methods.get(RandomUtils.getRandomInt(0,
                         classWrapper.classNode.methods.size()));
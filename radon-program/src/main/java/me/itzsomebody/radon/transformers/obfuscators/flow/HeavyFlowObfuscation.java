@@ -17,9 +17,11 @@
 
 package me.itzsomebody.radon.transformers.obfuscators.flow;
 
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import me.itzsomebody.radon.asm.StackEmulator;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.StackHeightAnalyzer;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 import me.itzsomebody.radon.utils.StringUtils;
@@ -45,61 +47,64 @@ public class HeavyFlowObfuscation extends NormalFlowObfuscation {
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
 
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
+        Map<ClassWrapper, FieldNode> fields = new ConcurrentHashMap<>();
+
+        forEachClass(classWrapper -> {
             FieldNode field = new FieldNode(ACC_PUBLIC + ACC_STATIC + ACC_FINAL,
                     StringUtils.randomSpacesString(RandomUtils.getRandomInt(10)), "Z", null, null);
 
-            classNode.fields.add(field);
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                MethodNode methodNode = methodWrapper.methodNode;
-                int leeway = getSizeLeeway(methodNode);
-                int varIndex = methodNode.maxLocals;
-                methodNode.maxLocals++;
-                AbstractInsnNode[] untouchedList = methodNode.instructions.toArray();
-                LabelNode labelNode = exitLabel(methodNode);
-                boolean calledSuper = false;
-                Set<AbstractInsnNode> emptyAt = new StackEmulator(methodNode,
-                        methodNode.instructions.getLast()).getEmptyAt();
-                for (AbstractInsnNode insn : untouchedList) {
-                    if (leeway < 10000) {
-                        break;
-                    }
-                    if ("<init>".equals(methodNode.name)) {
-                        calledSuper = (insn instanceof MethodInsnNode && insn.getOpcode() == INVOKESPECIAL
-                                && insn.getPrevious() instanceof VarInsnNode && ((VarInsnNode) insn.getPrevious()).var == 0);
-                    }
-                    if (insn != methodNode.instructions.getFirst() && !(insn instanceof LineNumberNode)) {
-                        if ("<init>".equals(methodNode.name) && !calledSuper)
-                            continue;
-                        if (emptyAt.contains(insn)) { // We need to make sure stack is empty before making jumps
-                            methodNode.instructions.insertBefore(insn, new VarInsnNode(ILOAD, varIndex));
-                            methodNode.instructions.insertBefore(insn, new JumpInsnNode(IFNE, labelNode));
-                            leeway -= 5;
-                            counter.incrementAndGet();
-                        }
-                    }
-                    if (insn.getOpcode() == GOTO) {
+            classWrapper.classNode.fields.add(field);
+            fields.put(classWrapper, field);
+        });
+
+        forEachMethod(methodWrapper -> {
+            ClassNode classNode = methodWrapper.owner.classNode;
+            FieldNode field = fields.get(methodWrapper.owner);
+            MethodNode methodNode = methodWrapper.methodNode;
+            int leeway = getSizeLeeway(methodNode);
+            int varIndex = methodNode.maxLocals;
+            methodNode.maxLocals++;
+            StackHeightAnalyzer stackHeights = StackHeightAnalyzer.analyze(methodNode);
+            AbstractInsnNode[] untouchedList = stackHeights.getInstructions();
+            LabelNode labelNode = exitLabel(methodNode);
+            boolean calledSuper = false;
+            for (int i = 0; i < untouchedList.length; i++) {
+                AbstractInsnNode insn = untouchedList[i];
+                if (leeway < 10000) {
+                    break;
+                }
+                if ("<init>".equals(methodNode.name)) {
+                    calledSuper = (insn instanceof MethodInsnNode && insn.getOpcode() == INVOKESPECIAL
+                            && insn.getPrevious() instanceof VarInsnNode && ((VarInsnNode) insn.getPrevious()).var == 0);
+                }
+                if (insn != methodNode.instructions.getFirst() && !(insn instanceof LineNumberNode)) {
+                    if ("<init>".equals(methodNode.name) && !calledSuper)
+                        continue;
+                    if (stackHeights.isEmptyAt(i)) { // We need to make sure stack is empty before making jumps
                         methodNode.instructions.insertBefore(insn, new VarInsnNode(ILOAD, varIndex));
-                        methodNode.instructions.insert(insn, new InsnNode(ATHROW));
-                        methodNode.instructions.insert(insn, new InsnNode(ACONST_NULL));
-                        methodNode.instructions.set(insn, new JumpInsnNode(IFEQ, ((JumpInsnNode) insn).label));
-                        leeway -= 7;
-                        counter.incrementAndGet();
-                    } else if (insn.getOpcode() >= IFEQ && insn.getOpcode() <= IF_ICMPLE) {
-                        methodNode.instructions.insert(insn, new JumpInsnNode(IFNE, ((JumpInsnNode) insn).label));
-                        methodNode.instructions.insert(insn, new VarInsnNode(ILOAD, varIndex));
-                        leeway -= 7;
+                        methodNode.instructions.insertBefore(insn, new JumpInsnNode(IFNE, labelNode));
+                        leeway -= 5;
                         counter.incrementAndGet();
                     }
                 }
-                methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), new VarInsnNode(ISTORE,
-                        varIndex));
-                methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), new FieldInsnNode(GETSTATIC,
-                        classNode.name, field.name, "Z"));
-            });
+                if (insn.getOpcode() == GOTO) {
+                    methodNode.instructions.insertBefore(insn, new VarInsnNode(ILOAD, varIndex));
+                    methodNode.instructions.insert(insn, new InsnNode(ATHROW));
+                    methodNode.instructions.insert(insn, new InsnNode(ACONST_NULL));
+                    methodNode.instructions.set(insn, new JumpInsnNode(IFEQ, ((JumpInsnNode) insn).label));
+                    leeway -= 7;
+                    counter.incrementAndGet();
+                } else if (insn.getOpcode() >= IFEQ && insn.getOpcode() <= IF_ICMPLE) {
+                    methodNode.instructions.insert(insn, new JumpInsnNode(IFNE, ((JumpInsnNode) insn).label));
+                    methodNode.instructions.insert(insn, new VarInsnNode(ILOAD, varIndex));
+                    leeway -= 7;
+                    counter.incrementAndGet();
+                }
+            }
+            methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), new VarInsnNode(ISTORE,
+                    varIndex));
+            methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), new FieldInsnNode(GETSTATIC,
+                    classNode.name, field.name, "Z"));
         });
 
         LoggerUtils.stdOut(String.format("Added %d fake jump sequences", counter.get()));
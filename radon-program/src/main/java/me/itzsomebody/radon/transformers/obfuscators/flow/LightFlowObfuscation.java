@@ -17,7 +17,10 @@
 
 package me.itzsomebody.radon.transformers.obfuscators.flow;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 import me.itzsomebody.radon.utils.StringUtils;
@@ -39,34 +42,36 @@ public class LightFlowObfuscation extends FlowObfuscation {
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
 
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
-            String fieldName = StringUtils.randomSpacesString(RandomUtils.getRandomInt(10));
+        Map<ClassWrapper, String> fieldNames = new ConcurrentHashMap<>();
 
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                MethodNode methodNode = methodWrapper.methodNode;
-                int leeway = getSizeLeeway(methodNode);
+        forEachClass(classWrapper -> {
+            String fieldName = StringUtils.randomSpacesString(RandomUtils.getRandomInt(10));
+            classWrapper.classNode.fields.add(new FieldNode(ACC_PUBLIC + ACC_STATIC + ACC_FINAL, fieldName, "Z",
+                    null, null));
+            fieldNames.put(classWrapper, fieldName);
+        });
 
-                for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                    if (leeway < 10000) {
-                        break;
-                    }
+        forEachMethod(methodWrapper -> {
+            ClassNode classNode = methodWrapper.owner.classNode;
+            String fieldName = fieldNames.get(methodWrapper.owner);
+            MethodNode methodNode = methodWrapper.methodNode;
+            int leeway = getSizeLeeway(methodNode);
 
-                    if (insn.getOpcode() == GOTO) {
-                        methodNode.instructions.insertBefore(insn, new FieldInsnNode(GETSTATIC, classNode.name,
-                                fieldName, "Z"));
-                        methodNode.instructions.insert(insn, new InsnNode(ATHROW));
-                        methodNode.instructions.insert(insn, new InsnNode(ACONST_NULL));
-                        methodNode.instructions.set(insn, new JumpInsnNode(IFEQ, ((JumpInsnNode) insn).label));
-                        leeway -= 7;
-                        counter.incrementAndGet();
-                    }
+            for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+                if (leeway < 10000) {
+                    break;
                 }
-            });
 
-            classNode.fields.add(new FieldNode(ACC_PUBLIC + ACC_STATIC + ACC_FINAL, fieldName, "Z", null, null));
+                if (insn.getOpcode() == GOTO) {
+                    methodNode.instructions.insertBefore(insn, new FieldInsnNode(GETSTATIC, classNode.name,
+                            fieldName, "Z"));
+                    methodNode.instructions.insert(insn, new InsnNode(ATHROW));
+                    methodNode.instructions.insert(insn, new InsnNode(ACONST_NULL));
+                    methodNode.instructions.set(insn, new JumpInsnNode(IFEQ, ((JumpInsnNode) insn).label));
+                    leeway -= 7;
+                    counter.incrementAndGet();
+                }
+            }
         });
 
         LoggerUtils.stdOut(String.format("Added %d fake throw-null sequences", counter.get()));
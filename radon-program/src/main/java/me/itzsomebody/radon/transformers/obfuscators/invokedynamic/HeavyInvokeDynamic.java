@@ -24,6 +24,7 @@ import me.itzsomebody.radon.asm.FieldWrapper;
 import me.itzsomebody.radon.exceptions.MissingClassException;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.StringUtils;
+import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
@@ -49,110 +50,44 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
         MemberNames memberNames = new MemberNames();
         Handle bsmHandle = new Handle(H_INVOKESTATIC, memberNames.className, memberNames.bootstrapMethodName,
                 "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !"java/lang/Enum".equals(classWrapper.classNode.superName) && !excluded(classWrapper)
-                        && classWrapper.classNode.version >= V1_7).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
+        forEachMethod(classWrapper -> !"java/lang/Enum".equals(classWrapper.classNode.superName)
+                && classWrapper.classNode.version >= V1_7, methodWrapper -> {
+            ClassNode classNode = methodWrapper.owner.classNode;
+            MethodNode methodNode = methodWrapper.methodNode;
 
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                MethodNode methodNode = methodWrapper.methodNode;
-
-                for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                    if (insn instanceof MethodInsnNode) {
-                        MethodInsnNode methodInsnNode = (MethodInsnNode) insn;
-                        if (!"<init>".equals(methodInsnNode.name)) {
-                            boolean isStatic = (methodInsnNode.getOpcode() == INVOKESTATIC);
-                            String newSig = isStatic ? methodInsnNode.desc : methodInsnNode.desc.replace("(",
-                                    "(Ljava/lang/Object;");
-                            Type returnType = Type.getReturnType(methodInsnNode.desc);
-                            Type[] args = Type.getArgumentTypes(newSig);
-                            for (int i = 0; i < args.length; i++) {
-                                Type arg = args[i];
-                                if (arg.getSort() == Type.OBJECT) {
-                                    args[i] = Type.getType("Ljava/lang/Object;");
-                                }
-                            }
-                            newSig = Type.getMethodDescriptor(returnType, args);
-                            StringBuilder sb = new StringBuilder();
-                            sb.append(methodInsnNode.owner.replace("/", ".")).append("<>").append(methodInsnNode.name)
-                                    .append("<>");
-
-                            switch (insn.getOpcode()) {
-                                case INVOKEINTERFACE:
-                                case INVOKEVIRTUAL: {
-                                    sb.append("1<>").append(methodInsnNode.desc);
-                                    break;
-                                }
-                                case INVOKESPECIAL: {
-                                    sb.append("2<>").append(methodInsnNode.desc).append("<>").append(classNode.name
-                                            .replace("/", "."));
-                                    break;
-                                }
-                                case INVOKESTATIC: {
-                                    sb.append("0<>").append(methodInsnNode.desc);
-                                    break;
-                                }
-                                default: {
-                                    break;
-                                }
-                            }
-
-                            InvokeDynamicInsnNode indy = new InvokeDynamicInsnNode(
-                                    encrypt(sb.toString(), memberNames),
-                                    newSig,
-                                    bsmHandle
-                            );
-
-                            methodNode.instructions.set(insn, indy);
-                            if (returnType.getSort() == Type.ARRAY) {
-                                methodNode.instructions.insert(indy, new TypeInsnNode(CHECKCAST,
-                                        returnType.getInternalName()));
+            for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+                if (insn instanceof MethodInsnNode) {
+                    MethodInsnNode methodInsnNode = (MethodInsnNode) insn;
+                    if (!"<init>".equals(methodInsnNode.name)) {
+                        boolean isStatic = (methodInsnNode.getOpcode() == INVOKESTATIC);
+                        String newSig = isStatic ? methodInsnNode.desc : methodInsnNode.desc.replace("(",
+                                "(Ljava/lang/Object;");
+                        Type returnType = Type.getReturnType(methodInsnNode.desc);
+                        Type[] args = Type.getArgumentTypes(newSig);
+                        for (int i = 0; i < args.length; i++) {
+                            Type arg = args[i];
+                            if (arg.getSort() == Type.OBJECT) {
+                                args[i] = Type.getType("Ljava/lang/Object;");
                             }
-                            counter.incrementAndGet();
-                        }
-                    } else if (insn instanceof FieldInsnNode && !"<init>".equals(methodNode.name)) {
-                        FieldInsnNode fieldInsnNode = (FieldInsnNode) insn;
-
-                        ClassWrapper cw = getClassPath().get(fieldInsnNode.owner);
-                        if (cw == null) {
-                            throw new MissingClassException(fieldInsnNode.owner + " does not exist in classpath");
                         }
-                        FieldWrapper fw = cw.fields.stream().filter(fieldWrapper ->
-                                fieldWrapper.fieldNode.name.equals(fieldInsnNode.name)
-                                        && fieldWrapper.fieldNode.desc.equals(fieldInsnNode.desc)).findFirst()
-                                .orElse(null);
-                        if (fw != null && Modifier.isFinal(fw.fieldNode.access)) {
-                            continue;
-                        }
-
-                        boolean isStatic = (fieldInsnNode.getOpcode() == GETSTATIC
-                                || fieldInsnNode.getOpcode() == PUTSTATIC);
-                        boolean isSetter = (fieldInsnNode.getOpcode() == PUTFIELD
-                                || fieldInsnNode.getOpcode() == PUTSTATIC);
-                        String newSig = (isSetter) ? "(" + fieldInsnNode.desc + ")V" : "()" + fieldInsnNode.desc;
-                        if (!isStatic)
-                            newSig = newSig.replace("(", "(Ljava/lang/Object;");
-
+                        newSig = Type.getMethodDescriptor(returnType, args);
                         StringBuilder sb = new StringBuilder();
-                        sb.append(fieldInsnNode.owner.replace("/", ".")).append("<>").append(fieldInsnNode.name)
+                        sb.append(methodInsnNode.owner.replace("/", ".")).append("<>").append(methodInsnNode.name)
                                 .append("<>");
 
                         switch (insn.getOpcode()) {
-                            case GETSTATIC: {
-                                sb.append("3");
+                            case INVOKEINTERFACE:
+                            case INVOKEVIRTUAL: {
+                                sb.append("1<>").append(methodInsnNode.desc);
                                 break;
                             }
-                            case GETFIELD: {
-                                sb.append("4");
+                            case INVOKESPECIAL: {
+                                sb.append("2<>").append(methodInsnNode.desc).append("<>").append(classNode.name
+                                        .replace("/", "."));
                                 break;
                             }
-                            case PUTSTATIC: {
-                                sb.append("5");
-                                break;
-                            }
-                            case PUTFIELD: {
-                                sb.append("6");
+                            case INVOKESTATIC: {
+                                sb.append("0<>").append(methodInsnNode.desc);
                                 break;
                             }
                             default: {
@@ -167,10 +102,71 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
                         );
 
                         methodNode.instructions.set(insn, indy);
+                        if (returnType.getSort() == Type.ARRAY) {
+                            methodNode.instructions.insert(indy, new TypeInsnNode(CHECKCAST,
+                                    returnType.getInternalName()));
+                        }
                         counter.incrementAndGet();
                     }
+                } else if (insn instanceof FieldInsnNode && !"<init>".equals(methodNode.name)) {
+                    FieldInsnNode fieldInsnNode = (FieldInsnNode) insn;
+
+                    ClassWrapper cw = getClassPath().get(fieldInsnNode.owner);
+                    if (cw == null) {
+                        throw new MissingClassException(fieldInsnNode.owner + " does not exist in classpath");
+                    }
+                    FieldWrapper fw = cw.fields.stream().filter(fieldWrapper ->
+                            fieldWrapper.fieldNode.name.equals(fieldInsnNode.name)
+                                    && fieldWrapper.fieldNode.desc.equals(fieldInsnNode.desc)).findFirst()
+                            .orElse(null);
+                    if (fw != null && Modifier.isFinal(fw.fieldNode.access)) {
+                        continue;
+                    }
+
+                    boolean isStatic = (fieldInsnNode.getOpcode() == GETSTATIC
+                            || fieldInsnNode.getOpcode() == PUTSTATIC);
+                    boolean isSetter = (fieldInsnNode.getOpcode() == PUTFIELD
+                            || fieldInsnNode.getOpcode() == PUTSTATIC);
+                    String newSig = (isSetter) ? "(" + fieldInsnNode.desc + ")V" : "()" + fieldInsnNode.desc;
+                    if (!isStatic)
+                        newSig = newSig.replace("(", "(Ljava/lang/Object;");
+
+                    StringBuilder sb = new StringBuilder();
+                    sb.append(fieldInsnNode.owner.replace("/", ".")).append("<>").append(fieldInsnNode.name)
+                            .append("<>");
+
+                    switch (insn.getOpcode()) {
+                        case GETSTATIC: {
+                            sb.append("3");
+                            break;
+                        }
+                        case GETFIELD: {
+                            sb.append("4");
+                            break;
+                        }
+                        case PUTSTATIC: {
+                            sb.append("5");
+                            break;
+                        }
+                        case PUTFIELD: {
+                            sb.append("6");
+                            break;
+                        }
+                        default: {
+                            break;
+                        }
+                    }
+
+                    InvokeDynamicInsnNode indy = new InvokeDynamicInsnNode(
+                            encrypt(sb.toString(), memberNames),
+                            newSig,
+                            bsmHandle
+                    );
+
+                    methodNode.instructions.set(insn, indy);
+                    counter.incrementAndGet();
                 }
-            });
+            }
         });
 
         ClassNode decryptor = createBootstrap(memberNames);
@@ -212,6 +208,7 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
 
     private static ClassNode createBootstrap(MemberNames memberNames) {
         ClassNode cw = new ClassNode();
+        FieldVisitor fv;
         MethodVisitor mv;
 
         cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, "java/lang/Object", null);
@@ -363,6 +360,25 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
             mv.visitEnd();
         }
         {
+            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;", null, null);
+            fv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+            mv.visitCode();
+            mv.visitTypeInsn(NEW, "java/util/concurrent/ConcurrentHashMap");
+            mv.visitInsn(DUP);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/util/concurrent/ConcurrentHashMap", "<init>", "()V", false);
+            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(2, 0);
+            mv.visitEnd();
+        }
+        {
+            // Call sites of the same member share the decrypted and resolved member, call sites in the same class
+            // also share the method handle.
             mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.bootstrapMethodName,
                     "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", null, null);
             mv.visitCode();
@@ -371,6 +387,17 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
             Label l2 = new Label();
             mv.visitTryCatchBlock(l0, l1, l2, "java/lang/Throwable");
             mv.visitLabel(l0);
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "get",
+                    "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+            mv.visitTypeInsn(CHECKCAST, "[Ljava/lang/Object;");
+            mv.visitVarInsn(ASTORE, 3);
+            mv.visitVarInsn(ALOAD, 3);
+            Label l3 = new Label();
+            mv.visitJumpInsn(IFNONNULL, l3);
+            // The decryptor has to be called from here as it is keyed with the name of its caller.
             mv.visitVarInsn(ALOAD, 1);
             mv.visitTypeInsn(CHECKCAST, "java/lang/String");
             mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decryptorMethodName,
@@ -378,222 +405,221 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
             mv.visitLdcInsn("<>");
             mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "split", "(Ljava/lang/String;)[Ljava/lang/String;",
                     false);
+            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.resolveMemberMethodName,
+                    "([Ljava/lang/String;)[Ljava/lang/Object;", false);
             mv.visitVarInsn(ASTORE, 3);
-            Label l3 = new Label();
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "put",
+                    "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
+            mv.visitInsn(POP);
             mv.visitLabel(l3);
             mv.visitVarInsn(ALOAD, 3);
-            mv.visitInsn(ICONST_0);
+            mv.visitInsn(ICONST_5);
             mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Class", "forName", "(Ljava/lang/String;)Ljava/lang/Class;",
-                    false);
+            mv.visitTypeInsn(CHECKCAST, "java/util/concurrent/ConcurrentHashMap");
             mv.visitVarInsn(ASTORE, 4);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitVarInsn(ALOAD, 3);
-            mv.visitInsn(ICONST_1);
-            mv.visitInsn(AALOAD);
-            mv.visitVarInsn(ASTORE, 5);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
-            mv.visitVarInsn(ALOAD, 3);
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "parseInt", "(Ljava/lang/String;)I", false);
-            mv.visitVarInsn(ISTORE, 6);
-            Label l6 = new Label();
-            mv.visitLabel(l6);
             mv.visitVarInsn(ALOAD, 0);
             mv.visitTypeInsn(CHECKCAST, "java/lang/invoke/MethodHandles$Lookup");
-            mv.visitVarInsn(ASTORE, 7);
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitInsn(ACONST_NULL);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l8 = new Label();
-            mv.visitLabel(l8);
-            mv.visitVarInsn(ILOAD, 6);
-            Label l9 = new Label();
-            Label l10 = new Label();
-            Label l11 = new Label();
-            Label l12 = new Label();
-            Label l13 = new Label();
-            Label l14 = new Label();
-            Label l15 = new Label();
-            Label l16 = new Label();
-            mv.visitTableSwitchInsn(0, 6, l16, l9, l10, l11, l12, l13, l14, l15);
-            mv.visitLabel(l9);
-            mv.visitVarInsn(ALOAD, 7);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "lookupClass",
+                    "()Ljava/lang/Class;", false);
+            mv.visitVarInsn(ASTORE, 5);
             mv.visitVarInsn(ALOAD, 4);
             mv.visitVarInsn(ALOAD, 5);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "get",
+                    "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/invoke/MethodHandle");
+            mv.visitVarInsn(ASTORE, 6);
+            mv.visitVarInsn(ALOAD, 6);
+            Label l4 = new Label();
+            mv.visitJumpInsn(IFNONNULL, l4);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/invoke/MethodHandles$Lookup");
             mv.visitVarInsn(ALOAD, 3);
-            mv.visitInsn(ICONST_3);
-            mv.visitInsn(AALOAD);
-            mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getClassLoader", "()Ljava/lang/ClassLoader;", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/invoke/MethodType", "fromMethodDescriptorString",
-                    "(Ljava/lang/String;Ljava/lang/ClassLoader;)Ljava/lang/invoke/MethodType;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findStatic",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;",
+            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.resolveHandleMethodName,
+                    "(Ljava/lang/invoke/MethodHandles$Lookup;[Ljava/lang/Object;)Ljava/lang/invoke/MethodHandle;",
                     false);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l17 = new Label();
-            mv.visitLabel(l17);
-            mv.visitJumpInsn(GOTO, l16);
-            mv.visitLabel(l10);
-            mv.visitVarInsn(ALOAD, 7);
+            mv.visitVarInsn(ASTORE, 6);
             mv.visitVarInsn(ALOAD, 4);
             mv.visitVarInsn(ALOAD, 5);
+            mv.visitVarInsn(ALOAD, 6);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "put",
+                    "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
+            mv.visitInsn(POP);
+            mv.visitLabel(l4);
+            mv.visitTypeInsn(NEW, "java/lang/invoke/ConstantCallSite");
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ALOAD, 6);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/invoke/MethodType");
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "asType",
+                    "(Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", false);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/invoke/ConstantCallSite", "<init>",
+                    "(Ljava/lang/invoke/MethodHandle;)V", false);
+            mv.visitLabel(l1);
+            mv.visitInsn(ARETURN);
+            mv.visitLabel(l2);
+            mv.visitVarInsn(ASTORE, 3);
             mv.visitVarInsn(ALOAD, 3);
-            mv.visitInsn(ICONST_3);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Throwable", "printStackTrace", "()V", false);
+            mv.visitInsn(ACONST_NULL);
+            mv.visitInsn(ARETURN);
+            mv.visitMaxs(4, 7);
+            mv.visitEnd();
+        }
+        {
+            // { owner, name, type, method type or field, special caller, method handles per lookup class }
+            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.resolveMemberMethodName,
+                    "([Ljava/lang/String;)[Ljava/lang/Object;", null, new String[]{"java/lang/Throwable"});
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitInsn(ICONST_2);
             mv.visitInsn(AALOAD);
-            mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getClassLoader", "()Ljava/lang/ClassLoader;", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/invoke/MethodType", "fromMethodDescriptorString",
-                    "(Ljava/lang/String;Ljava/lang/ClassLoader;)Ljava/lang/invoke/MethodType;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findVirtual",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;",
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "parseInt", "(Ljava/lang/String;)I", false);
+            mv.visitVarInsn(ISTORE, 1);
+            mv.visitIntInsn(BIPUSH, 6);
+            mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+            mv.visitVarInsn(ASTORE, 2);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_0);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitInsn(ICONST_0);
+            mv.visitInsn(AALOAD);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Class", "forName", "(Ljava/lang/String;)Ljava/lang/Class;",
                     false);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l18 = new Label();
-            mv.visitLabel(l18);
-            mv.visitJumpInsn(GOTO, l16);
-            mv.visitLabel(l11);
-            mv.visitVarInsn(ALOAD, 7);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitVarInsn(ALOAD, 3);
+            mv.visitInsn(AASTORE);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_1);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(AALOAD);
+            mv.visitInsn(AASTORE);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_2);
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+            mv.visitInsn(AASTORE);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_5);
+            mv.visitTypeInsn(NEW, "java/util/concurrent/ConcurrentHashMap");
+            mv.visitInsn(DUP);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/util/concurrent/ConcurrentHashMap", "<init>", "()V", false);
+            mv.visitInsn(AASTORE);
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitInsn(ICONST_2);
+            Label l0 = new Label();
+            mv.visitJumpInsn(IF_ICMPGT, l0);
+            // Methods
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_3);
+            mv.visitVarInsn(ALOAD, 0);
             mv.visitInsn(ICONST_3);
             mv.visitInsn(AALOAD);
             mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
             mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getClassLoader", "()Ljava/lang/ClassLoader;", false);
             mv.visitMethodInsn(INVOKESTATIC, "java/lang/invoke/MethodType", "fromMethodDescriptorString",
                     "(Ljava/lang/String;Ljava/lang/ClassLoader;)Ljava/lang/invoke/MethodType;", false);
-            mv.visitVarInsn(ALOAD, 3);
+            mv.visitInsn(AASTORE);
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitInsn(ICONST_2);
+            Label l1 = new Label();
+            mv.visitJumpInsn(IF_ICMPNE, l1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_4);
+            mv.visitVarInsn(ALOAD, 0);
             mv.visitInsn(ICONST_4);
             mv.visitInsn(AALOAD);
             mv.visitMethodInsn(INVOKESTATIC, "java/lang/Class", "forName", "(Ljava/lang/String;)Ljava/lang/Class;",
                     false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findSpecial",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/Class;)" +
-                            "Ljava/lang/invoke/MethodHandle;", false);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l19 = new Label();
-            mv.visitLabel(l19);
-            mv.visitJumpInsn(GOTO, l16);
-            mv.visitLabel(l12);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.searchMethodName, "(Ljava/lang/Class;" +
-                    "Ljava/lang/String;)Ljava/lang/reflect/Field;", false);
-            mv.visitVarInsn(ASTORE, 9);
-            Label l20 = new Label();
-            mv.visitLabel(l20);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitJumpInsn(IFNULL, l16);
-            Label l21 = new Label();
-            mv.visitLabel(l21);
-            mv.visitVarInsn(ALOAD, 7);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "getType", "()Ljava/lang/Class;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findStaticGetter",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", false);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l22 = new Label();
-            mv.visitLabel(l22);
-            mv.visitJumpInsn(GOTO, l16);
-            mv.visitLabel(l13);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.searchMethodName,
-                    "(Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/reflect/Field;", false);
-            mv.visitVarInsn(ASTORE, 9);
-            Label l23 = new Label();
-            mv.visitLabel(l23);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitJumpInsn(IFNULL, l16);
-            Label l24 = new Label();
-            mv.visitLabel(l24);
-            mv.visitVarInsn(ALOAD, 7);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "getType", "()Ljava/lang/Class;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findGetter",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", false);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l25 = new Label();
-            mv.visitLabel(l25);
-            mv.visitJumpInsn(GOTO, l16);
-            mv.visitLabel(l14);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.searchMethodName,
-                    "(Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/reflect/Field;", false);
-            mv.visitVarInsn(ASTORE, 9);
-            Label l26 = new Label();
-            mv.visitLabel(l26);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitJumpInsn(IFNULL, l16);
-            Label l27 = new Label();
-            mv.visitLabel(l27);
-            mv.visitVarInsn(ALOAD, 7);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "getType", "()Ljava/lang/Class;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findStaticSetter",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", false);
-            mv.visitVarInsn(ASTORE, 8);
-            Label l28 = new Label();
-            mv.visitLabel(l28);
-            mv.visitJumpInsn(GOTO, l16);
-            mv.visitLabel(l15);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
+            mv.visitInsn(AASTORE);
+            mv.visitJumpInsn(GOTO, l1);
+            // Fields
+            mv.visitLabel(l0);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_3);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitInsn(ICONST_0);
+            mv.visitInsn(AALOAD);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/Class");
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(AALOAD);
             mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.searchMethodName,
                     "(Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/reflect/Field;", false);
-            mv.visitVarInsn(ASTORE, 9);
-            Label l29 = new Label();
-            mv.visitLabel(l29);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitJumpInsn(IFNULL, l16);
-            Label l30 = new Label();
-            mv.visitLabel(l30);
-            mv.visitVarInsn(ALOAD, 7);
-            mv.visitVarInsn(ALOAD, 4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitVarInsn(ALOAD, 9);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "getType", "()Ljava/lang/Class;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", "findSetter",
-                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", false);
-            mv.visitVarInsn(ASTORE, 8);
-            mv.visitLabel(l16);
-            mv.visitTypeInsn(NEW, "java/lang/invoke/ConstantCallSite");
-            mv.visitInsn(DUP);
-            mv.visitVarInsn(ALOAD, 8);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitTypeInsn(CHECKCAST, "java/lang/invoke/MethodType");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "asType",
-                    "(Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", false);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/invoke/ConstantCallSite", "<init>",
-                    "(Ljava/lang/invoke/MethodHandle;)V", false);
+            mv.visitInsn(AASTORE);
             mv.visitLabel(l1);
+            mv.visitVarInsn(ALOAD, 2);
             mv.visitInsn(ARETURN);
-            mv.visitLabel(l2);
+            mv.visitMaxs(6, 3);
+            mv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.resolveHandleMethodName,
+                    "(Ljava/lang/invoke/MethodHandles$Lookup;[Ljava/lang/Object;)Ljava/lang/invoke/MethodHandle;",
+                    null, new String[]{"java/lang/Throwable"});
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitInsn(ICONST_0);
+            mv.visitInsn(AALOAD);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/Class");
+            mv.visitVarInsn(ASTORE, 2);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(AALOAD);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/String");
             mv.visitVarInsn(ASTORE, 3);
-            Label l31 = new Label();
-            mv.visitLabel(l31);
-            mv.visitVarInsn(ALOAD, 3);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Throwable", "printStackTrace", "()V", false);
-            Label l32 = new Label();
-            mv.visitLabel(l32);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitInsn(ICONST_2);
+            mv.visitInsn(AALOAD);
+            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+            Label[] cases = new Label[7];
+            for (int i = 0; i < cases.length; i++) {
+                cases[i] = new Label();
+            }
+            Label notFound = new Label();
+            mv.visitTableSwitchInsn(0, 6, notFound, cases);
+            String[] finders = {"findStatic", "findVirtual", "findSpecial", "findStaticGetter", "findGetter",
+                    "findStaticSetter", "findSetter"};
+            for (int i = 0; i < cases.length; i++) {
+                mv.visitLabel(cases[i]);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitInsn(ICONST_3);
+                mv.visitInsn(AALOAD);
+                if (i <= 2) {
+                    mv.visitTypeInsn(CHECKCAST, "java/lang/invoke/MethodType");
+                    if (i == 2) {
+                        mv.visitVarInsn(ALOAD, 1);
+                        mv.visitInsn(ICONST_4);
+                        mv.visitInsn(AALOAD);
+                        mv.visitTypeInsn(CHECKCAST, "java/lang/Class");
+                        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", finders[i],
+                                "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/Class;)"
+                                        + "Ljava/lang/invoke/MethodHandle;", false);
+                    } else {
+                        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", finders[i],
+                                "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)"
+                                        + "Ljava/lang/invoke/MethodHandle;", false);
+                    }
+                } else {
+                    mv.visitTypeInsn(CHECKCAST, "java/lang/reflect/Field");
+                    mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Field", "getType", "()Ljava/lang/Class;",
+                            false);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandles$Lookup", finders[i],
+                            "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;",
+                            false);
+                }
+                mv.visitInsn(ARETURN);
+            }
+            mv.visitLabel(notFound);
             mv.visitInsn(ACONST_NULL);
             mv.visitInsn(ARETURN);
-            Label l33 = new Label();
-            mv.visitLabel(l33);
-            mv.visitMaxs(6, 10);
+            mv.visitMaxs(5, 4);
             mv.visitEnd();
         }
         {
@@ -726,12 +752,18 @@ public class HeavyInvokeDynamic extends InvokeDynamic {
         private String decryptorMethodName;
         private String bootstrapMethodName;
         private String searchMethodName;
+        private String resolveMemberMethodName;
+        private String resolveHandleMethodName;
+        private String cacheFieldName;
 
         private MemberNames() {
             this.className = StringUtils.randomClassName(getClasses().keySet());
             this.decryptorMethodName = randomString(4);
             this.bootstrapMethodName = randomString(4);
             this.searchMethodName = randomString(4);
+            this.resolveMemberMethodName = randomString(4);
+            this.resolveHandleMethodName = randomString(4);
+            this.cacheFieldName = randomString(4);
         }
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers.obfuscators.invokedynamic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The hottest methods of a runtime profile. A profile is a CSV file of which every line holds a method and the amount
+ * of samples it was seen in, for example {@code com/example/Foo.bar(I)V,1234}. Owners may also be written with dots
+ * as found in JFR exports, lines which don't end with a number (such as headers) and lines starting with # are
+ * ignored.
+ *
+ * @author ItzSomebody
+ */
+public class HotMethodProfile {
+    private final File file;
+    private final double percentage;
+    private final Set<String> hotMethods;
+
+    private HotMethodProfile(File file, double percentage, Set<String> hotMethods) {
+        this.file = file;
+        this.percentage = percentage;
+        this.hotMethods = hotMethods;
+    }
+
+    /**
+     * Reads a profile and keeps the provided percentage of its methods with the most samples.
+     *
+     * @param file       the CSV file to read.
+     * @param percentage the percentage of profiled methods to consider hot, between 0 and 100.
+     * @return the hot methods of the profile.
+     * @throws IOException if the file couldn't be read.
+     */
+    public static HotMethodProfile load(File file, double percentage) throws IOException {
+        Map<String, Long> samples = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int comma = line.lastIndexOf(',');
+                if (line.startsWith("#") || comma < 0)
+                    continue;
+
+                String method = normalize(line.substring(0, comma).trim());
+                try {
+                    long count = Long.parseLong(line.substring(comma + 1).trim());
+                    if (method != null)
+                        samples.merge(method, count, Long::sum);
+                } catch (NumberFormatException e) {
+                    // Header or something else we don't care about.
+                }
+            }
+        }
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(samples.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        int hotCount = (int) Math.ceil(entries.size() * Math.max(0, Math.min(100, percentage)) / 100);
+
+        Set<String> hotMethods = new HashSet<>();
+        for (int i = 0; i < hotCount; i++) {
+            hotMethods.add(entries.get(i).getKey());
+        }
+
+        return new HotMethodProfile(file, percentage, hotMethods);
+    }
+
+    /**
+     * Turns a profiled method into the owner.name+desc format used by exclusions.
+     *
+     * @param method the profiled method.
+     * @return the normalized method or null if it doesn't have a descriptor.
+     */
+    private static String normalize(String method) {
+        if (method.startsWith("\"") && method.endsWith("\"") && method.length() > 1)
+            method = method.substring(1, method.length() - 1);
+
+        int descStart = method.indexOf('(');
+        if (descStart < 0)
+            return null;
+
+        int nameStart = method.lastIndexOf('.', descStart);
+        if (nameStart < 0)
+            return null;
+
+        return method.substring(0, nameStart).replace('.', '/') + method.substring(nameStart);
+    }
+
+    /**
+     * @param method the method as owner.name+desc.
+     * @return true if the method is one of the hot methods.
+     */
+    public boolean isHot(String method) {
+        return hotMethods.contains(method);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public double getPercentage() {
+        return percentage;
+    }
+
+    /**
+     * @return the amount of hot methods.
+     */
+    public int size() {
+        return hotMethods.size();
+    }
+}
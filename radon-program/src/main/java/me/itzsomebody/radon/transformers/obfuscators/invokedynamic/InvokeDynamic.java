@@ -17,6 +17,7 @@
 
 package me.itzsomebody.radon.transformers.obfuscators.invokedynamic;
 
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.exceptions.IllegalConfigurationValueException;
 import me.itzsomebody.radon.exclusions.ExclusionType;
 import me.itzsomebody.radon.transformers.Transformer;
@@ -27,6 +28,28 @@ import me.itzsomebody.radon.transformers.Transformer;
  * @author ItzSomebody
  */
 public abstract class InvokeDynamic extends Transformer {
+    private HotMethodProfile hotMethods;
+
+    /**
+     * Makes this transformer leave the hot methods of the provided profile alone. Invokedynamics and the type
+     * adaptation of their call sites get in the way of inlining, so hot loops suffer the most from them.
+     *
+     * @param hotMethods the profile to use or null to transform every method.
+     */
+    public void setHotMethods(HotMethodProfile hotMethods) {
+        this.hotMethods = hotMethods;
+    }
+
+    public HotMethodProfile getHotMethods() {
+        return hotMethods;
+    }
+
+    @Override
+    protected boolean excluded(MethodWrapper methodWrapper) {
+        return super.excluded(methodWrapper) || (hotMethods != null && hotMethods.isHot(methodWrapper.owner.originalName
+                + '.' + methodWrapper.originalName + methodWrapper.originalDescription));
+    }
+
     @Override
     protected ExclusionType getExclusionType() {
         return ExclusionType.INVOKEDYNAMIC;
@@ -18,8 +18,9 @@
 package me.itzsomebody.radon.transformers.obfuscators.miscellaneous;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 import me.itzsomebody.radon.utils.AccessUtils;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
@@ -31,43 +32,55 @@ import org.objectweb.asm.tree.ClassNode;
  *
  * @author ItzSomebody
  */
-public class HideCode extends Transformer {
+public class HideCode extends LocalTransformer {
+    private AtomicInteger counter;
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
-            if (!AccessUtils.isSynthetic(classNode.access) && !BytecodeUtils.hasAnnotations(classNode)) {
-                classNode.access |= ACC_SYNTHETIC;
-                counter.incrementAndGet();
-            }
+    @Override
+    protected void transformClass(ClassWrapper classWrapper) {
+        ClassNode classNode = classWrapper.classNode;
 
-            classNode.methods.parallelStream().filter(methodNode ->
-                    !BytecodeUtils.hasAnnotations(methodNode)).forEach(methodNode -> {
-                boolean hidOnce = false;
-                if (!AccessUtils.isSynthetic(methodNode.access)) {
-                    methodNode.access |= ACC_SYNTHETIC;
-                    hidOnce = true;
-                }
+        if (!AccessUtils.isSynthetic(classNode.access) && !BytecodeUtils.hasAnnotations(classNode)) {
+            classNode.access |= ACC_SYNTHETIC;
+            counter.incrementAndGet();
+        }
 
-                if (!AccessUtils.isBridge(methodNode.access) && !methodNode.name.startsWith("<")) {
-                    methodNode.access |= ACC_BRIDGE;
-                    hidOnce = true;
-                }
+        classNode.methods.stream().filter(methodNode -> !BytecodeUtils.hasAnnotations(methodNode))
+                .forEach(methodNode -> {
+                    boolean hidOnce = false;
+                    if (!AccessUtils.isSynthetic(methodNode.access)) {
+                        methodNode.access |= ACC_SYNTHETIC;
+                        hidOnce = true;
+                    }
 
-                if (hidOnce)
-                    counter.incrementAndGet();
-            });
+                    if (!AccessUtils.isBridge(methodNode.access) && !methodNode.name.startsWith("<")) {
+                        methodNode.access |= ACC_BRIDGE;
+                        hidOnce = true;
+                    }
 
-            if (classNode.fields != null)
-                classNode.fields.parallelStream().filter(fieldNode -> !BytecodeUtils.hasAnnotations(fieldNode)
-                        && !AccessUtils.isSynthetic(fieldNode.access)).forEach(fieldNode -> {
-                    fieldNode.access |= ACC_SYNTHETIC;
-                    counter.incrementAndGet();
+                    if (hidOnce)
+                        counter.incrementAndGet();
                 });
-        });
 
+        if (classNode.fields != null)
+            classNode.fields.stream().filter(fieldNode -> !BytecodeUtils.hasAnnotations(fieldNode)
+                    && !AccessUtils.isSynthetic(fieldNode.access)).forEach(fieldNode -> {
+                fieldNode.access |= ACC_SYNTHETIC;
+                counter.incrementAndGet();
+            });
+    }
+
+    @Override
+    protected boolean inspectsMethods() {
+        return true;
+    }
+
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Hid %d members.", counter.get()));
     }
 
@@ -18,19 +18,21 @@
 package me.itzsomebody.radon.transformers.obfuscators.miscellaneous;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
 
 /**
  * Obfuscates lines by changing their values, or removing them entirely.
  *
  * @author ItzSomebody.
  */
-public class LineNumbers extends Transformer {
+public class LineNumbers extends LocalTransformer {
     private boolean remove;
 
     public LineNumbers(boolean remove) {
@@ -41,26 +43,33 @@ public class LineNumbers extends Transformer {
         return remove;
     }
 
+    private AtomicInteger counter;
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
 
-        this.getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.classNode.methods.parallelStream().filter(this::hasInstructions).forEach(methodNode -> {
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (insn instanceof LineNumberNode) {
-                            if (remove) {
-                                methodNode.instructions.remove(insn);
-                            } else {
-                                ((LineNumberNode) insn).line = RandomUtils.getRandomInt();
-                            }
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        MethodNode methodNode = methodWrapper.methodNode;
+        if (!hasInstructions(methodNode))
+            return;
 
-                            counter.incrementAndGet();
-                        }
-                    }
-                })
-        );
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (insn instanceof LineNumberNode) {
+                if (remove) {
+                    methodNode.instructions.remove(insn);
+                } else {
+                    ((LineNumberNode) insn).line = RandomUtils.getRandomInt();
+                }
+                counter.incrementAndGet();
+            }
+        }
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("%s %d line numbers.", (remove) ? "Removed" : "Obfuscated", counter.get()));
     }
 
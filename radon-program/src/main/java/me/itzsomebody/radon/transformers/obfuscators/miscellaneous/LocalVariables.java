@@ -18,16 +18,18 @@
 package me.itzsomebody.radon.transformers.obfuscators.miscellaneous;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 import me.itzsomebody.radon.utils.LoggerUtils;
+import org.objectweb.asm.tree.MethodNode;
 
 /**
  * Obfuscates local variable names by changing their names and descriptions, or removing them entirely.
  *
  * @author ItzSomebody
  */
-public class LocalVariables extends Transformer {
+public class LocalVariables extends LocalTransformer {
     private boolean remove;
 
     public LocalVariables(boolean remove) {
@@ -38,26 +40,32 @@ public class LocalVariables extends Transformer {
         return remove;
     }
 
+    private AtomicInteger counter;
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.classNode.methods.parallelStream().filter(methodNode ->
-                        methodNode.localVariables != null).forEach(methodNode -> {
-                    counter.addAndGet(methodNode.localVariables.size());
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        MethodNode methodNode = methodWrapper.methodNode;
+        if (methodNode.localVariables == null)
+            return;
 
-                    if (remove) {
-                        methodNode.localVariables = null;
-                    } else {
-                        methodNode.localVariables.forEach(localVariableNode -> {
-                            localVariableNode.name = randomString(4);
-                            localVariableNode.desc = "L" + localVariableNode.name + ";";
-                        });
-                    }
-                })
-        );
+        counter.addAndGet(methodNode.localVariables.size());
+        if (remove) {
+            methodNode.localVariables = null;
+        } else {
+            methodNode.localVariables.forEach(localVariableNode -> {
+                localVariableNode.name = randomString(4);
+                localVariableNode.desc = "L" + localVariableNode.name + ";";
+            });
+        }
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("%s %d local variables.", (remove) ? "Removed" : "Obfuscated", counter.get()));
     }
 
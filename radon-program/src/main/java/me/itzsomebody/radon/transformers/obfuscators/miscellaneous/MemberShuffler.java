@@ -19,27 +19,40 @@ package me.itzsomebody.radon.transformers.obfuscators.miscellaneous;
 
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 import me.itzsomebody.radon.utils.LoggerUtils;
 
 /**
  * Randomizes the order of methods and fields in a class.
  */
-public class MemberShuffler extends Transformer {
+public class MemberShuffler extends LocalTransformer {
+    private AtomicInteger counter;
+
+    @Override
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
+
+    @Override
+    protected void transformClass(ClassWrapper classWrapper) {
+        Collections.shuffle(classWrapper.classNode.methods);
+        counter.addAndGet(classWrapper.classNode.methods.size());
+
+        if (classWrapper.classNode.fields != null) {
+            Collections.shuffle(classWrapper.classNode.fields);
+            counter.addAndGet(classWrapper.classNode.fields.size());
+        }
+    }
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
-
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
-            Collections.shuffle(classWrapper.classNode.methods);
-            counter.addAndGet(classWrapper.classNode.methods.size());
-            if (classWrapper.classNode.fields != null) {
-                Collections.shuffle(classWrapper.classNode.fields);
-                counter.addAndGet(classWrapper.classNode.fields.size());
-            }
-        });
+    protected boolean inspectsMethods() {
+        return true;
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Shuffled %d members.", counter.get()));
     }
 
@@ -18,8 +18,9 @@
 package me.itzsomebody.radon.transformers.obfuscators.miscellaneous;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 import me.itzsomebody.radon.utils.LoggerUtils;
 
 /**
@@ -27,7 +28,7 @@ import me.itzsomebody.radon.utils.LoggerUtils;
  *
  * @author ItzSomebody
  */
-public class SourceName extends Transformer {
+public class SourceName extends LocalTransformer {
     private boolean remove;
 
     public SourceName(boolean remove) {
@@ -38,16 +39,23 @@ public class SourceName extends Transformer {
         return remove;
     }
 
+    private AtomicInteger counter;
+    private String newName;
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
+    protected void begin() {
+        counter = new AtomicInteger();
+        newName = (remove) ? null : randomString(4) + ".java";
+    }
 
-        String newName = (remove) ? null : randomString(4) + ".java";
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
-            classWrapper.classNode.sourceFile = newName;
-            counter.incrementAndGet();
-        });
+    @Override
+    protected void transformClass(ClassWrapper classWrapper) {
+        classWrapper.classNode.sourceFile = newName;
+        counter.incrementAndGet();
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("%s %d source name attributes.", (remove) ? "Removed" : "Obfuscated",
                 counter.get()));
     }
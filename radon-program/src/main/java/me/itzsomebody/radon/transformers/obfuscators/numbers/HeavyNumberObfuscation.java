@@ -19,184 +19,171 @@ package me.itzsomebody.radon.transformers.obfuscators.numbers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.ConstantHoister;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 import me.itzsomebody.radon.utils.StringUtils;
-import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
-import org.objectweb.asm.tree.TypeInsnNode;
 
 /**
  * This transformer uses a two-layer approach at attempting to obscure numbers. First, it encodes the constant in
- * a special way, then it applies a bitwise obfuscation on top of that. Be careful with this as it can make some
- * programs really slow.
+ * a special way, then it applies a bitwise obfuscation on top of that. Every primitive type has its own decoder which
+ * neither boxes nor allocates, so the JIT can inline the decoder and fold the constant back.
  *
  * @author ItzSomebody
  */
 public class HeavyNumberObfuscation extends NumberObfuscation {
+    private MemberNames memberNames;
+    private AtomicInteger counter;
+    private AtomicInteger hoisted;
+
     @Override
-    public void transform() {
-        MemberNames memberNames = new MemberNames();
-        AtomicInteger counter = new AtomicInteger();
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
-                    int leeway = getSizeLeeway(methodNode);
-
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (leeway < 10000)
-                            break;
-                        if (BytecodeUtils.isIntInsn(insn)) {
-                            int originalNum = BytecodeUtils.getIntegerFromInsn(insn);
-                            int encodedInt = encodeInt(originalNum, methodNode.name.hashCode());
-
-                            int value1 = RandomUtils.getRandomInt();
-                            int value2 = encodedInt ^ value1;
-
-                            InsnList insnList = new InsnList();
-                            insnList.add(BytecodeUtils.getNumberInsn(value1));
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
-                            insnList.add(new InsnNode(SWAP));
-                            insnList.add(new InsnNode(DUP_X1));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(BytecodeUtils.getNumberInsn(value2));
-                            insnList.add(new InsnNode(IXOR));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false));
-                            insnList.add(new InsnNode(ICONST_0));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className, memberNames.decodeConstantMethodName, "(Ljava/lang/Object;I)Ljava/lang/Object;", false));
-                            insnList.add(new TypeInsnNode(CHECKCAST, "java/lang/Integer"));
-                            insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false));
-
-                            methodNode.instructions.insertBefore(insn, insnList);
-                            methodNode.instructions.remove(insn);
-                            leeway -= 20;
-                            counter.incrementAndGet();
-                        } else if (BytecodeUtils.isLongInsn(insn)) {
-                            long originalNum = BytecodeUtils.getLongFromInsn(insn);
-                            long encodedLong = encodeLong(originalNum, methodNode.name.hashCode());
-
-                            long value1 = RandomUtils.getRandomLong();
-                            long value2 = encodedLong ^ value1;
-
-                            InsnList insnList = new InsnList();
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomLong()));
-                            insnList.add(BytecodeUtils.getNumberInsn(value1));
-                            insnList.add(new InsnNode(DUP2_X2));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(BytecodeUtils.getNumberInsn(value2));
-                            insnList.add(new InsnNode(LXOR));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;", false));
-                            insnList.add(new InsnNode(ICONST_0));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className, memberNames.decodeConstantMethodName, "(Ljava/lang/Object;I)Ljava/lang/Object;", false));
-                            insnList.add(new TypeInsnNode(CHECKCAST, "java/lang/Long"));
-                            insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "java/lang/Long", "longValue", "()J", false));
-
-                            methodNode.instructions.insertBefore(insn, insnList);
-                            methodNode.instructions.remove(insn);
-                            leeway -= 25;
-                            counter.incrementAndGet();
-                        } else if (BytecodeUtils.isFloatInsn(insn)) {
-                            float originalNum = BytecodeUtils.getFloatFromInsn(insn);
-                            int encodedFloat = encodeFloat(originalNum, methodNode.name.hashCode());
-
-                            int value1 = RandomUtils.getRandomInt();
-                            int value2 = encodedFloat ^ value1;
-
-                            InsnList insnList = new InsnList();
-                            insnList.add(BytecodeUtils.getNumberInsn(value1));
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
-                            insnList.add(new InsnNode(SWAP));
-                            insnList.add(new InsnNode(DUP_X1));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(BytecodeUtils.getNumberInsn(value2));
-                            insnList.add(new InsnNode(IXOR));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false));
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className, memberNames.decodeConstantMethodName, "(Ljava/lang/Object;I)Ljava/lang/Object;", false));
-                            insnList.add(new TypeInsnNode(CHECKCAST, "java/lang/Float"));
-                            insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "java/lang/Float", "floatValue", "()F", false));
-
-                            methodNode.instructions.insertBefore(insn, insnList);
-                            methodNode.instructions.remove(insn);
-
-                            leeway -= 20;
-                        } else if (BytecodeUtils.isDoubleInsn(insn)) {
-                            double originalNum = BytecodeUtils.getDoubleFromInsn(insn);
-                            long encodedLong = encodeDouble(originalNum, methodNode.name.hashCode());
-
-                            long value1 = RandomUtils.getRandomLong();
-                            long value2 = encodedLong ^ value1;
-
-                            InsnList insnList = new InsnList();
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomLong()));
-                            insnList.add(BytecodeUtils.getNumberInsn(value1));
-                            insnList.add(new InsnNode(DUP2_X2));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(BytecodeUtils.getNumberInsn(value2));
-                            insnList.add(new InsnNode(LXOR));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;", false));
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
-                            insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className, memberNames.decodeConstantMethodName, "(Ljava/lang/Object;I)Ljava/lang/Object;", false));
-                            insnList.add(new TypeInsnNode(CHECKCAST, "java/lang/Double"));
-                            insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "java/lang/Double", "doubleValue", "()D", false));
-
-                            methodNode.instructions.insertBefore(insn, insnList);
-                            methodNode.instructions.remove(insn);
-                            leeway -= 25;
-                        }
-                    }
-                })
-        );
-        ClassNode decoder = createConstantDecoder(memberNames);
-        getClasses().put(decoder.name, new ClassWrapper(decoder, false));
-        LoggerUtils.stdOut(String.format("Obfuscated %d numbers.", counter.get()));
+    protected void begin() {
+        memberNames = new MemberNames();
+        counter = new AtomicInteger();
+        hoisted = new AtomicInteger();
     }
 
-    private static int encodeInt(int n, int hashCode) {
-        int xorVal = n ^ hashCode;
-        int[] arr = new int[4];
-        for (int i = 0; i < 4; i++) {
-            arr[i] = (xorVal >>> (i * 8)) & 0xFF;
-        }
-        int value = 0;
-        for (int i = 0; i < arr.length; i++) {
-            value |= arr[i] << (i * 8);
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (excluded(methodWrapper) || !hasInstructions(methodWrapper.methodNode))
+            return;
+
+        MethodNode methodNode = methodWrapper.methodNode;
+        int leeway = getSizeLeeway(methodNode);
+        ConstantHoister hoister = new ConstantHoister(methodWrapper.owner.classNode.name, methodNode);
+
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (leeway < 10000)
+                break;
+            if (BytecodeUtils.isIntInsn(insn)) {
+                int originalNum = BytecodeUtils.getIntegerFromInsn(insn);
+                int key = RandomUtils.getRandomInt();
+                int encodedInt = encodeInt(originalNum, key);
+
+                int value1 = RandomUtils.getRandomInt();
+                int value2 = encodedInt ^ value1;
+
+                InsnList insnList = new InsnList();
+                insnList.add(BytecodeUtils.getNumberInsn(value1));
+                insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
+                insnList.add(new InsnNode(SWAP));
+                insnList.add(new InsnNode(DUP_X1));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(BytecodeUtils.getNumberInsn(value2));
+                insnList.add(new InsnNode(IXOR));
+                insnList.add(BytecodeUtils.getNumberInsn(key));
+                insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className,
+                        memberNames.decodeIntMethodName, "(II)I", false));
+
+                hoister.replace(insn, insnList, Type.INT_TYPE);
+                leeway -= 20;
+                counter.incrementAndGet();
+            } else if (BytecodeUtils.isLongInsn(insn)) {
+                long originalNum = BytecodeUtils.getLongFromInsn(insn);
+                int key = RandomUtils.getRandomInt();
+                long encodedLong = encodeLong(originalNum, key);
+
+                long value1 = RandomUtils.getRandomLong();
+                long value2 = encodedLong ^ value1;
+
+                InsnList insnList = new InsnList();
+                insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomLong()));
+                insnList.add(BytecodeUtils.getNumberInsn(value1));
+                insnList.add(new InsnNode(DUP2_X2));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(BytecodeUtils.getNumberInsn(value2));
+                insnList.add(new InsnNode(LXOR));
+                insnList.add(BytecodeUtils.getNumberInsn(key));
+                insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className,
+                        memberNames.decodeLongMethodName, "(JI)J", false));
+
+                hoister.replace(insn, insnList, Type.LONG_TYPE);
+                leeway -= 25;
+                counter.incrementAndGet();
+            } else if (BytecodeUtils.isFloatInsn(insn)) {
+                float originalNum = BytecodeUtils.getFloatFromInsn(insn);
+                int key = RandomUtils.getRandomInt();
+                int encodedFloat = encodeFloat(originalNum, key);
+
+                int value1 = RandomUtils.getRandomInt();
+                int value2 = encodedFloat ^ value1;
+
+                InsnList insnList = new InsnList();
+                insnList.add(BytecodeUtils.getNumberInsn(value1));
+                insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
+                insnList.add(new InsnNode(SWAP));
+                insnList.add(new InsnNode(DUP_X1));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(BytecodeUtils.getNumberInsn(value2));
+                insnList.add(new InsnNode(IXOR));
+                insnList.add(BytecodeUtils.getNumberInsn(key));
+                insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className,
+                        memberNames.decodeFloatMethodName, "(II)F", false));
+
+                hoister.replace(insn, insnList, Type.FLOAT_TYPE);
+
+                leeway -= 20;
+            } else if (BytecodeUtils.isDoubleInsn(insn)) {
+                double originalNum = BytecodeUtils.getDoubleFromInsn(insn);
+                int key = RandomUtils.getRandomInt();
+                long encodedLong = encodeDouble(originalNum, key);
+
+                long value1 = RandomUtils.getRandomLong();
+                long value2 = encodedLong ^ value1;
+
+                InsnList insnList = new InsnList();
+                insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomLong()));
+                insnList.add(BytecodeUtils.getNumberInsn(value1));
+                insnList.add(new InsnNode(DUP2_X2));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(BytecodeUtils.getNumberInsn(value2));
+                insnList.add(new InsnNode(LXOR));
+                insnList.add(BytecodeUtils.getNumberInsn(key));
+                insnList.add(new MethodInsnNode(INVOKESTATIC, memberNames.className,
+                        memberNames.decodeDoubleMethodName, "(JI)D", false));
+
+                hoister.replace(insn, insnList, Type.DOUBLE_TYPE);
+                leeway -= 25;
+            }
         }
-        return value;
+        hoisted.addAndGet(hoister.apply());
     }
 
-    private static int encodeFloat(float f, int hashCode) {
-        return encodeInt(Float.floatToIntBits(f), hashCode);
+    @Override
+    protected void end() {
+        ClassNode decoder = createConstantDecoder(memberNames);
+        getClasses().put(decoder.name, new ClassWrapper(decoder, false));
+        LoggerUtils.stdOut(String.format("Obfuscated %d numbers, hoisted %d out of loops.", counter.get(),
+                hoisted.get()));
     }
 
-    private static long encodeLong(long n, int hashCode) {
-        long xorVal = n ^ hashCode;
-        long[] arr = new long[8];
-        for (int i = 0; i < 8; i++) {
-            arr[i] = (xorVal >>> (i * 8)) & 0xFF;
-        }
-        long value = 0;
-        for (int i = 0; i < arr.length; i++) {
-            value |= arr[i] << (i * 8);
-        }
+    private static int encodeInt(int n, int key) {
+        return Integer.rotateLeft(n ^ key, key);
+    }
+
+    private static int encodeFloat(float f, int key) {
+        return encodeInt(Float.floatToIntBits(f), key);
+    }
 
-        return value;
+    private static long encodeLong(long n, int key) {
+        return Long.rotateLeft(n ^ key, key);
     }
 
-    private static long encodeDouble(double d, int hashCode) {
-        return encodeLong(Double.doubleToLongBits(d), hashCode);
+    private static long encodeDouble(double d, int key) {
+        return encodeLong(Double.doubleToLongBits(d), key);
     }
 
     @Override
@@ -207,33 +194,16 @@ public class HeavyNumberObfuscation extends NumberObfuscation {
     private static ClassNode createConstantDecoder(MemberNames memberNames) {
         ClassNode cw = new ClassNode();
         MethodVisitor mv;
-        FieldVisitor fv;
 
-        cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, "java/lang/Thread", null);
+        cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, "java/lang/Object", null);
 
-        {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_VOLATILE, memberNames.constantFieldName, "Ljava/lang/Object;", null, null);
-            fv.visitEnd();
-        }
-        {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_VOLATILE, memberNames.indicatorFieldName, "Ljava/lang/Object;", null, null);
-            fv.visitEnd();
-        }
-        {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.elementFieldName, "Ljava/lang/StackTraceElement;", null, null);
-            fv.visitEnd();
-        }
-        {
-            fv = cw.visitField(ACC_PRIVATE + ACC_FINAL + ACC_STATIC, memberNames.indexFieldName, "I", null, null);
-            fv.visitEnd();
-        }
         {
             mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Thread", "<init>", "()V", false);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
             mv.visitInsn(RETURN);
             Label l1 = new Label();
             mv.visitLabel(l1);
@@ -241,378 +211,50 @@ public class HeavyNumberObfuscation extends NumberObfuscation {
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.threadStarterMethodName, "()V", null, null);
-            mv.visitCode();
-            Label l0 = new Label();
-            Label l1 = new Label();
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitTypeInsn(NEW, memberNames.className);
-            mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, memberNames.className, "<init>", "()V", false);
-            mv.visitVarInsn(ASTORE, 0);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "start", "()V", false);
-            mv.visitLabel(l0);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "join", "()V", false);
-            mv.visitLabel(l1);
-            mv.visitInsn(RETURN);
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitMaxs(2, 2);
-            mv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_PUBLIC, "run", "()V", null, null);
-            mv.visitCode();
-            Label l0 = new Label();
-            Label l1 = new Label();
-            Label l2 = new Label();
-            mv.visitTryCatchBlock(l0, l1, l2, "java/lang/Throwable");
-            mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitTypeInsn(INSTANCEOF, "java/lang/Integer");
-            Label l3 = new Label();
-            mv.visitJumpInsn(IFEQ, l3);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indicatorFieldName, "Ljava/lang/Object;");
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            Label l5 = new Label();
-            mv.visitJumpInsn(IFNE, l5);
-            Label l6 = new Label();
-            mv.visitLabel(l6);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decodeWordMethodName, "()I", false);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.elementFieldName, "Ljava/lang/StackTraceElement;");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitInsn(IXOR);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            Label l7 = new Label();
-            mv.visitJumpInsn(GOTO, l7);
-            mv.visitLabel(l5);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decodeWordMethodName, "()I", false);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.elementFieldName, "Ljava/lang/StackTraceElement;");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitInsn(IXOR);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "valueOf", "(F)Ljava/lang/Float;", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitLabel(l7);
-            mv.visitTypeInsn(NEW, "java/lang/NullPointerException");
-            mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/NullPointerException", "<init>", "()V", false);
-            mv.visitInsn(ATHROW);
-            mv.visitLabel(l3);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitTypeInsn(INSTANCEOF, "java/lang/Long");
-            mv.visitJumpInsn(IFEQ, l1);
-            Label l8 = new Label();
-            mv.visitLabel(l8);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indicatorFieldName, "Ljava/lang/Object;");
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            Label l9 = new Label();
-            mv.visitJumpInsn(IFNE, l9);
-            Label l10 = new Label();
-            mv.visitLabel(l10);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decodeDwordMethodName, "()J", false);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.elementFieldName, "Ljava/lang/StackTraceElement;");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitInsn(I2L);
-            mv.visitInsn(LXOR);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            Label l11 = new Label();
-            mv.visitJumpInsn(GOTO, l11);
-            mv.visitLabel(l9);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decodeDwordMethodName, "()J", false);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.elementFieldName, "Ljava/lang/StackTraceElement;");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitInsn(I2L);
-            mv.visitInsn(LXOR);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "valueOf", "(D)Ljava/lang/Double;", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitLabel(l11);
-            mv.visitTypeInsn(NEW, "java/lang/NullPointerException");
-            mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/NullPointerException", "<init>", "()V", false);
-            mv.visitInsn(ATHROW);
-            mv.visitLabel(l1);
-            Label l12 = new Label();
-            mv.visitJumpInsn(GOTO, l12);
-            mv.visitLabel(l2);
-            mv.visitVarInsn(ASTORE, 1);
-            Label l13 = new Label();
-            mv.visitLabel(l13);
-            mv.visitInsn(RETURN);
-            mv.visitLabel(l12);
-            mv.visitInsn(RETURN);
-            Label l14 = new Label();
-            mv.visitLabel(l14);
-            mv.visitMaxs(4, 2);
-            mv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.decodeWordMethodName, "()I", null, null);
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decodeIntMethodName, "(II)I", null, null);
             mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(ICONST_1);
-            mv.visitInsn(ISHL);
-            mv.visitIntInsn(NEWARRAY, T_INT);
-            mv.visitVarInsn(ASTORE, 1);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ISTORE, 2);
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitVarInsn(ILOAD, 2);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(IMUL);
-            Label l4 = new Label();
-            mv.visitJumpInsn(IF_ICMPGE, l4);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitVarInsn(ILOAD, 2);
             mv.visitVarInsn(ILOAD, 0);
-            mv.visitVarInsn(ILOAD, 2);
-            mv.visitIntInsn(BIPUSH, 8);
-            mv.visitInsn(IMUL);
-            mv.visitInsn(ISHR);
-            mv.visitIntInsn(SIPUSH, 255);
-            mv.visitInsn(IAND);
-            mv.visitInsn(IASTORE);
-            Label l6 = new Label();
-            mv.visitLabel(l6);
-            mv.visitIincInsn(2, 1);
-            mv.visitJumpInsn(GOTO, l3);
-            mv.visitLabel(l4);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ISTORE, 2);
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ISTORE, 3);
-            Label l8 = new Label();
-            mv.visitLabel(l8);
-            mv.visitVarInsn(ILOAD, 3);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitInsn(ARRAYLENGTH);
-            Label l9 = new Label();
-            mv.visitJumpInsn(IF_ICMPGE, l9);
-            Label l10 = new Label();
-            mv.visitLabel(l10);
-            mv.visitVarInsn(ILOAD, 2);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitVarInsn(ILOAD, 3);
-            mv.visitInsn(IALOAD);
-            mv.visitVarInsn(ILOAD, 3);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(ISHL);
-            mv.visitInsn(IMUL);
-            mv.visitInsn(ISHL);
-            mv.visitInsn(IOR);
-            mv.visitVarInsn(ISTORE, 2);
-            Label l11 = new Label();
-            mv.visitLabel(l11);
-            mv.visitIincInsn(3, 1);
-            mv.visitJumpInsn(GOTO, l8);
-            mv.visitLabel(l9);
-            mv.visitVarInsn(ILOAD, 2);
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "rotateRight", "(II)I", false);
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitInsn(IXOR);
             mv.visitInsn(IRETURN);
-            Label l12 = new Label();
-            mv.visitLabel(l12);
-            mv.visitMaxs(5, 4);
+            mv.visitMaxs(2, 2);
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.decodeDwordMethodName, "()J", null, null);
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decodeLongMethodName, "(JI)J", null, null);
             mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Long");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Long", "longValue", "()J", false);
-            mv.visitVarInsn(LSTORE, 0);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(ISHL);
-            mv.visitIntInsn(NEWARRAY, T_LONG);
-            mv.visitVarInsn(ASTORE, 2);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ISTORE, 3);
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitVarInsn(ILOAD, 3);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(ICONST_4);
-            mv.visitInsn(IMUL);
-            Label l4 = new Label();
-            mv.visitJumpInsn(IF_ICMPGE, l4);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitVarInsn(ILOAD, 3);
             mv.visitVarInsn(LLOAD, 0);
-            mv.visitVarInsn(ILOAD, 3);
-            mv.visitIntInsn(BIPUSH, 8);
-            mv.visitInsn(IMUL);
-            mv.visitInsn(LSHR);
-            mv.visitLdcInsn(255L);
-            mv.visitInsn(LAND);
-            mv.visitInsn(LASTORE);
-            Label l6 = new Label();
-            mv.visitLabel(l6);
-            mv.visitIincInsn(3, 1);
-            mv.visitJumpInsn(GOTO, l3);
-            mv.visitLabel(l4);
-            mv.visitInsn(LCONST_0);
-            mv.visitVarInsn(LSTORE, 3);
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ISTORE, 5);
-            Label l8 = new Label();
-            mv.visitLabel(l8);
-            mv.visitVarInsn(ILOAD, 5);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitInsn(ARRAYLENGTH);
-            Label l9 = new Label();
-            mv.visitJumpInsn(IF_ICMPGE, l9);
-            Label l10 = new Label();
-            mv.visitLabel(l10);
-            mv.visitVarInsn(LLOAD, 3);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitVarInsn(ILOAD, 5);
-            mv.visitInsn(LALOAD);
-            mv.visitVarInsn(ILOAD, 5);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(ISHL);
-            mv.visitInsn(IMUL);
-            mv.visitInsn(LSHL);
-            mv.visitInsn(LOR);
-            mv.visitVarInsn(LSTORE, 3);
-            Label l11 = new Label();
-            mv.visitLabel(l11);
-            mv.visitIincInsn(5, 1);
-            mv.visitJumpInsn(GOTO, l8);
-            mv.visitLabel(l9);
-            mv.visitVarInsn(LLOAD, 3);
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "rotateRight", "(JI)J", false);
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitInsn(I2L);
+            mv.visitInsn(LXOR);
             mv.visitInsn(LRETURN);
-            Label l12 = new Label();
-            mv.visitLabel(l12);
-            mv.visitMaxs(7, 6);
+            mv.visitMaxs(4, 3);
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decodeConstantMethodName, "(Ljava/lang/Object;I)Ljava/lang/Object;", null, null);
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decodeFloatMethodName, "(II)F", null, null);
             mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace", "()[Ljava/lang/StackTraceElement;", false);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            mv.visitInsn(AALOAD);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.elementFieldName, "Ljava/lang/StackTraceElement;");
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            Label l2 = new Label();
-            mv.visitLabel(l2);
+            mv.visitVarInsn(ILOAD, 0);
             mv.visitVarInsn(ILOAD, 1);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.indicatorFieldName, "Ljava/lang/Object;");
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.threadStarterMethodName, "()V", false);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.constantFieldName, "Ljava/lang/Object;");
-            mv.visitInsn(ARETURN);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
+            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decodeIntMethodName, "(II)I", false);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false);
+            mv.visitInsn(FRETURN);
             mv.visitMaxs(2, 2);
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decodeDoubleMethodName, "(JI)D", null, null);
             mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitMethodInsn(INVOKESTATIC, "java/util/concurrent/ThreadLocalRandom", "current", "()Ljava/util/concurrent/ThreadLocalRandom;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ThreadLocalRandom", "nextInt", "()I", false);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitVarInsn(ILOAD, 0);
-            mv.visitInsn(ICONST_4);
-            mv.visitInsn(IUSHR);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitVarInsn(ILOAD, 0);
-            mv.visitIntInsn(SIPUSH, 255);
-            mv.visitInsn(IAND);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitVarInsn(ILOAD, 0);
-            mv.visitInsn(ICONST_3);
-            mv.visitInsn(IREM);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitVarInsn(ILOAD, 0);
-            mv.visitLdcInsn("000010");
-            mv.visitInsn(ICONST_2);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(Ljava/lang/String;I)Ljava/lang/Integer;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitInsn(IOR);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
-            mv.visitVarInsn(ILOAD, 0);
-            mv.visitLdcInsn("000010");
-            mv.visitInsn(ICONST_2);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(Ljava/lang/String;I)Ljava/lang/Integer;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitInsn(IAND);
-            mv.visitVarInsn(ISTORE, 0);
-            Label l6 = new Label();
-            mv.visitLabel(l6);
-            mv.visitVarInsn(ILOAD, 0);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.indexFieldName, "I");
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitInsn(RETURN);
-            mv.visitMaxs(3, 1);
+            mv.visitVarInsn(LLOAD, 0);
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.decodeLongMethodName, "(JI)J", false);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false);
+            mv.visitInsn(DRETURN);
+            mv.visitMaxs(3, 3);
             mv.visitEnd();
         }
         cw.visitEnd();
@@ -622,25 +264,17 @@ public class HeavyNumberObfuscation extends NumberObfuscation {
 
     private class MemberNames {
         private String className;
-        private String constantFieldName;
-        private String indicatorFieldName;
-        private String elementFieldName;
-        private String indexFieldName;
-        private String threadStarterMethodName;
-        private String decodeWordMethodName;
-        private String decodeDwordMethodName;
-        private String decodeConstantMethodName;
+        private String decodeIntMethodName;
+        private String decodeLongMethodName;
+        private String decodeFloatMethodName;
+        private String decodeDoubleMethodName;
 
         private MemberNames() {
             this.className = StringUtils.randomClassName(getClasses().keySet());
-            this.constantFieldName = randomString(4);
-            this.indicatorFieldName = randomString(4);
-            this.elementFieldName = randomString(4);
-            this.indexFieldName = randomString(4);
-            this.threadStarterMethodName = randomString(4);
-            this.decodeWordMethodName = randomString(4);
-            this.decodeDwordMethodName = randomString(4);
-            this.decodeConstantMethodName = randomString(4);
+            this.decodeIntMethodName = randomString(4);
+            this.decodeLongMethodName = randomString(4);
+            this.decodeFloatMethodName = randomString(4);
+            this.decodeDoubleMethodName = randomString(4);
         }
     }
 }
@@ -18,6 +18,7 @@
 package me.itzsomebody.radon.transformers.obfuscators.numbers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
@@ -32,58 +33,66 @@ import org.objectweb.asm.tree.MethodNode;
  * @author ItzSomebody
  */
 public class LightNumberObfuscation extends NumberObfuscation {
+    private AtomicInteger counter;
+
+    @Override
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
-                    int leeway = getSizeLeeway(methodNode);
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (excluded(methodWrapper) || !hasInstructions(methodWrapper.methodNode))
+            return;
 
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (leeway < 10000)
-                            break;
-                        if (BytecodeUtils.isIntInsn(insn)) {
-                            int originalNum = BytecodeUtils.getIntegerFromInsn(insn);
-                            int value1 = RandomUtils.getRandomInt();
-                            int value2 = originalNum ^ value1;
+        MethodNode methodNode = methodWrapper.methodNode;
+        int leeway = getSizeLeeway(methodNode);
 
-                            InsnList insnList = new InsnList();
-                            insnList.add(BytecodeUtils.getNumberInsn(value1));
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
-                            insnList.add(new InsnNode(SWAP));
-                            insnList.add(new InsnNode(DUP_X1));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(BytecodeUtils.getNumberInsn(value2));
-                            insnList.add(new InsnNode(IXOR));
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (leeway < 10000)
+                break;
+            if (BytecodeUtils.isIntInsn(insn)) {
+                int originalNum = BytecodeUtils.getIntegerFromInsn(insn);
+                int value1 = RandomUtils.getRandomInt();
+                int value2 = originalNum ^ value1;
 
-                            methodNode.instructions.insertBefore(insn, insnList);
-                            methodNode.instructions.remove(insn);
-                            leeway -= 10;
-                            counter.incrementAndGet();
-                        } else if (BytecodeUtils.isLongInsn(insn)) {
-                            long originalNum = BytecodeUtils.getLongFromInsn(insn);
-                            long value1 = RandomUtils.getRandomLong();
-                            long value2 = originalNum ^ value1;
+                InsnList insnList = new InsnList();
+                insnList.add(BytecodeUtils.getNumberInsn(value1));
+                insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomInt()));
+                insnList.add(new InsnNode(SWAP));
+                insnList.add(new InsnNode(DUP_X1));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(BytecodeUtils.getNumberInsn(value2));
+                insnList.add(new InsnNode(IXOR));
 
-                            InsnList insnList = new InsnList();
-                            insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomLong()));
-                            insnList.add(BytecodeUtils.getNumberInsn(value1));
-                            insnList.add(new InsnNode(DUP2_X2));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(new InsnNode(POP2));
-                            insnList.add(BytecodeUtils.getNumberInsn(value2));
-                            insnList.add(new InsnNode(LXOR));
+                methodNode.instructions.insertBefore(insn, insnList);
+                methodNode.instructions.remove(insn);
+                leeway -= 10;
+                counter.incrementAndGet();
+            } else if (BytecodeUtils.isLongInsn(insn)) {
+                long originalNum = BytecodeUtils.getLongFromInsn(insn);
+                long value1 = RandomUtils.getRandomLong();
+                long value2 = originalNum ^ value1;
 
-                            methodNode.instructions.insertBefore(insn, insnList);
-                            methodNode.instructions.remove(insn);
-                            leeway -= 15;
-                            counter.incrementAndGet();
-                        }
-                    }
-                })
-        );
+                InsnList insnList = new InsnList();
+                insnList.add(BytecodeUtils.getNumberInsn(RandomUtils.getRandomLong()));
+                insnList.add(BytecodeUtils.getNumberInsn(value1));
+                insnList.add(new InsnNode(DUP2_X2));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(new InsnNode(POP2));
+                insnList.add(BytecodeUtils.getNumberInsn(value2));
+                insnList.add(new InsnNode(LXOR));
+
+                methodNode.instructions.insertBefore(insn, insnList);
+                methodNode.instructions.remove(insn);
+                leeway -= 15;
+                counter.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Split %d numbers into bitwise xor instructions.", counter.get()));
     }
 
@@ -18,6 +18,7 @@
 package me.itzsomebody.radon.transformers.obfuscators.numbers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
@@ -32,145 +33,152 @@ import org.objectweb.asm.tree.MethodNode;
  * @author ItzSomebody
  */
 public class NormalNumberObfuscation extends NumberObfuscation {
+    private AtomicInteger counter;
+
+    @Override
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
-                    int leeway = getSizeLeeway(methodNode);
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (excluded(methodWrapper) || !hasInstructions(methodWrapper.methodNode))
+            return;
 
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (leeway < 10000)
-                            break;
-                        if (BytecodeUtils.isIntInsn(insn)) {
-                            int originalNum = BytecodeUtils.getIntegerFromInsn(insn);
-                            switch (RandomUtils.getRandomInt(3)) {
-                                case 0: {
-                                    int value1 = RandomUtils.getRandomInt(255) + 20;
-                                    int value2 = RandomUtils.getRandomInt(value1) + value1;
-                                    int value3 = originalNum - value1 + value2; // You kids say algebra is useless???
-                                    InsnList insnList = new InsnList();
-                                    insnList.add(BytecodeUtils.getNumberInsn(value1));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value2));
-                                    insnList.add(new InsnNode(ISUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value3));
-                                    insnList.add(new InsnNode(IADD));
-                                    methodNode.instructions.insertBefore(insn, insnList);
-                                    methodNode.instructions.remove(insn);
-                                    leeway -= 8;
-                                    counter.incrementAndGet();
-                                    break;
-                                }
-                                case 1: {
-                                    int value1 = RandomUtils.getRandomInt(255) + 20;
-                                    int value2 = RandomUtils.getRandomInt(value1) + value1;
-                                    int value3 = RandomUtils.getRandomInt(value2 + 1);
-                                    int value4 = originalNum - value1 + value2 - value3;
-                                    InsnList insnList = new InsnList();
-                                    insnList.add(BytecodeUtils.getNumberInsn(value1));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value2));
-                                    insnList.add(new InsnNode(ISUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value3));
-                                    insnList.add(new InsnNode(IADD));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value4));
-                                    insnList.add(new InsnNode(IADD));
-                                    methodNode.instructions.insertBefore(insn, insnList);
-                                    methodNode.instructions.remove(insn);
-                                    leeway -= 10;
-                                    counter.incrementAndGet();
-                                    break;
-                                }
-                                case 2: {
-                                    int value1 = RandomUtils.getRandomInt(255) + 20;
-                                    int value2 = RandomUtils.getRandomInt(value1) + value1;
-                                    int value3 = RandomUtils.getRandomInt(value2 + 1);
-                                    int value4 = RandomUtils.getRandomInt(value3 + 1);
-                                    int value5 = originalNum - value1 + value2 - value3 + value4;
-                                    InsnList insnList = new InsnList();
-                                    insnList.add(BytecodeUtils.getNumberInsn(value1));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value2));
-                                    insnList.add(new InsnNode(ISUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value3));
-                                    insnList.add(new InsnNode(IADD));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value4));
-                                    insnList.add(new InsnNode(ISUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value5));
-                                    insnList.add(new InsnNode(IADD));
-                                    methodNode.instructions.insertBefore(insn, insnList);
-                                    methodNode.instructions.remove(insn);
-                                    leeway -= 12;
-                                    counter.incrementAndGet();
-                                    break;
-                                }
-                            }
-                        } else if (BytecodeUtils.isLongInsn(insn)) {
-                            long originalNum = BytecodeUtils.getLongFromInsn(insn);
-                            switch (RandomUtils.getRandomInt(3)) {
-                                case 0: {
-                                    long value1 = RandomUtils.getRandomLong(255) + 20;
-                                    long value2 = RandomUtils.getRandomLong(value1) + value1;
-                                    long value3 = originalNum - value1 + value2;
-                                    InsnList insnList = new InsnList();
-                                    insnList.add(BytecodeUtils.getNumberInsn(value1));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value2));
-                                    insnList.add(new InsnNode(LSUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value3));
-                                    insnList.add(new InsnNode(LADD));
-                                    methodNode.instructions.insertBefore(insn, insnList);
-                                    methodNode.instructions.remove(insn);
-                                    leeway -= 15;
-                                    counter.incrementAndGet();
-                                    break;
-                                }
-                                case 1: {
-                                    long value1 = RandomUtils.getRandomInt(255) + 20;
-                                    long value2 = RandomUtils.getRandomInt((int) value1) + value1;
-                                    long value3 = RandomUtils.getRandomInt((int) (value2 + 1));
-                                    long value4 = originalNum - value1 + value2 - value3;
-                                    InsnList insnList = new InsnList();
-                                    insnList.add(BytecodeUtils.getNumberInsn(value1));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value2));
-                                    insnList.add(new InsnNode(LSUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value3));
-                                    insnList.add(new InsnNode(LADD));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value4));
-                                    insnList.add(new InsnNode(LADD));
-                                    methodNode.instructions.insertBefore(insn, insnList);
-                                    methodNode.instructions.remove(insn);
-                                    leeway -= 17;
-                                    counter.incrementAndGet();
-                                    break;
-                                }
-                                case 2: {
-                                    long value1 = RandomUtils.getRandomInt(255) + 20;
-                                    long value2 = RandomUtils.getRandomInt((int) value1) + value1;
-                                    long value3 = RandomUtils.getRandomInt((int) (value2 + 1));
-                                    long value4 = RandomUtils.getRandomInt((int) (value3 + 1));
-                                    long value5 = originalNum - value1 + value2 - value3 + value4;
-                                    InsnList insnList = new InsnList();
-                                    insnList.add(BytecodeUtils.getNumberInsn(value1));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value2));
-                                    insnList.add(new InsnNode(LSUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value3));
-                                    insnList.add(new InsnNode(LADD));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value4));
-                                    insnList.add(new InsnNode(LSUB));
-                                    insnList.add(BytecodeUtils.getNumberInsn(value5));
-                                    insnList.add(new InsnNode(LADD));
-                                    methodNode.instructions.insertBefore(insn, insnList);
-                                    methodNode.instructions.remove(insn);
-                                    leeway -= 20;
-                                    counter.incrementAndGet();
-                                    break;
-                                }
-                            }
-                        }
+        MethodNode methodNode = methodWrapper.methodNode;
+        int leeway = getSizeLeeway(methodNode);
+
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (leeway < 10000)
+                break;
+            if (BytecodeUtils.isIntInsn(insn)) {
+                int originalNum = BytecodeUtils.getIntegerFromInsn(insn);
+                switch (RandomUtils.getRandomInt(3)) {
+                    case 0: {
+                        int value1 = RandomUtils.getRandomInt(255) + 20;
+                        int value2 = RandomUtils.getRandomInt(value1) + value1;
+                        int value3 = originalNum - value1 + value2; // You kids say algebra is useless???
+                        InsnList insnList = new InsnList();
+                        insnList.add(BytecodeUtils.getNumberInsn(value1));
+                        insnList.add(BytecodeUtils.getNumberInsn(value2));
+                        insnList.add(new InsnNode(ISUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value3));
+                        insnList.add(new InsnNode(IADD));
+                        methodNode.instructions.insertBefore(insn, insnList);
+                        methodNode.instructions.remove(insn);
+                        leeway -= 8;
+                        counter.incrementAndGet();
+                        break;
+                    }
+                    case 1: {
+                        int value1 = RandomUtils.getRandomInt(255) + 20;
+                        int value2 = RandomUtils.getRandomInt(value1) + value1;
+                        int value3 = RandomUtils.getRandomInt(value2 + 1);
+                        int value4 = originalNum - value1 + value2 - value3;
+                        InsnList insnList = new InsnList();
+                        insnList.add(BytecodeUtils.getNumberInsn(value1));
+                        insnList.add(BytecodeUtils.getNumberInsn(value2));
+                        insnList.add(new InsnNode(ISUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value3));
+                        insnList.add(new InsnNode(IADD));
+                        insnList.add(BytecodeUtils.getNumberInsn(value4));
+                        insnList.add(new InsnNode(IADD));
+                        methodNode.instructions.insertBefore(insn, insnList);
+                        methodNode.instructions.remove(insn);
+                        leeway -= 10;
+                        counter.incrementAndGet();
+                        break;
+                    }
+                    case 2: {
+                        int value1 = RandomUtils.getRandomInt(255) + 20;
+                        int value2 = RandomUtils.getRandomInt(value1) + value1;
+                        int value3 = RandomUtils.getRandomInt(value2 + 1);
+                        int value4 = RandomUtils.getRandomInt(value3 + 1);
+                        int value5 = originalNum - value1 + value2 - value3 + value4;
+                        InsnList insnList = new InsnList();
+                        insnList.add(BytecodeUtils.getNumberInsn(value1));
+                        insnList.add(BytecodeUtils.getNumberInsn(value2));
+                        insnList.add(new InsnNode(ISUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value3));
+                        insnList.add(new InsnNode(IADD));
+                        insnList.add(BytecodeUtils.getNumberInsn(value4));
+                        insnList.add(new InsnNode(ISUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value5));
+                        insnList.add(new InsnNode(IADD));
+                        methodNode.instructions.insertBefore(insn, insnList);
+                        methodNode.instructions.remove(insn);
+                        leeway -= 12;
+                        counter.incrementAndGet();
+                        break;
                     }
-                })
-        );
+                }
+            } else if (BytecodeUtils.isLongInsn(insn)) {
+                long originalNum = BytecodeUtils.getLongFromInsn(insn);
+                switch (RandomUtils.getRandomInt(3)) {
+                    case 0: {
+                        long value1 = RandomUtils.getRandomLong(255) + 20;
+                        long value2 = RandomUtils.getRandomLong(value1) + value1;
+                        long value3 = originalNum - value1 + value2;
+                        InsnList insnList = new InsnList();
+                        insnList.add(BytecodeUtils.getNumberInsn(value1));
+                        insnList.add(BytecodeUtils.getNumberInsn(value2));
+                        insnList.add(new InsnNode(LSUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value3));
+                        insnList.add(new InsnNode(LADD));
+                        methodNode.instructions.insertBefore(insn, insnList);
+                        methodNode.instructions.remove(insn);
+                        leeway -= 15;
+                        counter.incrementAndGet();
+                        break;
+                    }
+                    case 1: {
+                        long value1 = RandomUtils.getRandomInt(255) + 20;
+                        long value2 = RandomUtils.getRandomInt((int) value1) + value1;
+                        long value3 = RandomUtils.getRandomInt((int) (value2 + 1));
+                        long value4 = originalNum - value1 + value2 - value3;
+                        InsnList insnList = new InsnList();
+                        insnList.add(BytecodeUtils.getNumberInsn(value1));
+                        insnList.add(BytecodeUtils.getNumberInsn(value2));
+                        insnList.add(new InsnNode(LSUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value3));
+                        insnList.add(new InsnNode(LADD));
+                        insnList.add(BytecodeUtils.getNumberInsn(value4));
+                        insnList.add(new InsnNode(LADD));
+                        methodNode.instructions.insertBefore(insn, insnList);
+                        methodNode.instructions.remove(insn);
+                        leeway -= 17;
+                        counter.incrementAndGet();
+                        break;
+                    }
+                    case 2: {
+                        long value1 = RandomUtils.getRandomInt(255) + 20;
+                        long value2 = RandomUtils.getRandomInt((int) value1) + value1;
+                        long value3 = RandomUtils.getRandomInt((int) (value2 + 1));
+                        long value4 = RandomUtils.getRandomInt((int) (value3 + 1));
+                        long value5 = originalNum - value1 + value2 - value3 + value4;
+                        InsnList insnList = new InsnList();
+                        insnList.add(BytecodeUtils.getNumberInsn(value1));
+                        insnList.add(BytecodeUtils.getNumberInsn(value2));
+                        insnList.add(new InsnNode(LSUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value3));
+                        insnList.add(new InsnNode(LADD));
+                        insnList.add(BytecodeUtils.getNumberInsn(value4));
+                        insnList.add(new InsnNode(LSUB));
+                        insnList.add(BytecodeUtils.getNumberInsn(value5));
+                        insnList.add(new InsnNode(LADD));
+                        methodNode.instructions.insertBefore(insn, insnList);
+                        methodNode.instructions.remove(insn);
+                        leeway -= 20;
+                        counter.incrementAndGet();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Split %d numbers into math instructions.", counter.get()));
     }
 
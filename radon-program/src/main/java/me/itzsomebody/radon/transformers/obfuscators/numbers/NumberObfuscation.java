@@ -18,14 +18,14 @@
 package me.itzsomebody.radon.transformers.obfuscators.numbers;
 
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 
 /**
  * Abstract class for number obfuscation transformers.
  *
  * @author ItzSomebody
  */
-public abstract class NumberObfuscation extends Transformer {
+public abstract class NumberObfuscation extends LocalTransformer {
     @Override
     protected ExclusionType getExclusionType() {
         return ExclusionType.NUMBER_OBFUSCATION;
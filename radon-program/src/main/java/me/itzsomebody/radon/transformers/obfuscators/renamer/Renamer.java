@@ -23,15 +23,21 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
-import me.itzsomebody.radon.asm.ClassTree;
+import java.util.stream.Collectors;
+import me.itzsomebody.radon.Scheduler;
 import me.itzsomebody.radon.asm.ClassWrapper;
-import me.itzsomebody.radon.asm.FieldWrapper;
+import me.itzsomebody.radon.asm.HierarchyIndex;
 import me.itzsomebody.radon.asm.MemberRemapper;
-import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
 import me.itzsomebody.radon.transformers.Transformer;
 import me.itzsomebody.radon.utils.AccessUtils;
@@ -40,8 +46,6 @@ import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.commons.ClassRemapper;
 import org.objectweb.asm.commons.Remapper;
 import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.FieldNode;
-import org.objectweb.asm.tree.MethodNode;
 
 
 /**
@@ -61,39 +65,36 @@ public class Renamer extends Transformer {
     public void transform() {
         LoggerUtils.stdOut("Generating mappings.");
         long current = System.currentTimeMillis();
-        AtomicInteger classCounter = new AtomicInteger();
-        this.getClassWrappers().forEach(classWrapper -> {
-            classWrapper.methods.stream().filter(methodWrapper -> !AccessUtils.isNative(methodWrapper.methodNode.access)
-                    && !methodWrapper.methodNode.name.equals("main") && !methodWrapper.methodNode.name.equals("premain")
-                    && !methodWrapper.methodNode.name.startsWith("<")).forEach(methodWrapper -> {
-                if (canRenameMethodTree(new HashSet<>(), methodWrapper, classWrapper.originalName)) {
-                    this.renameMethodTree(new HashSet<>(), methodWrapper, classWrapper.originalName, randomString(4));
-                }
-            });
-
-            classWrapper.fields.forEach(fieldWrapper -> {
-                if (canRenameFieldTree(new HashSet<>(), fieldWrapper, classWrapper.originalName)) {
-                    this.renameFieldTree(new HashSet<>(), fieldWrapper, classWrapper.originalName, randomString(4));
-                }
-            });
-
-            if (!this.excluded(classWrapper)) {
-                this.mappings.put(classWrapper.originalName, (setup.getRepackageName() != null)
-                        ? setup.getRepackageName() + '/' + randomString(4) : randomString(4));
-                classCounter.incrementAndGet();
-            }
-        });
+        generateMappings();
         LoggerUtils.stdOut(String.format("Finished generated mappings. [%dms]", tookThisLong(current)));
         LoggerUtils.stdOut("Applying mappings.");
         current = System.currentTimeMillis();
 
-        // Apply mapping
+        // Apply mapping. The mappings can't change anymore, so every class is remapped on its own and the results are
+        // only swapped in once all of them are done.
         Remapper simpleRemapper = new MemberRemapper(this.mappings);
-        for (ClassWrapper classWrapper : new ArrayList<>(this.getClassWrappers())) {
-            ClassNode classNode = classWrapper.classNode;
-
-            ClassNode copy = new ClassNode();
-            classNode.accept(new ClassRemapper(copy, simpleRemapper));
+        Queue<RemappedClass> remappedClasses = new ConcurrentLinkedQueue<>();
+        this.radon.getScheduler().forEach(new ArrayList<>(this.getClassWrappers()), Scheduler::getCost,
+                classWrapper -> {
+                    long start = System.nanoTime();
+                    ClassNode copy = new ClassNode();
+                    classWrapper.classNode.accept(new ClassRemapper(copy, simpleRemapper));
+
+                    remappedClasses.add(new RemappedClass(classWrapper, copy, System.nanoTime() - start));
+                });
+
+        long remapNanos = 0;
+        RemappedClass slowest = null;
+        for (RemappedClass remappedClass : remappedClasses) {
+            this.getClasses().remove(remappedClass.classWrapper.originalName);
+
+            remapNanos += remappedClass.nanos;
+            if (slowest == null || remappedClass.nanos > slowest.nanos)
+                slowest = remappedClass;
+        }
+        for (RemappedClass remappedClass : remappedClasses) {
+            ClassWrapper classWrapper = remappedClass.classWrapper;
+            ClassNode copy = remappedClass.copy;
             for (int i = 0; i < copy.methods.size(); i++) {
                 classWrapper.methods.get(i).methodNode = copy.methods.get(i);
 
@@ -120,24 +121,28 @@ public class Renamer extends Transformer {
             }
 
             classWrapper.classNode = copy;
-            this.getClasses().remove(classWrapper.originalName);
             this.getClasses().put(classWrapper.classNode.name, classWrapper);
             this.getClassPath().put(classWrapper.classNode.name, classWrapper);
         }
 
+        if (slowest != null)
+            LoggerUtils.stdOut(String.format("Remapped %d classes. [%.3fms per class, slowest: %s %.3fms]",
+                    remappedClasses.size(), remapNanos / 1_000_000D / remappedClasses.size(),
+                    slowest.classWrapper.originalName, slowest.nanos / 1_000_000D));
         LoggerUtils.stdOut(String.format("Mapped %d members. [%dms]", mappings.size(), tookThisLong(current)));
         current = System.currentTimeMillis();
 
         // Fix screw ups in resources.
         LoggerUtils.stdOut("Attempting to map class names in resources");
         AtomicInteger fixed = new AtomicInteger();
-        getResources().forEach((name, byteArray) -> {
+        // Only resources which should be adapted are read, anything else can stay wherever it currently is.
+        new ArrayList<>(getResources().keySet()).forEach(name -> {
             if (setup.getAdaptTheseResources() != null) {
                 for (String s : setup.getAdaptTheseResources()) {
                     Pattern pattern = Pattern.compile(s);
 
                     if (pattern.matcher(name).matches()) {
-                        String stringVer = new String(byteArray);
+                        String stringVer = new String(getResources().get(name));
                         for (String mapping : mappings.keySet()) {
                             String original = mapping.replace("/", ".");
                             if (stringVer.contains(original)) {
@@ -164,98 +169,96 @@ public class Renamer extends Transformer {
         dumpMappings();
     }
 
-    private boolean canRenameMethodTree(HashSet<ClassTree> visited, MethodWrapper methodWrapper, String owner) {
-        ClassTree tree = this.radon.getTree(owner);
-        if (!visited.contains(tree)) {
-            visited.add(tree);
-            if (excluded(owner + '.' + methodWrapper.originalName + methodWrapper.originalDescription)) {
-                return false;
-            }
-            if (mappings.containsKey(owner + '.' + methodWrapper.originalName + methodWrapper.originalDescription)) {
-                return true;
-            }
-            if (!methodWrapper.owner.originalName.equals(owner) && tree.classWrapper.libraryNode) {
-                for (MethodNode mn : tree.classWrapper.classNode.methods) {
-                    if (mn.name.equals(methodWrapper.originalName)
-                            & mn.desc.equals(methodWrapper.originalDescription)) {
-                        return false;
-                    }
-                }
-            }
-            for (String parent : tree.parentClasses) {
-                if (parent != null && !canRenameMethodTree(visited, methodWrapper, parent)) {
-                    return false;
-                }
-            }
-            for (String sub : tree.subClasses) {
-                if (sub != null && !canRenameMethodTree(visited, methodWrapper, sub)) {
-                    return false;
-                }
+    /**
+     * Generates the new names of every class and member which should be renamed. Nothing is renamed yet. Only public
+     * so the benchmarks can time mapping generation on its own, this isn't meant to be called by anything else.
+     *
+     * @return an unmodifiable view of the new names mapped by the original names of the classes and members.
+     */
+    public Map<String, String> generateMappings() {
+        this.mappings.clear();
+        generateMemberMappings();
+
+        this.getClassWrappers().forEach(classWrapper -> {
+            if (!this.excluded(classWrapper)) {
+                this.mappings.put(classWrapper.originalName, (setup.getRepackageName() != null)
+                        ? setup.getRepackageName() + '/' + randomString(4) : randomString(4));
             }
-        }
+        });
 
-        return true;
+        return Collections.unmodifiableMap(this.mappings);
     }
 
-    private void renameMethodTree(HashSet<ClassTree> visited, MethodWrapper MethodWrapper, String className,
-                                  String newName) {
-        ClassTree tree = this.radon.getTree(className);
-
-        if (!tree.classWrapper.libraryNode && !visited.contains(tree)) {
-            mappings.put(className + '.' + MethodWrapper.originalName + MethodWrapper.originalDescription, newName);
-            visited.add(tree);
-            for (String parentClass : tree.parentClasses) {
-                this.renameMethodTree(visited, MethodWrapper, parentClass, newName);
-            }
-            for (String subClass : tree.subClasses) {
-                this.renameMethodTree(visited, MethodWrapper, subClass, newName);
+    /**
+     * Groups every method and field of the input with all of the members it has to keep the same name with and gives
+     * every group one name. Classes are unioned with their parents as long as neither is a library class, and every
+     * member of such a set with the same name and descriptor forms one group. A group keeps its name if one of its
+     * classes excludes it or if a library class anywhere in its hierarchy declares the same member.
+     */
+    private void generateMemberMappings() {
+        if (this.getClassWrappers().isEmpty())
+            return;
+
+        // Every class is added to the hierarchy at once, so the index is rebuilt at most once.
+        HierarchyIndex hierarchy = this.radon.getHierarchy(this.getClassWrappers().stream()
+                .map(classWrapper -> classWrapper.originalName).collect(Collectors.toList()));
+
+        int size = hierarchy.size();
+        UnionFind linked = new UnionFind(size);
+        UnionFind renamed = new UnionFind(size);
+        for (int id = 0; id < size; id++) {
+            for (int i = 0; i < hierarchy.getParentCount(id); i++) {
+                int parent = hierarchy.getParent(id, i);
+                linked.union(id, parent);
+                if (!hierarchy.getClassWrapper(id).libraryNode && !hierarchy.getClassWrapper(parent).libraryNode)
+                    renamed.union(id, parent);
             }
         }
-    }
 
-    private boolean canRenameFieldTree(HashSet<ClassTree> visited, FieldWrapper fieldWrapper, String owner) {
-        ClassTree tree = this.radon.getTree(owner);
-        if (!visited.contains(tree)) {
-            visited.add(tree);
-            if (excluded(owner + '.' + fieldWrapper.originalName + '.' + fieldWrapper.originalDescription)) {
-                return false;
-            }
-            if (mappings.containsKey(owner + '.' + fieldWrapper.originalName + '.' + fieldWrapper.originalDescription))
-                return true;
-            if (!fieldWrapper.owner.originalName.equals(owner) && tree.classWrapper.libraryNode) {
-                for (FieldNode fn : tree.classWrapper.classNode.fields) {
-                    if (fieldWrapper.originalName.equals(fn.name) && fieldWrapper.originalDescription.equals(fn.desc)) {
-                        return false;
-                    }
-                }
-            }
-            for (String parent : tree.parentClasses) {
-                if (parent != null && !canRenameFieldTree(visited, fieldWrapper, parent)) {
-                    return false;
-                }
-            }
-            for (String sub : tree.subClasses) {
-                if (sub != null && !canRenameFieldTree(visited, fieldWrapper, sub)) {
-                    return false;
+        Map<Integer, Set<String>> libraryMethods = new HashMap<>();
+        Map<Integer, Set<String>> libraryFields = new HashMap<>();
+        Map<Integer, List<ClassWrapper>> members = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            ClassWrapper classWrapper = hierarchy.getClassWrapper(id);
+            if (classWrapper.libraryNode) {
+                int root = linked.find(id);
+                Set<String> methods = libraryMethods.computeIfAbsent(root, k -> new HashSet<>());
+                classWrapper.classNode.methods.forEach(methodNode -> methods.add(methodNode.name + methodNode.desc));
+                if (classWrapper.classNode.fields != null) {
+                    Set<String> fields = libraryFields.computeIfAbsent(root, k -> new HashSet<>());
+                    classWrapper.classNode.fields.forEach(fieldNode -> fields.add(fieldNode.name + '.' + fieldNode.desc));
                 }
+            } else {
+                members.computeIfAbsent(renamed.find(id), k -> new ArrayList<>()).add(classWrapper);
             }
         }
 
-        return true;
-    }
+        Set<String> groups = new HashSet<>();
+        for (ClassWrapper classWrapper : this.getClassWrappers()) {
+            int id = hierarchy.getId(classWrapper.originalName);
+            List<ClassWrapper> group = members.get(renamed.find(id));
+            Set<String> methods = libraryMethods.getOrDefault(linked.find(id), Collections.emptySet());
+            Set<String> fields = libraryFields.getOrDefault(linked.find(id), Collections.emptySet());
 
-    private void renameFieldTree(HashSet<ClassTree> visited, FieldWrapper fieldWrapper, String owner, String newName) {
-        ClassTree tree = this.radon.getTree(owner);
+            classWrapper.methods.stream().filter(methodWrapper -> !AccessUtils.isNative(methodWrapper.methodNode.access)
+                    && !methodWrapper.methodNode.name.equals("main") && !methodWrapper.methodNode.name.equals("premain")
+                    && !methodWrapper.methodNode.name.startsWith("<")).forEach(methodWrapper -> {
+                String member = methodWrapper.originalName + methodWrapper.originalDescription;
+                if (groups.add(renamed.find(id) + " " + member) && !methods.contains(member)
+                        && group.stream().noneMatch(owner -> excluded(owner.originalName + '.' + member))) {
+                    String newName = randomString(4);
+                    group.forEach(owner -> mappings.put(owner.originalName + '.' + member, newName));
+                }
+            });
 
-        if (!tree.classWrapper.libraryNode && !visited.contains(tree)) {
-            mappings.put(owner + '.' + fieldWrapper.originalName + '.' + fieldWrapper.originalDescription, newName);
-            visited.add(tree);
-            for (String parentClass : tree.parentClasses) {
-                this.renameFieldTree(visited, fieldWrapper, parentClass, newName);
-            }
-            for (String subClass : tree.subClasses) {
-                this.renameFieldTree(visited, fieldWrapper, subClass, newName);
-            }
+            classWrapper.fields.forEach(fieldWrapper -> {
+                String member = fieldWrapper.originalName + '.' + fieldWrapper.originalDescription;
+                if (groups.add(renamed.find(id) + " " + member) && !fields.contains(member)
+                        && group.stream().noneMatch(owner -> excluded(owner.originalName + '.' + member))) {
+                    String newName = randomString(4);
+                    group.forEach(owner -> mappings.put(owner.originalName + '.' + member, newName));
+                }
+            });
         }
     }
 
@@ -303,4 +306,19 @@ public class Renamer extends Transformer {
     public RenamerSetup getSetup() {
         return setup;
     }
+
+    /**
+     * A class which has been remapped but hasn't been swapped in yet.
+     */
+    private static class RemappedClass {
+        private final ClassWrapper classWrapper;
+        private final ClassNode copy;
+        private final long nanos;
+
+        private RemappedClass(ClassWrapper classWrapper, ClassNode copy, long nanos) {
+            this.classWrapper = classWrapper;
+            this.copy = copy;
+            this.nanos = nanos;
+        }
+    }
 }
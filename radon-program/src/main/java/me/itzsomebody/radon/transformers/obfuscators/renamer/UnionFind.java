@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers.obfuscators.renamer;
+
+/**
+ * Disjoint sets over the ids of a {@link me.itzsomebody.radon.asm.HierarchyIndex}. Uses union by rank and path
+ * halving, so every operation is practically constant time.
+ *
+ * @author ItzSomebody
+ */
+public class UnionFind {
+    private final int[] parents;
+    private final byte[] ranks;
+
+    public UnionFind(int size) {
+        this.parents = new int[size];
+        this.ranks = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+        }
+    }
+
+    /**
+     * @param id the element.
+     * @return the representative of the set the element is in.
+     */
+    public int find(int id) {
+        while (parents[id] != id) {
+            parents[id] = parents[parents[id]];
+            id = parents[id];
+        }
+
+        return id;
+    }
+
+    /**
+     * Merges the sets of both elements.
+     *
+     * @param first  the first element.
+     * @param second the second element.
+     */
+    public void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot)
+            return;
+
+        if (ranks[firstRoot] < ranks[secondRoot]) {
+            parents[firstRoot] = secondRoot;
+        } else if (ranks[firstRoot] > ranks[secondRoot]) {
+            parents[secondRoot] = firstRoot;
+        } else {
+            parents[secondRoot] = firstRoot;
+            ranks[firstRoot]++;
+        }
+    }
+}
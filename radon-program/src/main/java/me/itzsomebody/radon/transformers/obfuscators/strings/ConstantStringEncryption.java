@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2018 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers.obfuscators.strings;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.utils.LoggerUtils;
+import me.itzsomebody.radon.utils.RandomUtils;
+import me.itzsomebody.radon.utils.StringUtils;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Replaces string literals with dynamically-computed constants whose bootstrap method decrypts them. The JVM resolves
+ * every constant once and keeps the result, so after the first execution an encrypted string costs as much as a plain
+ * one. Dynamic constants need class files of version 55 (Java 11) or higher, strings in older classes are handed to
+ * a fallback transformer instead.
+ *
+ * @author ItzSomebody
+ */
+public class ConstantStringEncryption extends StringEncryption {
+    private static final String BOOTSTRAP_DESC = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;"
+            + "Ljava/lang/Class;Ljava/lang/String;I)Ljava/lang/String;";
+
+    private final StringEncryption fallback;
+
+    public ConstantStringEncryption(StringEncryptionSetup setup, StringEncryption fallback) {
+        super(setup);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void transform() {
+        AtomicInteger counter = new AtomicInteger();
+        String className = StringUtils.randomClassName(getClasses().keySet());
+        String bootstrapName = randomString(4);
+        Handle bootstrap = new Handle(H_INVOKESTATIC, className, bootstrapName, BOOTSTRAP_DESC, false);
+
+        forEachMethod(ConstantStringEncryption::supportsConstants, methodWrapper -> {
+            MethodNode methodNode = methodWrapper.methodNode;
+            int leeway = getSizeLeeway(methodNode);
+
+            for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+                if (leeway < 10000) {
+                    break;
+                }
+                if (insn instanceof LdcInsnNode) {
+                    LdcInsnNode ldc = (LdcInsnNode) insn;
+                    if (ldc.cst instanceof String) {
+                        String cst = (String) ldc.cst;
+
+                        if (!excludedString(cst)) {
+                            String name = randomString(4);
+                            int key = RandomUtils.getRandomInt();
+                            ldc.cst = new ConstantDynamic(name, "Ljava/lang/String;", bootstrap,
+                                    encrypt(cst, name, key), key);
+                            // Worst case the ldc becomes an ldc_w.
+                            leeway -= 1;
+                            counter.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+
+        if (counter.get() > 0) {
+            ClassNode decryptor = createDecryptor(className, bootstrapName);
+            getClasses().put(decryptor.name, new ClassWrapper(decryptor, false));
+        }
+        LoggerUtils.stdOut(String.format("Encrypted %d strings into dynamic constants.", counter.get()));
+
+        if (getClassWrappers().stream().anyMatch(classWrapper -> !excluded(classWrapper)
+                && !supportsConstants(classWrapper))) {
+            LoggerUtils.stdOut(String.format("Falling back to %s for classes older than Java 11.",
+                    fallback.getName().toLowerCase()));
+            fallback.skip(ConstantStringEncryption::supportsConstants);
+            fallback.init(this.radon);
+            fallback.transform();
+        }
+    }
+
+    private static boolean supportsConstants(ClassWrapper classWrapper) {
+        return (classWrapper.classNode.version & 0xFFFF) >= V11;
+    }
+
+    private static String encrypt(String msg, String name, int key) {
+        char[] chars = msg.toCharArray();
+        int nameKey = key ^ name.hashCode();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (chars[i] ^ nameKey ^ i);
+        }
+
+        return new String(chars);
+    }
+
+    public StringEncryption getFallback() {
+        return fallback;
+    }
+
+    @Override
+    public String getName() {
+        return "Constant string encryption";
+    }
+
+    private static ClassNode createDecryptor(String className, String bootstrapName) {
+        ClassNode cw = new ClassNode();
+        MethodVisitor mv;
+
+        cw.visit(V11, ACC_PUBLIC + ACC_SUPER, className, null, "java/lang/Object", null);
+
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+            mv.visitCode();
+            Label l0 = new Label();
+            mv.visitLabel(l0);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+            mv.visitInsn(RETURN);
+            Label l1 = new Label();
+            mv.visitLabel(l1);
+            mv.visitMaxs(1, 1);
+            mv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, bootstrapName, BOOTSTRAP_DESC, null, null);
+            mv.visitCode();
+            Label l0 = new Label();
+            mv.visitLabel(l0);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "toCharArray", "()[C", false);
+            mv.visitVarInsn(ASTORE, 5);
+            Label l1 = new Label();
+            mv.visitLabel(l1);
+            mv.visitVarInsn(ILOAD, 4);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+            mv.visitInsn(IXOR);
+            mv.visitVarInsn(ISTORE, 6);
+            Label l2 = new Label();
+            mv.visitLabel(l2);
+            mv.visitInsn(ICONST_0);
+            mv.visitVarInsn(ISTORE, 7);
+            Label l3 = new Label();
+            mv.visitLabel(l3);
+            mv.visitVarInsn(ILOAD, 7);
+            mv.visitVarInsn(ALOAD, 5);
+            mv.visitInsn(ARRAYLENGTH);
+            Label l4 = new Label();
+            mv.visitJumpInsn(IF_ICMPGE, l4);
+            mv.visitVarInsn(ALOAD, 5);
+            mv.visitVarInsn(ILOAD, 7);
+            mv.visitVarInsn(ALOAD, 5);
+            mv.visitVarInsn(ILOAD, 7);
+            mv.visitInsn(CALOAD);
+            mv.visitVarInsn(ILOAD, 6);
+            mv.visitInsn(IXOR);
+            mv.visitVarInsn(ILOAD, 7);
+            mv.visitInsn(IXOR);
+            mv.visitInsn(I2C);
+            mv.visitInsn(CASTORE);
+            mv.visitIincInsn(7, 1);
+            mv.visitJumpInsn(GOTO, l3);
+            mv.visitLabel(l4);
+            mv.visitTypeInsn(NEW, "java/lang/String");
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ALOAD, 5);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/String", "<init>", "([C)V", false);
+            mv.visitInsn(ARETURN);
+            Label l5 = new Label();
+            mv.visitLabel(l5);
+            mv.visitMaxs(5, 8);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw;
+    }
+}
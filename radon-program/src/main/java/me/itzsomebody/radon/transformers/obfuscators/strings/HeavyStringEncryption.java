@@ -19,6 +19,7 @@ package me.itzsomebody.radon.transformers.obfuscators.strings;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.ConstantHoister;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
@@ -47,50 +48,61 @@ public class HeavyStringEncryption extends StringEncryption {
     @Override
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
+        AtomicInteger hoisted = new AtomicInteger();
         MemberNames memberNames = new MemberNames();
 
-        getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
-                    int leeway = getSizeLeeway(methodNode);
+        forEachMethod(methodWrapper -> {
+            MethodNode methodNode = methodWrapper.methodNode;
+            int leeway = getSizeLeeway(methodNode);
+            ConstantHoister hoister = new ConstantHoister(methodWrapper.owner.classNode.name, methodNode);
 
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (leeway < 10000) {
-                            break;
-                        }
-                        if (insn instanceof LdcInsnNode) {
-                            LdcInsnNode ldc = (LdcInsnNode) insn;
-                            if (ldc.cst instanceof String) {
-                                String cst = (String) ldc.cst;
+            for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+                if (leeway < 10000) {
+                    break;
+                }
+                if (insn instanceof LdcInsnNode) {
+                    LdcInsnNode ldc = (LdcInsnNode) insn;
+                    if (ldc.cst instanceof String) {
+                        String cst = (String) ldc.cst;
 
-                                if (!excludedString(cst)) {
-                                    int extraKey = RandomUtils.getRandomInt();
-                                    int callerClassHC = classWrapper.classNode.name.replace("/", ".").hashCode();
-                                    int callerMethodHC = methodNode.name.hashCode();
-                                    int decryptorClassHC = memberNames.className.replace("/", ".").hashCode();
-                                    int decryptorMethodHC = memberNames.decryptorMethodName.hashCode();
-                                    ldc.cst = encrypt(cst, callerClassHC, callerMethodHC, decryptorClassHC,
-                                            decryptorMethodHC, extraKey);
-                                    methodNode.instructions.insert(insn, new MethodInsnNode(INVOKESTATIC,
-                                            memberNames.className, memberNames.decryptorMethodName,
-                                            "(Ljava/lang/Object;I)Ljava/lang/String;", false));
-                                    methodNode.instructions.insert(insn, new InsnNode(POP));
-                                    methodNode.instructions.insert(insn, new InsnNode(DUP_X1));
-                                    methodNode.instructions.insertBefore(insn, BytecodeUtils.getNumberInsn(extraKey));
-                                    leeway -= 10;
-                                    counter.incrementAndGet();
-                                }
+                        if (!excludedString(cst)) {
+                            int extraKey = RandomUtils.getRandomInt();
+                            int callerClassHC = methodWrapper.owner.classNode.name.replace("/", ".").hashCode();
+                            int callerMethodHC = methodNode.name.hashCode();
+                            int decryptorClassHC = memberNames.className.replace("/", ".").hashCode();
+                            int decryptorMethodHC = memberNames.decryptorMethodName.hashCode();
+                            ldc.cst = encrypt(cst, callerClassHC, callerMethodHC, decryptorClassHC,
+                                    decryptorMethodHC, extraKey);
+                            MethodInsnNode decrypt = new MethodInsnNode(INVOKESTATIC,
+                                    memberNames.className, memberNames.decryptorMethodName,
+                                    getDecryptorDescriptor(), false);
+                            methodNode.instructions.insert(insn, decrypt);
+                            if (setup.isBindCaller()) {
+                                methodNode.instructions.insert(insn,
+                                        BytecodeUtils.getNumberInsn(callerMethodHC));
+                                methodNode.instructions.insert(insn,
+                                        BytecodeUtils.getNumberInsn(callerClassHC));
+                                leeway -= 6;
                             }
+                            methodNode.instructions.insert(insn, new InsnNode(POP));
+                            methodNode.instructions.insert(insn, new InsnNode(DUP_X1));
+                            AbstractInsnNode key = BytecodeUtils.getNumberInsn(extraKey);
+                            methodNode.instructions.insertBefore(insn, key);
+                            hoister.hoist(insn, key, decrypt, STRING_TYPE);
+                            leeway -= 10;
+                            counter.incrementAndGet();
                         }
                     }
-                }));
+                }
+            }
+            hoisted.addAndGet(hoister.apply());
+        });
         // Add decrypt method
         ClassNode decryptor = createDecryptor(memberNames);
         getClasses().put(decryptor.name, new ClassWrapper(decryptor, false));
 
-        LoggerUtils.stdOut(String.format("Encrypted %d strings.", counter.get()));
+        LoggerUtils.stdOut(String.format("Encrypted %d strings, hoisted %d out of loops.", counter.get(),
+                hoisted.get()));
     }
 
     @Override
@@ -98,6 +110,11 @@ public class HeavyStringEncryption extends StringEncryption {
         return "Heavy string encryption";
     }
 
+    private String getDecryptorDescriptor() {
+        return setup.isBindCaller() ? "(Ljava/lang/Object;III)Ljava/lang/String;"
+                : "(Ljava/lang/Object;I)Ljava/lang/String;";
+    }
+
     private static String encrypt(String msg, int callerClassHC, int callerMethodHC, int decryptorClassHC,
                                   int decryptorMethodHC, int extraKey) {
         StringBuilder sb = new StringBuilder();
@@ -126,12 +143,14 @@ public class HeavyStringEncryption extends StringEncryption {
         return sb.toString();
     }
 
-    private static ClassNode createDecryptor(MemberNames memberNames) {
+    private ClassNode createDecryptor(MemberNames memberNames) {
         ClassNode cw = new ClassNode();
         FieldVisitor fv;
         MethodVisitor mv;
 
-        cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, "java/lang/Thread", null);
+        // Without caller binding a thread is spawned to find out the decryptor's own context.
+        String superName = setup.isBindCaller() ? "java/lang/Object" : "java/lang/Thread";
+        cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, superName, null);
 
         {
             fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_VOLATILE, memberNames.infoFieldName,
@@ -139,8 +158,8 @@ public class HeavyStringEncryption extends StringEncryption {
             fv.visitEnd();
         }
         {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName, "Ljava/util/HashMap;",
-                    null, null);
+            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;", null, null);
             fv.visitEnd();
         }
         {
@@ -148,12 +167,32 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitTypeInsn(NEW, "java/util/HashMap");
+            mv.visitTypeInsn(NEW, "java/util/concurrent/ConcurrentHashMap");
             mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitMethodInsn(INVOKESPECIAL, "java/util/concurrent/ConcurrentHashMap", "<init>", "()V", false);
+            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
+            if (setup.isBindCaller()) {
+                // Same info the thread would collect, without walking the stack.
+                mv.visitInsn(ICONST_5);
+                mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+                mv.visitInsn(DUP);
+                mv.visitInsn(ICONST_1);
+                mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getName", "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                mv.visitInsn(DUP);
+                mv.visitInsn(ICONST_4);
+                mv.visitLdcInsn(memberNames.decryptorMethodName);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
+            }
             mv.visitInsn(RETURN);
-            mv.visitMaxs(2, 0);
+            mv.visitMaxs(4, 0);
             mv.visitEnd();
         }
         {
@@ -162,203 +201,207 @@ public class HeavyStringEncryption extends StringEncryption {
             Label l0 = new Label();
             mv.visitLabel(l0);
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Thread", "<init>", "()V", false);
+            mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "()V", false);
             mv.visitInsn(RETURN);
             Label l1 = new Label();
             mv.visitLabel(l1);
             mv.visitMaxs(1, 1);
             mv.visitEnd();
         }
-        {
-            mv = cw.visitMethod(ACC_PUBLIC, "run", "()V", null, null);
-            mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKESPECIAL, memberNames.className, memberNames.populateMethodName, "()V", false);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitInsn(RETURN);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitMaxs(1, 1);
-            mv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_PRIVATE, memberNames.populateMethodName, "()V", null, null);
-            mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitInsn(ICONST_5);
-            mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "getStackTrace",
-                    "()[Ljava/lang/StackTraceElement;", false);
-            mv.visitVarInsn(ASTORE, 1);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getDeclaredMethods", "()[Ljava/lang/reflect/Method;",
-                    false);
-            mv.visitVarInsn(ASTORE, 2);
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Runtime", "getRuntime", "()Ljava/lang/Runtime;", false);
-            mv.visitVarInsn(ASTORE, 3);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ISTORE, 4);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
-            Label l6 = new Label();
-            mv.visitJumpInsn(GOTO, l6);
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitVarInsn(ILOAD, 4);
-            mv.visitInsn(AALOAD);
-            mv.visitVarInsn(ASTORE, 5);
-            Label l8 = new Label();
-            mv.visitLabel(l8);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Method", "getReturnType", "()Ljava/lang/Class;",
-                    false);
-            mv.visitLdcInsn(Type.getType("Ljava/lang/String;"));
-            Label l9 = new Label();
-            mv.visitJumpInsn(IF_ACMPNE, l9);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Method", "getParameterTypes", "()[Ljava/lang/Class;",
-                    false);
-            mv.visitInsn(ICONST_2);
-            mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
-            mv.visitInsn(DUP);
-            mv.visitInsn(ICONST_0);
-            mv.visitLdcInsn(Type.getType("Ljava/lang/Object;"));
-            mv.visitInsn(AASTORE);
-            mv.visitInsn(DUP);
-            mv.visitInsn(ICONST_1);
-            mv.visitFieldInsn(GETSTATIC, "java/lang/Integer", "TYPE", "Ljava/lang/Class;");
-            mv.visitInsn(AASTORE);
-            mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "equals", "([Ljava/lang/Object;[Ljava/lang/Object;)Z",
-                    false);
-            mv.visitJumpInsn(IFEQ, l9);
-            Label l10 = new Label();
-            mv.visitLabel(l10);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_4);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Method", "getName", "()Ljava/lang/String;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitInsn(AASTORE);
-            Label l11 = new Label();
-            mv.visitLabel(l11);
-            Label l12 = new Label();
-            mv.visitJumpInsn(GOTO, l12);
-            mv.visitLabel(l9);
-            mv.visitIincInsn(4, 1);
-            mv.visitLabel(l6);
-            mv.visitVarInsn(ILOAD, 4);
-            mv.visitVarInsn(ALOAD, 2);
-            mv.visitInsn(ARRAYLENGTH);
-            mv.visitJumpInsn(IF_ICMPLT, l7);
-            mv.visitLabel(l12);
-            mv.visitVarInsn(ALOAD, 3);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Runtime", "availableProcessors", "()I", false);
-            mv.visitVarInsn(ISTORE, 4);
-            Label l13 = new Label();
-            mv.visitLabel(l13);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ILOAD, 4);
-            mv.visitInsn(ICONST_1);
-            mv.visitInsn(IADD);
-            mv.visitVarInsn(ILOAD, 4);
-            mv.visitInsn(IREM);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitInsn(AASTORE);
-            Label l14 = new Label();
-            mv.visitLabel(l14);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_1);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_0);
-            mv.visitInsn(AALOAD);
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitInsn(AASTORE);
-            Label l15 = new Label();
-            mv.visitLabel(l15);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_2);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_0);
-            mv.visitInsn(AALOAD);
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitInsn(AASTORE);
-            Label l16 = new Label();
-            mv.visitLabel(l16);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_3);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_0);
-            mv.visitInsn(AALOAD);
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitInsn(ICONST_1);
-            mv.visitInsn(ISHL);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitInsn(AASTORE);
-            Label l17 = new Label();
-            mv.visitLabel(l17);
-            mv.visitInsn(RETURN);
-            Label l18 = new Label();
-            mv.visitLabel(l18);
-            mv.visitMaxs(5, 6);
-            mv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.createInfoMethodName, "()V", null,
-                    new String[]{"java/lang/InterruptedException"});
-            mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitTypeInsn(NEW, memberNames.className);
-            mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, memberNames.className, "<init>", "()V", false);
-            mv.visitVarInsn(ASTORE, 0);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "start", "()V", false);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "join", "()V", false);
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitInsn(RETURN);
-            Label l4 = new Label();
-            mv.visitLabel(l4);
-            mv.visitMaxs(2, 1);
-            mv.visitEnd();
+        if (!setup.isBindCaller()) {
+            {
+                mv = cw.visitMethod(ACC_PUBLIC, "run", "()V", null, null);
+                mv.visitCode();
+                Label l0 = new Label();
+                mv.visitLabel(l0);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitMethodInsn(INVOKESPECIAL, memberNames.className, memberNames.populateMethodName, "()V", false);
+                Label l1 = new Label();
+                mv.visitLabel(l1);
+                mv.visitInsn(RETURN);
+                Label l2 = new Label();
+                mv.visitLabel(l2);
+                mv.visitMaxs(1, 1);
+                mv.visitEnd();
+            }
+            {
+                mv = cw.visitMethod(ACC_PRIVATE, memberNames.populateMethodName, "()V", null, null);
+                mv.visitCode();
+                Label l0 = new Label();
+                mv.visitLabel(l0);
+                mv.visitInsn(ICONST_5);
+                mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+                mv.visitVarInsn(ASTORE, 6);
+                Label l1 = new Label();
+                mv.visitLabel(l1);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "getStackTrace",
+                        "()[Ljava/lang/StackTraceElement;", false);
+                mv.visitVarInsn(ASTORE, 1);
+                Label l2 = new Label();
+                mv.visitLabel(l2);
+                mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getDeclaredMethods",
+                        "()[Ljava/lang/reflect/Method;", false);
+                mv.visitVarInsn(ASTORE, 2);
+                Label l3 = new Label();
+                mv.visitLabel(l3);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Runtime", "getRuntime", "()Ljava/lang/Runtime;", false);
+                mv.visitVarInsn(ASTORE, 3);
+                Label l4 = new Label();
+                mv.visitLabel(l4);
+                mv.visitInsn(ICONST_0);
+                mv.visitVarInsn(ISTORE, 4);
+                Label l5 = new Label();
+                mv.visitLabel(l5);
+                Label l6 = new Label();
+                mv.visitJumpInsn(GOTO, l6);
+                Label l7 = new Label();
+                mv.visitLabel(l7);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitVarInsn(ILOAD, 4);
+                mv.visitInsn(AALOAD);
+                mv.visitVarInsn(ASTORE, 5);
+                Label l8 = new Label();
+                mv.visitLabel(l8);
+                mv.visitVarInsn(ALOAD, 5);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Method", "getReturnType", "()Ljava/lang/Class;",
+                        false);
+                mv.visitLdcInsn(Type.getType("Ljava/lang/String;"));
+                Label l9 = new Label();
+                mv.visitJumpInsn(IF_ACMPNE, l9);
+                mv.visitVarInsn(ALOAD, 5);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Method", "getParameterTypes",
+                        "()[Ljava/lang/Class;", false);
+                mv.visitInsn(ICONST_2);
+                mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
+                mv.visitInsn(DUP);
+                mv.visitInsn(ICONST_0);
+                mv.visitLdcInsn(Type.getType("Ljava/lang/Object;"));
+                mv.visitInsn(AASTORE);
+                mv.visitInsn(DUP);
+                mv.visitInsn(ICONST_1);
+                mv.visitFieldInsn(GETSTATIC, "java/lang/Integer", "TYPE", "Ljava/lang/Class;");
+                mv.visitInsn(AASTORE);
+                mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "equals",
+                        "([Ljava/lang/Object;[Ljava/lang/Object;)Z", false);
+                mv.visitJumpInsn(IFEQ, l9);
+                Label l10 = new Label();
+                mv.visitLabel(l10);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_4);
+                mv.visitVarInsn(ALOAD, 5);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/reflect/Method", "getName", "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                Label l11 = new Label();
+                mv.visitLabel(l11);
+                Label l12 = new Label();
+                mv.visitJumpInsn(GOTO, l12);
+                mv.visitLabel(l9);
+                mv.visitIincInsn(4, 1);
+                mv.visitLabel(l6);
+                mv.visitVarInsn(ILOAD, 4);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitInsn(ARRAYLENGTH);
+                mv.visitJumpInsn(IF_ICMPLT, l7);
+                mv.visitLabel(l12);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Runtime", "availableProcessors", "()I", false);
+                mv.visitVarInsn(ISTORE, 4);
+                Label l13 = new Label();
+                mv.visitLabel(l13);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_0);
+                mv.visitVarInsn(ILOAD, 4);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(IADD);
+                mv.visitVarInsn(ILOAD, 4);
+                mv.visitInsn(IREM);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                Label l14 = new Label();
+                mv.visitLabel(l14);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_1);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_0);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName", "()Ljava/lang/String;",
+                        false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                Label l15 = new Label();
+                mv.visitLabel(l15);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_2);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_0);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName",
+                        "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                Label l16 = new Label();
+                mv.visitLabel(l16);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_3);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitInsn(ICONST_0);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(ISHL);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+                mv.visitInsn(AASTORE);
+                Label l17 = new Label();
+                mv.visitLabel(l17);
+                mv.visitVarInsn(ALOAD, 6);
+                mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
+                mv.visitInsn(RETURN);
+                Label l18 = new Label();
+                mv.visitLabel(l18);
+                mv.visitMaxs(5, 7);
+                mv.visitEnd();
+            }
+            {
+                mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.createInfoMethodName, "()V", null,
+                        new String[]{"java/lang/InterruptedException"});
+                mv.visitCode();
+                Label l0 = new Label();
+                mv.visitLabel(l0);
+                mv.visitTypeInsn(NEW, memberNames.className);
+                mv.visitInsn(DUP);
+                mv.visitMethodInsn(INVOKESPECIAL, memberNames.className, "<init>", "()V", false);
+                mv.visitVarInsn(ASTORE, 0);
+                Label l1 = new Label();
+                mv.visitLabel(l1);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "start", "()V", false);
+                Label l2 = new Label();
+                mv.visitLabel(l2);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitMethodInsn(INVOKEVIRTUAL, memberNames.className, "join", "()V", false);
+                Label l3 = new Label();
+                mv.visitLabel(l3);
+                mv.visitInsn(RETURN);
+                Label l4 = new Label();
+                mv.visitLabel(l4);
+                mv.visitMaxs(2, 1);
+                mv.visitEnd();
+            }
         }
         {
             mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.setCacheMethodName,
@@ -366,10 +409,11 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitVarInsn(ALOAD, 0);
             mv.visitVarInsn(ALOAD, 1);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "put",
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "put",
                     "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
             mv.visitInsn(POP);
             Label l1 = new Label();
@@ -386,9 +430,10 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "get",
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "get",
                     "(Ljava/lang/Object;)Ljava/lang/Object;", false);
             mv.visitTypeInsn(CHECKCAST, "java/lang/String");
             mv.visitInsn(ARETURN);
@@ -398,24 +443,16 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.cacheContainsMethodName, "(Ljava/lang/String;)Z",
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decryptorMethodName, getDecryptorDescriptor(),
                     null, null);
             mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "containsKey", "(Ljava/lang/Object;)Z", false);
-            mv.visitInsn(IRETURN);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitMaxs(2, 1);
-            mv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decryptorMethodName,
-                    "(Ljava/lang/Object;I)Ljava/lang/String;", null, null);
-            mv.visitCode();
+            if (setup.isBindCaller()) {
+                // The call site passes the hashes of its class and method in place of the stack trace.
+                mv.visitVarInsn(ILOAD, 2);
+                mv.visitVarInsn(ISTORE, 8);
+                mv.visitVarInsn(ILOAD, 3);
+                mv.visitVarInsn(ISTORE, 9);
+            }
             Label l0 = new Label();
             Label l1 = new Label();
             Label l2 = new Label();
@@ -434,28 +471,30 @@ public class HeavyStringEncryption extends StringEncryption {
             Label l8 = new Label();
             mv.visitLabel(l8);
             mv.visitVarInsn(ALOAD, 2);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.cacheContainsMethodName,
-                    "(Ljava/lang/String;)Z", false);
-            mv.visitJumpInsn(IFEQ, l6);
-            Label l9 = new Label();
-            mv.visitLabel(l9);
-            mv.visitVarInsn(ALOAD, 2);
             mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.getCacheMethodName,
                     "(Ljava/lang/String;)Ljava/lang/String;", false);
+            mv.visitVarInsn(ASTORE, 7);
+            mv.visitVarInsn(ALOAD, 7);
+            mv.visitJumpInsn(IFNULL, l6);
+            Label l9 = new Label();
+            mv.visitLabel(l9);
+            mv.visitVarInsn(ALOAD, 7);
             mv.visitLabel(l4);
             mv.visitInsn(ARETURN);
             mv.visitLabel(l6);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            Label l10 = new Label();
-            mv.visitJumpInsn(IFNONNULL, l10);
-            Label l11 = new Label();
-            mv.visitLabel(l11);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.createInfoMethodName, "()V", false);
-            mv.visitLabel(l10);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace", "()[Ljava/lang/StackTraceElement;",
-                    false);
-            mv.visitVarInsn(ASTORE, 3);
+            if (!setup.isBindCaller()) {
+                mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
+                Label l10 = new Label();
+                mv.visitJumpInsn(IFNONNULL, l10);
+                Label l11 = new Label();
+                mv.visitLabel(l11);
+                mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.createInfoMethodName, "()V", false);
+                mv.visitLabel(l10);
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace",
+                        "()[Ljava/lang/StackTraceElement;", false);
+                mv.visitVarInsn(ASTORE, 3);
+            }
             Label l12 = new Label();
             mv.visitLabel(l12);
             mv.visitVarInsn(ALOAD, 2);
@@ -485,18 +524,22 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitVarInsn(ALOAD, 4);
             mv.visitVarInsn(ILOAD, 6);
             mv.visitInsn(CALOAD);
-            mv.visitVarInsn(ALOAD, 3);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_3);
-            mv.visitInsn(AALOAD);
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitIntInsn(SIPUSH, 255);
-            mv.visitInsn(IAND);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+            if (setup.isBindCaller()) {
+                mv.visitVarInsn(ILOAD, 8);
+            } else {
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
+                mv.visitInsn(ICONST_3);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+                mv.visitIntInsn(SIPUSH, 255);
+                mv.visitInsn(IAND);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName", "()Ljava/lang/String;",
+                        false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+            }
             mv.visitInsn(IXOR);
             mv.visitVarInsn(ILOAD, 1);
             mv.visitInsn(IXOR);
@@ -513,18 +556,22 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitVarInsn(ALOAD, 4);
             mv.visitVarInsn(ILOAD, 6);
             mv.visitInsn(CALOAD);
-            mv.visitVarInsn(ALOAD, 3);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
-            mv.visitInsn(ICONST_3);
-            mv.visitInsn(AALOAD);
-            mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            mv.visitIntInsn(SIPUSH, 255);
-            mv.visitInsn(IAND);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+            if (setup.isBindCaller()) {
+                mv.visitVarInsn(ILOAD, 9);
+            } else {
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.infoFieldName, "[Ljava/lang/Object;");
+                mv.visitInsn(ICONST_3);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+                mv.visitIntInsn(SIPUSH, 255);
+                mv.visitInsn(IAND);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName",
+                        "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+            }
             mv.visitInsn(IXOR);
             mv.visitVarInsn(ILOAD, 1);
             mv.visitInsn(IXOR);
@@ -612,7 +659,7 @@ public class HeavyStringEncryption extends StringEncryption {
             mv.visitInsn(ARETURN);
             Label l30 = new Label();
             mv.visitLabel(l30);
-            mv.visitMaxs(5, 8);
+            mv.visitMaxs(5, 10);
             mv.visitEnd();
         }
         cw.visitEnd();
@@ -628,7 +675,6 @@ public class HeavyStringEncryption extends StringEncryption {
         private String createInfoMethodName;
         private String setCacheMethodName;
         private String getCacheMethodName;
-        private String cacheContainsMethodName;
         private String decryptorMethodName;
 
         private MemberNames() {
@@ -639,7 +685,6 @@ public class HeavyStringEncryption extends StringEncryption {
             this.createInfoMethodName = randomString(4);
             this.setCacheMethodName = randomString(4);
             this.getCacheMethodName = randomString(4);
-            this.cacheContainsMethodName = randomString(4);
             this.decryptorMethodName = randomString(4);
         }
     }
@@ -19,6 +19,7 @@ package me.itzsomebody.radon.transformers.obfuscators.strings;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.ConstantHoister;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
@@ -45,43 +46,46 @@ public class LightStringEncryption extends StringEncryption {
     @Override
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
+        AtomicInteger hoisted = new AtomicInteger();
         MemberNames memberNames = new MemberNames();
 
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
-                    int leeway = getSizeLeeway(methodNode);
+        forEachMethod(methodWrapper -> {
+            MethodNode methodNode = methodWrapper.methodNode;
+            int leeway = getSizeLeeway(methodNode);
+            ConstantHoister hoister = new ConstantHoister(methodWrapper.owner.classNode.name, methodNode);
 
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (leeway < 10000) {
-                            break;
-                        }
-                        if (insn instanceof LdcInsnNode) {
-                            LdcInsnNode ldc = (LdcInsnNode) insn;
-                            if (ldc.cst instanceof String) {
-                                String cst = (String) ldc.cst;
+            for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+                if (leeway < 10000) {
+                    break;
+                }
+                if (insn instanceof LdcInsnNode) {
+                    LdcInsnNode ldc = (LdcInsnNode) insn;
+                    if (ldc.cst instanceof String) {
+                        String cst = (String) ldc.cst;
 
-                                if (!excludedString(cst)) {
-                                    int extraKey = RandomUtils.getRandomInt();
-                                    ldc.cst = encrypt(cst, extraKey);
-                                    methodNode.instructions.insert(insn, new MethodInsnNode(INVOKESTATIC,
-                                            memberNames.className, memberNames.decryptMethodName,
-                                            "(Ljava/lang/String;I)Ljava/lang/String;", false));
-                                    methodNode.instructions.insert(insn, BytecodeUtils.getNumberInsn(extraKey));
-                                    leeway -= 7;
-                                    counter.incrementAndGet();
-                                }
-                            }
+                        if (!excludedString(cst)) {
+                            int extraKey = RandomUtils.getRandomInt();
+                            ldc.cst = encrypt(cst, extraKey);
+                            MethodInsnNode decrypt = new MethodInsnNode(INVOKESTATIC,
+                                    memberNames.className, memberNames.decryptMethodName,
+                                    "(Ljava/lang/String;I)Ljava/lang/String;", false);
+                            methodNode.instructions.insert(insn, decrypt);
+                            methodNode.instructions.insert(insn, BytecodeUtils.getNumberInsn(extraKey));
+                            hoister.hoist(insn, insn, decrypt, STRING_TYPE);
+                            leeway -= 7;
+                            counter.incrementAndGet();
                         }
                     }
-                }));
+                }
+            }
+            hoisted.addAndGet(hoister.apply());
+        });
         // Add decrypt method
         ClassNode decryptor = createDecryptor(memberNames);
         getClasses().put(decryptor.name, new ClassWrapper(decryptor, false));
 
-        LoggerUtils.stdOut(String.format("Encrypted %d strings.", counter.get()));
+        LoggerUtils.stdOut(String.format("Encrypted %d strings, hoisted %d out of loops.", counter.get(),
+                hoisted.get()));
     }
 
     private static String encrypt(String msg, int key) {
@@ -106,8 +110,8 @@ public class LightStringEncryption extends StringEncryption {
         cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, "java/lang/Object", null);
 
         {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName, "Ljava/util/HashMap;",
-                    null, null);
+            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;", null, null);
             fv.visitEnd();
         }
         {
@@ -115,10 +119,11 @@ public class LightStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitTypeInsn(NEW, "java/util/HashMap");
+            mv.visitTypeInsn(NEW, "java/util/concurrent/ConcurrentHashMap");
             mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitMethodInsn(INVOKESPECIAL, "java/util/concurrent/ConcurrentHashMap", "<init>", "()V", false);
+            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitInsn(RETURN);
             mv.visitMaxs(2, 0);
             mv.visitEnd();
@@ -142,10 +147,11 @@ public class LightStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitVarInsn(ALOAD, 0);
             mv.visitVarInsn(ALOAD, 1);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "put",
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "put",
                     "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
             mv.visitInsn(POP);
             Label l1 = new Label();
@@ -162,10 +168,11 @@ public class LightStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "get", "(Ljava/lang/Object;)Ljava/lang/Object;",
-                    false);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "get",
+                    "(Ljava/lang/Object;)Ljava/lang/Object;", false);
             mv.visitTypeInsn(CHECKCAST, "java/lang/String");
             mv.visitInsn(ARETURN);
             Label l1 = new Label();
@@ -173,21 +180,6 @@ public class LightStringEncryption extends StringEncryption {
             mv.visitMaxs(2, 1);
             mv.visitEnd();
         }
-        {
-            mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, memberNames.cacheContainsMethodName, "(Ljava/lang/String;)Z",
-                    null, null);
-            mv.visitCode();
-            Label l0 = new Label();
-            mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "containsKey", "(Ljava/lang/Object;)Z", false);
-            mv.visitInsn(IRETURN);
-            Label l1 = new Label();
-            mv.visitLabel(l1);
-            mv.visitMaxs(2, 1);
-            mv.visitEnd();
-        }
         {
             mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decryptMethodName,
                     "(Ljava/lang/String;I)Ljava/lang/String;", null, null);
@@ -206,15 +198,15 @@ public class LightStringEncryption extends StringEncryption {
             mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
             mv.visitVarInsn(ASTORE, 5);
             mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.cacheContainsMethodName,
-                    "(Ljava/lang/String;)Z", false);
+            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.returnCacheMethodName,
+                    "(Ljava/lang/String;)Ljava/lang/String;", false);
+            mv.visitVarInsn(ASTORE, 6);
+            mv.visitVarInsn(ALOAD, 6);
             Label l1 = new Label();
-            mv.visitJumpInsn(IFEQ, l1);
+            mv.visitJumpInsn(IFNULL, l1);
             Label l2 = new Label();
             mv.visitLabel(l2);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitMethodInsn(INVOKESTATIC, memberNames.className, memberNames.returnCacheMethodName,
-                    "(Ljava/lang/String;)Ljava/lang/String;", false);
+            mv.visitVarInsn(ALOAD, 6);
             mv.visitInsn(ARETURN);
             mv.visitLabel(l1);
             mv.visitVarInsn(ALOAD, 0);
@@ -271,7 +263,7 @@ public class LightStringEncryption extends StringEncryption {
             mv.visitInsn(ARETURN);
             Label l12 = new Label();
             mv.visitLabel(l12);
-            mv.visitMaxs(3, 6);
+            mv.visitMaxs(3, 7);
             mv.visitEnd();
         }
         cw.visitEnd();
@@ -284,7 +276,6 @@ public class LightStringEncryption extends StringEncryption {
         private String cacheFieldName;
         private String cacheStringMethodName;
         private String returnCacheMethodName;
-        private String cacheContainsMethodName;
         private String decryptMethodName;
 
         private MemberNames() {
@@ -292,7 +283,6 @@ public class LightStringEncryption extends StringEncryption {
             cacheFieldName = randomString(4);
             cacheStringMethodName = randomString(4);
             returnCacheMethodName = randomString(4);
-            cacheContainsMethodName = randomString(4);
             decryptMethodName = randomString(4);
         }
     }
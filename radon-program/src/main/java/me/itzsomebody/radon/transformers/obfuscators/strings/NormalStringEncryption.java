@@ -19,6 +19,7 @@ package me.itzsomebody.radon.transformers.obfuscators.strings;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.ConstantHoister;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
@@ -26,6 +27,7 @@ import me.itzsomebody.radon.utils.StringUtils;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.LdcInsnNode;
@@ -45,14 +47,13 @@ public class NormalStringEncryption extends StringEncryption {
     @Override
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
+        AtomicInteger hoisted = new AtomicInteger();
         MemberNames memberNames = new MemberNames();
 
-        this.getClassWrappers().parallelStream().filter(classWrapper ->
-                !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
+        forEachMethod(methodWrapper -> {
             MethodNode methodNode = methodWrapper.methodNode;
             int leeway = getSizeLeeway(methodNode);
+            ConstantHoister hoister = new ConstantHoister(methodWrapper.owner.classNode.name, methodNode);
 
             for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
                 if (leeway < 10000) {
@@ -65,25 +66,34 @@ public class NormalStringEncryption extends StringEncryption {
 
                         if (!excludedString(cst)) {
                             int extraKey = RandomUtils.getRandomInt();
-                            int callerClassHC = classWrapper.classNode.name.replace("/", ".").hashCode();
+                            int callerClassHC = methodWrapper.owner.classNode.name.replace("/", ".").hashCode();
                             int callerMethodHC = methodNode.name.hashCode();
                             int decryptorClassHC = memberNames.className.replace("/", ".").hashCode();
                             ldc.cst = encrypt(cst, decryptorClassHC, callerClassHC, callerMethodHC, extraKey);
-                            methodNode.instructions.insert(insn, new MethodInsnNode(INVOKESTATIC, memberNames.className,
-                                    memberNames.decryptMethodName, "(Ljava/lang/Object;I)Ljava/lang/String;", false));
+                            MethodInsnNode decrypt = new MethodInsnNode(INVOKESTATIC, memberNames.className,
+                                    memberNames.decryptMethodName, getDecryptorDescriptor(), false);
+                            methodNode.instructions.insert(insn, decrypt);
+                            if (setup.isBindCaller()) {
+                                methodNode.instructions.insert(insn, BytecodeUtils.getNumberInsn(callerMethodHC));
+                                methodNode.instructions.insert(insn, BytecodeUtils.getNumberInsn(callerClassHC));
+                                leeway -= 6;
+                            }
                             methodNode.instructions.insert(insn, BytecodeUtils.getNumberInsn(extraKey));
+                            hoister.hoist(insn, insn, decrypt, STRING_TYPE);
                             leeway -= 7;
                             counter.incrementAndGet();
                         }
                     }
                 }
             }
-        }));
+            hoisted.addAndGet(hoister.apply());
+        });
         // Add decrypt method
         ClassNode decryptor = createDecryptor(memberNames);
         getClasses().put(decryptor.name, new ClassWrapper(decryptor, false));
 
-        LoggerUtils.stdOut(String.format("Encrypted %d strings.", counter.get()));
+        LoggerUtils.stdOut(String.format("Encrypted %d strings, hoisted %d out of loops.", counter.get(),
+                hoisted.get()));
     }
 
     @Override
@@ -91,6 +101,11 @@ public class NormalStringEncryption extends StringEncryption {
         return "Normal string encryption";
     }
 
+    private String getDecryptorDescriptor() {
+        return setup.isBindCaller() ? "(Ljava/lang/Object;III)Ljava/lang/String;"
+                : "(Ljava/lang/Object;I)Ljava/lang/String;";
+    }
+
     private static String encrypt(String msg, int decryptorClassHC, int callerClassNameHC, int callerMethodNameHC,
                                   int extraKey) {
         char[] chars = msg.toCharArray();
@@ -144,7 +159,8 @@ public class NormalStringEncryption extends StringEncryption {
         cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, memberNames.className, null, "java/lang/Object", null);
 
         {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName, "Ljava/util/HashMap;", null, null);
+            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;", null, null);
             fv.visitEnd();
         }
         {
@@ -160,32 +176,44 @@ public class NormalStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitTypeInsn(NEW, "java/util/HashMap");
+            mv.visitTypeInsn(NEW, "java/util/concurrent/ConcurrentHashMap");
             mv.visitInsn(DUP);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitMethodInsn(INVOKESPECIAL, "java/util/concurrent/ConcurrentHashMap", "<init>", "()V", false);
+            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             Label l1 = new Label();
             mv.visitLabel(l1);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace", "()[Ljava/lang/StackTraceElement;",
-                    false);
-            mv.visitInsn(ICONST_1);
-            mv.visitInsn(AALOAD);
-            mv.visitVarInsn(ASTORE, 0);
-            Label l2 = new Label();
-            mv.visitLabel(l2);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.key1FieldName, "I");
-            Label l3 = new Label();
-            mv.visitLabel(l3);
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.key2FieldName, "I");
+            if (setup.isBindCaller()) {
+                // Same keys the stack trace would produce, without walking the stack.
+                mv.visitLdcInsn(Type.getType("L" + memberNames.className + ";"));
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getName", "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.key1FieldName, "I");
+                mv.visitLdcInsn("<clinit>");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.key2FieldName, "I");
+            } else {
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace",
+                        "()[Ljava/lang/StackTraceElement;", false);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(AALOAD);
+                mv.visitVarInsn(ASTORE, 0);
+                Label l2 = new Label();
+                mv.visitLabel(l2);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName",
+                        "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.key1FieldName, "I");
+                Label l3 = new Label();
+                mv.visitLabel(l3);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName",
+                        "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitFieldInsn(PUTSTATIC, memberNames.className, memberNames.key2FieldName, "I");
+            }
             Label l4 = new Label();
             mv.visitLabel(l4);
             mv.visitInsn(RETURN);
@@ -353,11 +381,12 @@ public class NormalStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitVarInsn(ILOAD, 0);
             mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "get", "(Ljava/lang/Object;)Ljava/lang/Object;",
-                    false);
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "get",
+                    "(Ljava/lang/Object;)Ljava/lang/Object;", false);
             mv.visitTypeInsn(CHECKCAST, "java/lang/String");
             mv.visitInsn(ARETURN);
             Label l1 = new Label();
@@ -371,11 +400,12 @@ public class NormalStringEncryption extends StringEncryption {
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
-            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName, "Ljava/util/HashMap;");
+            mv.visitFieldInsn(GETSTATIC, memberNames.className, memberNames.cacheFieldName,
+                    "Ljava/util/concurrent/ConcurrentHashMap;");
             mv.visitVarInsn(ILOAD, 1);
             mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/HashMap", "put",
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "put",
                     "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
             mv.visitInsn(POP);
             Label l1 = new Label();
@@ -387,11 +417,18 @@ public class NormalStringEncryption extends StringEncryption {
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decryptMethodName,
-                    "(Ljava/lang/Object;I)Ljava/lang/String;", null, null);
+            mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, memberNames.decryptMethodName, getDecryptorDescriptor(), null,
+                    null);
             mv.visitCode();
             Label l0 = new Label();
             mv.visitLabel(l0);
+            if (setup.isBindCaller()) {
+                // The call site passes the hashes of its class and method in place of the stack trace.
+                mv.visitVarInsn(ILOAD, 2);
+                mv.visitVarInsn(ISTORE, 6);
+                mv.visitVarInsn(ILOAD, 3);
+                mv.visitVarInsn(ISTORE, 7);
+            }
             mv.visitVarInsn(ALOAD, 0);
             mv.visitTypeInsn(CHECKCAST, "java/lang/String");
             mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "toCharArray", "()[C", false);
@@ -417,28 +454,30 @@ public class NormalStringEncryption extends StringEncryption {
             mv.visitVarInsn(ALOAD, 4);
             mv.visitInsn(ARETURN);
             mv.visitLabel(l4);
-            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace", "()[Ljava/lang/StackTraceElement;",
-                    false);
-            mv.visitVarInsn(ASTORE, 5);
-            Label l6 = new Label();
-            mv.visitLabel(l6);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitVarInsn(ISTORE, 6);
-            Label l7 = new Label();
-            mv.visitLabel(l7);
-            mv.visitVarInsn(ALOAD, 5);
-            mv.visitInsn(ICONST_2);
-            mv.visitInsn(AALOAD);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName", "()Ljava/lang/String;",
-                    false);
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-            mv.visitVarInsn(ISTORE, 7);
+            if (!setup.isBindCaller()) {
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Thread", "getStackTrace",
+                        "()[Ljava/lang/StackTraceElement;", false);
+                mv.visitVarInsn(ASTORE, 5);
+                Label l6 = new Label();
+                mv.visitLabel(l6);
+                mv.visitVarInsn(ALOAD, 5);
+                mv.visitInsn(ICONST_2);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getClassName",
+                        "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitVarInsn(ISTORE, 6);
+                Label l7 = new Label();
+                mv.visitLabel(l7);
+                mv.visitVarInsn(ALOAD, 5);
+                mv.visitInsn(ICONST_2);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StackTraceElement", "getMethodName",
+                        "()Ljava/lang/String;", false);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+                mv.visitVarInsn(ISTORE, 7);
+            }
             Label l8 = new Label();
             mv.visitLabel(l8);
             mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
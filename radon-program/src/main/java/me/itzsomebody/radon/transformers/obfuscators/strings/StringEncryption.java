@@ -18,9 +18,12 @@
 package me.itzsomebody.radon.transformers.obfuscators.strings;
 
 import java.util.List;
+import java.util.function.Predicate;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.exceptions.IllegalConfigurationValueException;
 import me.itzsomebody.radon.exclusions.ExclusionType;
 import me.itzsomebody.radon.transformers.Transformer;
+import org.objectweb.asm.Type;
 
 /**
  * Abstract class for string encryption transformers.
@@ -28,12 +31,30 @@ import me.itzsomebody.radon.transformers.Transformer;
  * @author ItzSomebody
  */
 public abstract class StringEncryption extends Transformer {
+    protected static final Type STRING_TYPE = Type.getType(String.class);
+
     protected StringEncryptionSetup setup;
+    private Predicate<ClassWrapper> skipped = classWrapper -> false;
 
     public StringEncryption(StringEncryptionSetup setup) {
         this.setup = setup;
     }
 
+    /**
+     * Makes this transformer leave the classes matching the provided predicate alone, so another string encryption
+     * transformer can take care of them.
+     *
+     * @param skipped the classes to leave alone.
+     */
+    void skip(Predicate<ClassWrapper> skipped) {
+        this.skipped = skipped;
+    }
+
+    @Override
+    protected boolean excluded(ClassWrapper classWrapper) {
+        return skipped.test(classWrapper) || super.excluded(classWrapper);
+    }
+
     protected boolean excludedString(String str) {
         for (String s : this.setup.getExemptedStrings()) {
             if (str.contains(s)) {
@@ -53,6 +74,10 @@ public abstract class StringEncryption extends Transformer {
         return this.setup.getExemptedStrings();
     }
 
+    public boolean isBindCaller() {
+        return this.setup.isBindCaller();
+    }
+
     public static StringEncryption getTransformerFromString(String s, StringEncryptionSetup setup) {
         switch (s.toLowerCase()) {
             case "light": {
@@ -26,12 +26,26 @@ import java.util.List;
  */
 public class StringEncryptionSetup {
     private final List<String> exemptedStrings;
+    private final boolean bindCaller;
 
     public StringEncryptionSetup(List<String> exemptedStrings) {
+        this(exemptedStrings, false);
+    }
+
+    public StringEncryptionSetup(List<String> exemptedStrings, boolean bindCaller) {
         this.exemptedStrings = exemptedStrings;
+        this.bindCaller = bindCaller;
     }
 
     public List<String> getExemptedStrings() {
         return this.exemptedStrings;
     }
+
+    /**
+     * @return true if call sites should pass their own class and method to the decryptor instead of the decryptor
+     * looking them up on the stack.
+     */
+    public boolean isBindCaller() {
+        return this.bindCaller;
+    }
 }
\ No newline at end of file
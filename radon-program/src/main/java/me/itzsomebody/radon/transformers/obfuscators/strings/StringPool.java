@@ -18,11 +18,22 @@
 package me.itzsomebody.radon.transformers.obfuscators.strings;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.exclusions.ExclusionType;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
+import me.itzsomebody.radon.utils.RandomUtils;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldInsnNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.InsnList;
@@ -34,51 +45,81 @@ import org.objectweb.asm.tree.MethodNode;
 /**
  * Transformer that takes all the strings in a class and pools them into a field. When the string is needed, the string
  * pool field is called with an index number.
+ * <p>
+ * In {@link PoolMode#PLAIN} the pool is filled in {@code <clinit>}. The other modes store all of a class's strings as
+ * a single encrypted blob and only build the pool the first time one of its strings is requested, so classes with
+ * lots of strings don't pay for them during class initialization.
  *
  * @author ItzSomebody
  */
 public class StringPool extends StringEncryption {
+    /**
+     * Longest chunk of the blob stored in a single constant. A char takes up to three bytes in a class file and
+     * constants are limited to 65535 bytes.
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    private final PoolMode mode;
+
     public StringPool(StringEncryptionSetup setup) {
+        this(setup, PoolMode.PLAIN);
+    }
+
+    public StringPool(StringEncryptionSetup setup, PoolMode mode) {
         super(setup);
+        this.mode = mode;
     }
 
     @Override
     public void transform() {
         AtomicInteger counter = new AtomicInteger();
+        AtomicInteger unique = new AtomicInteger();
+
+        Predicate<ClassWrapper> pooled = classWrapper -> mode == PoolMode.PLAIN || !isInterface(classWrapper);
+
+        // Every method collects its own strings first, then they are merged in method order so indexes never collide
+        // and identical strings share a slot.
+        Map<MethodWrapper, List<LdcInsnNode>> ldcs = new ConcurrentHashMap<>();
+        forEachMethod(pooled, methodWrapper -> ldcs.put(methodWrapper, collectStrings(methodWrapper.methodNode)));
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
-            ArrayList<String> strList = new ArrayList<>();
+        forEachClass(pooled, classWrapper -> {
             String methodName = randomString(4);
             String fieldName = randomString(4);
+            String getterName = randomString(4);
 
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                MethodNode methodNode = methodWrapper.methodNode;
-
-                for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                    if (insn instanceof LdcInsnNode) {
-                        Object cst = ((LdcInsnNode) insn).cst;
+            List<MethodWrapper> methodWrappers = classWrapper.methods.stream().filter(ldcs::containsKey)
+                    .collect(Collectors.toList());
 
-                        if (cst instanceof String) {
-                            String str = (String) cst;
+            Map<String, Integer> indexes = new LinkedHashMap<>();
+            methodWrappers.forEach(methodWrapper -> ldcs.get(methodWrapper).forEach(ldc ->
+                    indexes.putIfAbsent((String) ldc.cst, indexes.size())));
+            ArrayList<String> strList = new ArrayList<>(indexes.keySet());
 
-                            if (!excludedString(str)) {
-                                strList.add(str);
+            methodWrappers.forEach(methodWrapper -> {
+                MethodNode methodNode = methodWrapper.methodNode;
+                List<LdcInsnNode> methodLdcs = ldcs.get(methodWrapper);
 
-                                int indexNumber = strList.size() - 1;
+                for (LdcInsnNode insn : methodLdcs) {
+                    int indexNumber = indexes.get((String) insn.cst);
 
-                                methodNode.instructions.insertBefore(insn, new FieldInsnNode(GETSTATIC,
-                                        classWrapper.classNode.name, fieldName, "[Ljava/lang/String;"));
-                                methodNode.instructions.insertBefore(insn, BytecodeUtils.getNumberInsn(indexNumber));
-                                methodNode.instructions.set(insn, new InsnNode(AALOAD));
-                                counter.incrementAndGet();
-                            }
-                        }
+                    if (mode == PoolMode.PLAIN) {
+                        methodNode.instructions.insertBefore(insn, new FieldInsnNode(GETSTATIC,
+                                classWrapper.classNode.name, fieldName, "[Ljava/lang/String;"));
+                        methodNode.instructions.insertBefore(insn, BytecodeUtils.getNumberInsn(indexNumber));
+                        methodNode.instructions.set(insn, new InsnNode(AALOAD));
+                    } else {
+                        methodNode.instructions.insertBefore(insn, BytecodeUtils.getNumberInsn(indexNumber));
+                        methodNode.instructions.set(insn, new MethodInsnNode(INVOKESTATIC,
+                                classWrapper.classNode.name, getterName, "(I)Ljava/lang/String;", false));
                     }
                 }
+                counter.addAndGet(methodLdcs.size());
             });
+            unique.addAndGet(strList.size());
 
-            if (strList.size() != 0) {
+            if (strList.size() != 0 && mode != PoolMode.PLAIN) {
+                addEncryptedPool(classWrapper, methodName, fieldName, getterName, strList);
+            } else if (strList.size() != 0) {
                 classWrapper.classNode.methods.add(stringPool(classWrapper.classNode.name, methodName, fieldName,
                         strList));
 
@@ -102,7 +143,26 @@ public class StringPool extends StringEncryption {
                 classWrapper.classNode.fields.add(fieldNode);
             }
         });
-        LoggerUtils.stdOut(String.format("Pooled %d strings.", counter.get()));
+        LoggerUtils.stdOut(String.format("Pooled %d strings (%d unique).", counter.get(), unique.get()));
+    }
+
+    /**
+     * @param methodNode the method to search.
+     * @return the string ldcs of the method which should be pooled, in the order they appear in.
+     */
+    private List<LdcInsnNode> collectStrings(MethodNode methodNode) {
+        List<LdcInsnNode> ldcs = new ArrayList<>();
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (insn instanceof LdcInsnNode) {
+                Object cst = ((LdcInsnNode) insn).cst;
+
+                if (cst instanceof String && !excludedString((String) cst)) {
+                    ldcs.add((LdcInsnNode) insn);
+                }
+            }
+        }
+
+        return ldcs;
     }
 
     private MethodNode stringPool(String className, String methodName, String fieldName, ArrayList<String> strings) {
@@ -141,12 +201,265 @@ public class StringPool extends StringEncryption {
         }
         method.visitFieldInsn(PUTSTATIC, className, fieldName, "[Ljava/lang/String;");
         method.visitInsn(RETURN);
-        method.visitMaxs(3, 0);
+        method.visitMaxs(4, 0);
         method.visitEnd();
 
         return method;
     }
 
+    private static boolean isInterface(ClassWrapper classWrapper) {
+        return (classWrapper.classNode.access & ACC_INTERFACE) != 0;
+    }
+
+    /**
+     * Encrypts the strings into a blob in which every string is prefixed with its length. Character p of the blob is
+     * XORed with key + p * 31, so any part of it can be decrypted without touching the rest.
+     */
+    private static String encryptBlob(List<String> strings, int key) {
+        StringBuilder sb = new StringBuilder();
+        for (String string : strings) {
+            sb.append((char) string.length()).append(string);
+        }
+
+        char[] chars = sb.toString().toCharArray();
+        for (int p = 0; p < chars.length; p++) {
+            chars[p] = (char) (chars[p] ^ (key + p * 31));
+        }
+
+        return new String(chars);
+    }
+
+    private void addEncryptedPool(ClassWrapper classWrapper, String initName, String poolName, String getterName,
+                                  List<String> strings) {
+        ClassNode classNode = classWrapper.classNode;
+        String blobName = randomString(4);
+        String offsetsName = randomString(4);
+        int key = RandomUtils.getRandomInt();
+        String blob = encryptBlob(strings, key);
+
+        // Volatile so the pool is only seen once it has been filled.
+        if (classNode.fields == null)
+            classNode.fields = new ArrayList<>();
+        classNode.fields.add(new FieldNode(ACC_PRIVATE + ACC_STATIC + ACC_VOLATILE + ACC_SYNTHETIC, poolName,
+                "[Ljava/lang/String;", null, null));
+        if (mode == PoolMode.LAZY) {
+            classNode.fields.add(new FieldNode(ACC_PRIVATE + ACC_STATIC + ACC_SYNTHETIC, blobName, "[C", null,
+                    null));
+            classNode.fields.add(new FieldNode(ACC_PRIVATE + ACC_STATIC + ACC_SYNTHETIC, offsetsName, "[I", null,
+                    null));
+        }
+
+        // Two threads might build the pool at once, which is harmless as both build the same one.
+        MethodNode init = new MethodNode(ACC_PRIVATE + ACC_STATIC + ACC_SYNTHETIC + ACC_BRIDGE, initName, "()V", null,
+                null);
+        init.visitCode();
+        if (blob.length() <= CHUNK_SIZE) {
+            init.visitLdcInsn(blob);
+        } else {
+            init.visitTypeInsn(NEW, "java/lang/StringBuilder");
+            init.visitInsn(DUP);
+            init.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V", false);
+            for (int i = 0; i < blob.length(); i += CHUNK_SIZE) {
+                init.visitLdcInsn(blob.substring(i, Math.min(i + CHUNK_SIZE, blob.length())));
+                init.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+                        "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+            }
+            init.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+        }
+        init.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "toCharArray", "()[C", false);
+        init.visitVarInsn(ASTORE, 0);
+        init.instructions.add(BytecodeUtils.getNumberInsn(strings.size()));
+        init.visitTypeInsn(ANEWARRAY, "java/lang/String");
+        init.visitVarInsn(ASTORE, 1);
+        // p = 0
+        init.visitInsn(ICONST_0);
+        init.visitVarInsn(ISTORE, 2);
+        if (mode == PoolMode.ENCRYPTED) {
+            // Decrypt the whole blob in one go.
+            Label loop = new Label();
+            Label done = new Label();
+            init.visitLabel(loop);
+            init.visitVarInsn(ILOAD, 2);
+            init.visitVarInsn(ALOAD, 0);
+            init.visitInsn(ARRAYLENGTH);
+            init.visitJumpInsn(IF_ICMPGE, done);
+            init.visitVarInsn(ALOAD, 0);
+            init.visitVarInsn(ILOAD, 2);
+            init.visitVarInsn(ALOAD, 0);
+            init.visitVarInsn(ILOAD, 2);
+            init.visitInsn(CALOAD);
+            visitKey(init, key, 2);
+            init.visitInsn(IXOR);
+            init.visitInsn(I2C);
+            init.visitInsn(CASTORE);
+            init.visitIincInsn(2, 1);
+            init.visitJumpInsn(GOTO, loop);
+            init.visitLabel(done);
+            init.visitInsn(ICONST_0);
+            init.visitVarInsn(ISTORE, 2);
+        } else {
+            init.instructions.add(BytecodeUtils.getNumberInsn(strings.size()));
+            init.visitIntInsn(NEWARRAY, T_INT);
+            init.visitVarInsn(ASTORE, 4);
+        }
+        // for (i = 0; i < pool.length; i++)
+        Label loop = new Label();
+        Label done = new Label();
+        init.visitInsn(ICONST_0);
+        init.visitVarInsn(ISTORE, 3);
+        init.visitLabel(loop);
+        init.visitVarInsn(ILOAD, 3);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitInsn(ARRAYLENGTH);
+        init.visitJumpInsn(IF_ICMPGE, done);
+        // length = blob[p], decrypted if it hasn't been already
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ILOAD, 2);
+        init.visitInsn(CALOAD);
+        if (mode == PoolMode.LAZY) {
+            visitKey(init, key, 2);
+            init.visitInsn(IXOR);
+            init.visitInsn(I2C);
+        }
+        init.visitVarInsn(ISTORE, 5);
+        init.visitIincInsn(2, 1);
+        if (mode == PoolMode.ENCRYPTED) {
+            // pool[i] = new String(blob, p, length)
+            init.visitVarInsn(ALOAD, 1);
+            init.visitVarInsn(ILOAD, 3);
+            init.visitTypeInsn(NEW, "java/lang/String");
+            init.visitInsn(DUP);
+            init.visitVarInsn(ALOAD, 0);
+            init.visitVarInsn(ILOAD, 2);
+            init.visitVarInsn(ILOAD, 5);
+            init.visitMethodInsn(INVOKESPECIAL, "java/lang/String", "<init>", "([CII)V", false);
+            init.visitInsn(AASTORE);
+        } else {
+            // offsets[i] = p
+            init.visitVarInsn(ALOAD, 4);
+            init.visitVarInsn(ILOAD, 3);
+            init.visitVarInsn(ILOAD, 2);
+            init.visitInsn(IASTORE);
+        }
+        init.visitVarInsn(ILOAD, 2);
+        init.visitVarInsn(ILOAD, 5);
+        init.visitInsn(IADD);
+        init.visitVarInsn(ISTORE, 2);
+        init.visitIincInsn(3, 1);
+        init.visitJumpInsn(GOTO, loop);
+        init.visitLabel(done);
+        if (mode == PoolMode.LAZY) {
+            init.visitVarInsn(ALOAD, 0);
+            init.visitFieldInsn(PUTSTATIC, classNode.name, blobName, "[C");
+            init.visitVarInsn(ALOAD, 4);
+            init.visitFieldInsn(PUTSTATIC, classNode.name, offsetsName, "[I");
+        }
+        init.visitVarInsn(ALOAD, 1);
+        init.visitFieldInsn(PUTSTATIC, classNode.name, poolName, "[Ljava/lang/String;");
+        init.visitInsn(RETURN);
+        init.visitMaxs(7, 6);
+        init.visitEnd();
+        classNode.methods.add(init);
+
+        MethodNode getter = new MethodNode(ACC_PRIVATE + ACC_STATIC + ACC_SYNTHETIC + ACC_BRIDGE, getterName,
+                "(I)Ljava/lang/String;", null, null);
+        getter.visitCode();
+        Label initialized = new Label();
+        getter.visitFieldInsn(GETSTATIC, classNode.name, poolName, "[Ljava/lang/String;");
+        getter.visitVarInsn(ASTORE, 1);
+        getter.visitVarInsn(ALOAD, 1);
+        getter.visitJumpInsn(IFNONNULL, initialized);
+        getter.visitMethodInsn(INVOKESTATIC, classNode.name, initName, "()V", false);
+        getter.visitFieldInsn(GETSTATIC, classNode.name, poolName, "[Ljava/lang/String;");
+        getter.visitVarInsn(ASTORE, 1);
+        getter.visitLabel(initialized);
+        getter.visitVarInsn(ALOAD, 1);
+        getter.visitVarInsn(ILOAD, 0);
+        getter.visitInsn(AALOAD);
+        if (mode == PoolMode.LAZY) {
+            // Only decrypt the requested string, racing threads just decrypt it twice.
+            Label decrypted = new Label();
+            getter.visitVarInsn(ASTORE, 2);
+            getter.visitVarInsn(ALOAD, 2);
+            getter.visitJumpInsn(IFNONNULL, decrypted);
+            getter.visitFieldInsn(GETSTATIC, classNode.name, blobName, "[C");
+            getter.visitVarInsn(ASTORE, 3);
+            getter.visitFieldInsn(GETSTATIC, classNode.name, offsetsName, "[I");
+            getter.visitVarInsn(ILOAD, 0);
+            getter.visitInsn(IALOAD);
+            getter.visitVarInsn(ISTORE, 4);
+            // chars = new char[blob[p - 1] ^ key(p - 1)]
+            getter.visitVarInsn(ILOAD, 4);
+            getter.visitInsn(ICONST_1);
+            getter.visitInsn(ISUB);
+            getter.visitVarInsn(ISTORE, 5);
+            getter.visitVarInsn(ALOAD, 3);
+            getter.visitVarInsn(ILOAD, 5);
+            getter.visitInsn(CALOAD);
+            visitKey(getter, key, 5);
+            getter.visitInsn(IXOR);
+            getter.visitInsn(I2C);
+            getter.visitIntInsn(NEWARRAY, T_CHAR);
+            getter.visitVarInsn(ASTORE, 6);
+            // for (j = 0; j < chars.length; j++) chars[j] = blob[p + j] ^ key(p + j)
+            Label loop2 = new Label();
+            Label done2 = new Label();
+            getter.visitInsn(ICONST_0);
+            getter.visitVarInsn(ISTORE, 7);
+            getter.visitLabel(loop2);
+            getter.visitVarInsn(ILOAD, 7);
+            getter.visitVarInsn(ALOAD, 6);
+            getter.visitInsn(ARRAYLENGTH);
+            getter.visitJumpInsn(IF_ICMPGE, done2);
+            getter.visitVarInsn(ILOAD, 4);
+            getter.visitVarInsn(ILOAD, 7);
+            getter.visitInsn(IADD);
+            getter.visitVarInsn(ISTORE, 5);
+            getter.visitVarInsn(ALOAD, 6);
+            getter.visitVarInsn(ILOAD, 7);
+            getter.visitVarInsn(ALOAD, 3);
+            getter.visitVarInsn(ILOAD, 5);
+            getter.visitInsn(CALOAD);
+            visitKey(getter, key, 5);
+            getter.visitInsn(IXOR);
+            getter.visitInsn(I2C);
+            getter.visitInsn(CASTORE);
+            getter.visitIincInsn(7, 1);
+            getter.visitJumpInsn(GOTO, loop2);
+            getter.visitLabel(done2);
+            getter.visitTypeInsn(NEW, "java/lang/String");
+            getter.visitInsn(DUP);
+            getter.visitVarInsn(ALOAD, 6);
+            getter.visitMethodInsn(INVOKESPECIAL, "java/lang/String", "<init>", "([C)V", false);
+            getter.visitVarInsn(ASTORE, 2);
+            getter.visitVarInsn(ALOAD, 1);
+            getter.visitVarInsn(ILOAD, 0);
+            getter.visitVarInsn(ALOAD, 2);
+            getter.visitInsn(AASTORE);
+            getter.visitLabel(decrypted);
+            getter.visitVarInsn(ALOAD, 2);
+        }
+        getter.visitInsn(ARETURN);
+        getter.visitMaxs(mode == PoolMode.LAZY ? 6 : 2, mode == PoolMode.LAZY ? 8 : 2);
+        getter.visitEnd();
+        classNode.methods.add(getter);
+    }
+
+    /**
+     * Pushes key + p * 31 where p is the provided local.
+     */
+    private static void visitKey(MethodNode method, int key, int local) {
+        method.visitLdcInsn(key);
+        method.visitVarInsn(ILOAD, local);
+        method.visitIntInsn(BIPUSH, 31);
+        method.visitInsn(IMUL);
+        method.visitInsn(IADD);
+    }
+
+    public PoolMode getMode() {
+        return mode;
+    }
+
     @Override
     protected ExclusionType getExclusionType() {
         return ExclusionType.STRING_POOL;
@@ -156,4 +469,24 @@ public class StringPool extends StringEncryption {
     public String getName() {
         return "String pool";
     }
+
+    /**
+     * How the pooled strings are stored.
+     */
+    public enum PoolMode {
+        /**
+         * Plain strings which are all put into the pool during class initialization.
+         */
+        PLAIN,
+
+        /**
+         * One encrypted blob which is decrypted into the pool all at once the first time a string is requested.
+         */
+        ENCRYPTED,
+
+        /**
+         * One encrypted blob of which every string is only decrypted the first time it is requested.
+         */
+        LAZY
+    }
 }
@@ -18,6 +18,7 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.JumpInsnNode;
@@ -29,31 +30,35 @@ import org.objectweb.asm.tree.MethodNode;
  * @author ItzSomebody.
  */
 public class GotoGotoRemover extends Optimizer {
+    private AtomicInteger count;
+
+    @Override
+    protected void begin() {
+        count = new AtomicInteger();
+    }
+
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (excluded(methodWrapper) || !hasInstructions(methodWrapper.methodNode))
+            return;
+
+        MethodNode methodNode = methodWrapper.methodNode;
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (insn.getOpcode() == GOTO) {
+                JumpInsnNode gotoJump = (JumpInsnNode) insn;
+                AbstractInsnNode insnAfterTarget = gotoJump.label.getNext();
+                if (insnAfterTarget != null && insnAfterTarget.getOpcode() == GOTO) {
+                    JumpInsnNode secGoto = (JumpInsnNode) insnAfterTarget;
+                    gotoJump.label = secGoto.label;
+                    count.incrementAndGet();
+                }
+            }
+        }
+    }
+
     @Override
-    public void transform() {
-        AtomicInteger count = new AtomicInteger();
-        long current = System.currentTimeMillis();
-
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
-
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (insn.getOpcode() == GOTO) {
-                            JumpInsnNode gotoJump = (JumpInsnNode) insn;
-                            AbstractInsnNode insnAfterTarget = gotoJump.label.getNext();
-                            if (insnAfterTarget != null && insnAfterTarget.getOpcode() == GOTO) {
-                                JumpInsnNode secGoto = (JumpInsnNode) insnAfterTarget;
-                                gotoJump.label = secGoto.label;
-                                count.incrementAndGet();
-                            }
-                        }
-                    }
-                }));
-
-        LoggerUtils.stdOut(String.format("Normalized %d GOTO->GOTO sequences. [%dms]", count.get(),
-                tookThisLong(current)));
+    protected void end() {
+        LoggerUtils.stdOut(String.format("Normalized %d GOTO->GOTO sequences.", count.get()));
     }
 
     @Override
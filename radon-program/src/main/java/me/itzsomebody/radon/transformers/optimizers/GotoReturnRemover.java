@@ -18,6 +18,7 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.BytecodeUtils;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.tree.AbstractInsnNode;
@@ -31,30 +32,34 @@ import org.objectweb.asm.tree.MethodNode;
  * @author ItzSomebody.
  */
 public class GotoReturnRemover extends Optimizer {
+    private AtomicInteger count;
+
     @Override
-    public void transform() {
-        AtomicInteger count = new AtomicInteger();
-        long current = System.currentTimeMillis();
+    protected void begin() {
+        count = new AtomicInteger();
+    }
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper ->
-                classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                        && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                    MethodNode methodNode = methodWrapper.methodNode;
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (excluded(methodWrapper) || !hasInstructions(methodWrapper.methodNode))
+            return;
 
-                    for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                        if (insn.getOpcode() == GOTO) {
-                            JumpInsnNode gotoJump = (JumpInsnNode) insn;
-                            AbstractInsnNode insnAfterTarget = gotoJump.label.getNext();
-                            if (insnAfterTarget != null && BytecodeUtils.isReturn(insnAfterTarget.getOpcode())) {
-                                methodNode.instructions.set(insn, new InsnNode(insnAfterTarget.getOpcode()));
-                                count.incrementAndGet();
-                            }
-                        }
-                    }
-                }));
+        MethodNode methodNode = methodWrapper.methodNode;
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (insn.getOpcode() == GOTO) {
+                JumpInsnNode gotoJump = (JumpInsnNode) insn;
+                AbstractInsnNode insnAfterTarget = gotoJump.label.getNext();
+                if (insnAfterTarget != null && BytecodeUtils.isReturn(insnAfterTarget.getOpcode())) {
+                    methodNode.instructions.set(insn, new InsnNode(insnAfterTarget.getOpcode()));
+                    count.incrementAndGet();
+                }
+            }
+        }
+    }
 
-        LoggerUtils.stdOut(String.format("Normalized %d GOTO->RETURN sequences. [%dms]", count.get(),
-                tookThisLong(current)));
+    @Override
+    protected void end() {
+        LoggerUtils.stdOut(String.format("Normalized %d GOTO->RETURN sequences.", count.get()));
     }
 
     @Override
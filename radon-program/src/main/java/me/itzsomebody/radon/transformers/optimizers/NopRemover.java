@@ -18,6 +18,7 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -29,25 +30,30 @@ import org.objectweb.asm.tree.MethodNode;
  * @author ItzSomebody
  */
 public class NopRemover extends Optimizer {
+    private AtomicInteger count;
+
+    @Override
+    protected void begin() {
+        count = new AtomicInteger();
+    }
+
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (excluded(methodWrapper) || !hasInstructions(methodWrapper.methodNode))
+            return;
+
+        MethodNode methodNode = methodWrapper.methodNode;
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (insn.getOpcode() == NOP) {
+                methodNode.instructions.remove(insn);
+                count.incrementAndGet();
+            }
+        }
+    }
+
     @Override
-    public void transform() {
-        AtomicInteger count = new AtomicInteger();
-        long current = System.currentTimeMillis();
-
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper ->
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && hasInstructions(methodWrapper.methodNode)).forEach(methodWrapper -> {
-                MethodNode methodNode = methodWrapper.methodNode;
-
-                for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
-                    if (insn.getOpcode() == NOP) {
-                        methodNode.instructions.remove(insn);
-                    }
-                }
-            })
-        );
-
-        LoggerUtils.stdOut(String.format("Removed %d NOP instructions. [%dms]", count.get(), tookThisLong(current)));
+    protected void end() {
+        LoggerUtils.stdOut(String.format("Removed %d NOP instructions.", count.get()));
     }
 
     @Override
@@ -18,14 +18,14 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 
 /**
  * Abstract class for optimization transformers.
  *
  * @author ItzSomebody
  */
-public abstract class Optimizer extends Transformer {
+public abstract class Optimizer extends LocalTransformer {
     @Override
     protected ExclusionType getExclusionType() {
         return ExclusionType.OPTIMIZER;
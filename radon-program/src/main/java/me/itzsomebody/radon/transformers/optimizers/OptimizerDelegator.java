@@ -17,6 +17,11 @@
 
 package me.itzsomebody.radon.transformers.optimizers;
 
+import java.util.ArrayList;
+import java.util.List;
+import me.itzsomebody.radon.transformers.PassManager;
+import me.itzsomebody.radon.transformers.Transformer;
+
 /**
  * Enables and runs the optimization transformers.
  *
@@ -29,23 +34,22 @@ public class OptimizerDelegator extends Optimizer {
         this.setup = setup;
     }
 
+    @Override
+    public List<Transformer> getDelegates() {
+        List<Transformer> delegates = new ArrayList<>();
+        if (this.setup.isNopRemoverEnabled())
+            delegates.add(new NopRemover());
+        if (this.setup.isGotoGotoEnabled())
+            delegates.add(new GotoGotoRemover());
+        if (this.setup.isGotoReturnEnabled())
+            delegates.add(new GotoReturnRemover());
+
+        return delegates;
+    }
+
     @Override
     public void transform() {
-        if (this.setup.isNopRemoverEnabled()) {
-            NopRemover nopRemover = new NopRemover();
-            nopRemover.init(this.radon);
-            nopRemover.transform();
-        }
-        if (this.setup.isGotoGotoEnabled()) {
-            GotoGotoRemover gotoGotoRemover = new GotoGotoRemover();
-            gotoGotoRemover.init(this.radon);
-            gotoGotoRemover.transform();
-        }
-        if (this.setup.isGotoReturnEnabled()) {
-            GotoReturnRemover gotoReturnRemover = new GotoReturnRemover();
-            gotoReturnRemover.init(this.radon);
-            gotoReturnRemover.transform();
-        }
+        new PassManager(this.radon).run(getDelegates());
     }
 
     @Override
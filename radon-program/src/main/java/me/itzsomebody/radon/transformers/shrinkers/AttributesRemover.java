@@ -18,6 +18,7 @@
 package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.tree.ClassNode;
 
@@ -27,18 +28,25 @@ import org.objectweb.asm.tree.ClassNode;
  * @author ItzSomebody
  */
 public class AttributesRemover extends Shrinker {
+    private AtomicInteger counter;
+
     @Override
-    public void transform() {
-        AtomicInteger counter = new AtomicInteger();
+    protected void begin() {
+        counter = new AtomicInteger();
+    }
 
-        getClassWrappers().parallelStream().filter(classWrapper -> excluded(classWrapper)
-                && classWrapper.classNode.attrs != null).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
+    @Override
+    protected void transformClass(ClassWrapper classWrapper) {
+        ClassNode classNode = classWrapper.classNode;
 
+        if (classNode.attrs != null) {
             counter.addAndGet(classNode.attrs.size());
             classNode.attrs.clear();
-        });
+        }
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Removed %d attributes.", counter.get()));
     }
 
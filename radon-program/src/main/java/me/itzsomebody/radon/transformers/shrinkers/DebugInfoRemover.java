@@ -18,6 +18,9 @@
 package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.FieldWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.tree.ClassNode;
 
@@ -27,52 +30,67 @@ import org.objectweb.asm.tree.ClassNode;
  * @author ItzSomebody
  */
 public class DebugInfoRemover extends Shrinker {
+    private AtomicInteger outerClasses;
+    private AtomicInteger outerMethods;
+    private AtomicInteger innerClasses;
+    private AtomicInteger classSignatures;
+    private AtomicInteger methodSignatures;
+    private AtomicInteger fieldSignatures;
+
     @Override
-    public void transform() {
-        AtomicInteger outerClasses = new AtomicInteger();
-        AtomicInteger outerMethods = new AtomicInteger();
-        AtomicInteger innerClasses = new AtomicInteger();
-        AtomicInteger classSignatures = new AtomicInteger();
-        AtomicInteger methodSignatures = new AtomicInteger();
-        AtomicInteger fieldSignatures = new AtomicInteger();
+    protected void begin() {
+        outerClasses = new AtomicInteger();
+        outerMethods = new AtomicInteger();
+        innerClasses = new AtomicInteger();
+        classSignatures = new AtomicInteger();
+        methodSignatures = new AtomicInteger();
+        fieldSignatures = new AtomicInteger();
+    }
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
+    @Override
+    protected void transformClass(ClassWrapper classWrapper) {
+        ClassNode classNode = classWrapper.classNode;
 
-            if (classNode.outerClass != null) {
-                outerClasses.incrementAndGet();
-                classNode.outerClass = null;
-            }
+        if (classNode.outerClass != null) {
+            outerClasses.incrementAndGet();
+            classNode.outerClass = null;
+        }
 
-            if (classNode.outerMethod != null) {
-                outerMethods.incrementAndGet();
-                classNode.outerMethod = null;
-                classNode.outerMethodDesc = null;
-            }
+        if (classNode.outerMethod != null) {
+            outerMethods.incrementAndGet();
+            classNode.outerMethod = null;
+            classNode.outerMethodDesc = null;
+        }
 
-            if (classNode.innerClasses != null) {
-                innerClasses.addAndGet(classNode.innerClasses.size());
-                classNode.innerClasses.clear();
-            }
+        if (classNode.innerClasses != null) {
+            innerClasses.addAndGet(classNode.innerClasses.size());
+            classNode.innerClasses.clear();
+        }
 
-            if (classNode.signature != null) {
-                classSignatures.incrementAndGet();
-                classNode.signature = null;
-            }
+        if (classNode.signature != null) {
+            classSignatures.incrementAndGet();
+            classNode.signature = null;
+        }
+    }
 
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && methodWrapper.methodNode.signature != null).forEach(methodWrapper -> {
-                methodSignatures.incrementAndGet();
-                methodWrapper.methodNode.signature = null;
-            });
+    @Override
+    protected void transformField(FieldWrapper fieldWrapper) {
+        if (!excluded(fieldWrapper) && fieldWrapper.fieldNode.signature != null) {
+            fieldSignatures.incrementAndGet();
+            fieldWrapper.fieldNode.signature = null;
+        }
+    }
 
-            classWrapper.fields.parallelStream().filter(fieldWrapper -> !excluded(fieldWrapper)
-                    && fieldWrapper.fieldNode.signature != null).forEach(fieldWrapper -> {
-                fieldSignatures.incrementAndGet();
-                fieldWrapper.fieldNode.signature = null;
-            });
-        });
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (!excluded(methodWrapper) && methodWrapper.methodNode.signature != null) {
+            methodSignatures.incrementAndGet();
+            methodWrapper.methodNode.signature = null;
+        }
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Removed %d inner classes, %d outer classes, %d outer methods, %d class " +
                         "generic types, %d method generic types and %d field generic types.", innerClasses.get(),
                 outerClasses.get(), outerMethods.get(), classSignatures.get(), methodSignatures.get(),
@@ -18,14 +18,14 @@
 package me.itzsomebody.radon.transformers.shrinkers;
 
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.transformers.Transformer;
+import me.itzsomebody.radon.transformers.LocalTransformer;
 
 /**
  * Abstract class for shrinking transformers.
  *
  * @author ItzSomebody
  */
-public abstract class Shrinker extends Transformer {
+public abstract class Shrinker extends LocalTransformer {
     @Override
     protected ExclusionType getExclusionType() {
         return ExclusionType.SHRINKER;
@@ -17,6 +17,11 @@
 
 package me.itzsomebody.radon.transformers.shrinkers;
 
+import java.util.ArrayList;
+import java.util.List;
+import me.itzsomebody.radon.transformers.PassManager;
+import me.itzsomebody.radon.transformers.Transformer;
+
 /**
  * Enables and runs the shrinking transformers.
  *
@@ -29,28 +34,24 @@ public class ShrinkerDelegator extends Shrinker {
         this.setup = setup;
     }
 
+    @Override
+    public List<Transformer> getDelegates() {
+        List<Transformer> delegates = new ArrayList<>();
+        if (this.setup.isRemoveVisibleAnnotations())
+            delegates.add(new VisibleAnnotationsRemover());
+        if (this.setup.isRemoveInvisibleAnnotations())
+            delegates.add(new InvisibleAnnotationsRemover());
+        if (this.setup.isRemoveAttributes())
+            delegates.add(new AttributesRemover());
+        if (this.setup.isRemoveDebug())
+            delegates.add(new DebugInfoRemover());
+
+        return delegates;
+    }
+
     @Override
     public void transform() {
-        if (this.setup.isRemoveVisibleAnnotations()) {
-            VisibleAnnotationsRemover visibleAnnotationsRemover = new VisibleAnnotationsRemover();
-            visibleAnnotationsRemover.init(this.radon);
-            visibleAnnotationsRemover.transform();
-        }
-        if (this.setup.isRemoveInvisibleAnnotations()) {
-            InvisibleAnnotationsRemover invisibleAnnotationsRemover = new InvisibleAnnotationsRemover();
-            invisibleAnnotationsRemover.init(this.radon);
-            invisibleAnnotationsRemover.transform();
-        }
-        if (this.setup.isRemoveAttributes()) {
-            AttributesRemover attributesRemover = new AttributesRemover();
-            attributesRemover.init(this.radon);
-            attributesRemover.transform();
-        }
-        if (this.setup.isRemoveDebug()) {
-            DebugInfoRemover debugInfoRemover = new DebugInfoRemover();
-            debugInfoRemover.init(this.radon);
-            debugInfoRemover.transform();
-        }
+        new PassManager(this.radon).run(getDelegates());
     }
 
     @Override
@@ -18,6 +18,9 @@
 package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.FieldWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.utils.LoggerUtils;
 import org.objectweb.asm.tree.ClassNode;
 
@@ -27,33 +30,45 @@ import org.objectweb.asm.tree.ClassNode;
  * @author ItzSomebody
  */
 public class VisibleAnnotationsRemover extends Shrinker {
+    private AtomicInteger classAnnotations;
+    private AtomicInteger methodAnnotations;
+    private AtomicInteger fieldAnnotations;
+
     @Override
-    public void transform() {
-        AtomicInteger classAnnotations = new AtomicInteger();
-        AtomicInteger methodAnnotations = new AtomicInteger();
-        AtomicInteger fieldAnnotations = new AtomicInteger();
+    protected void begin() {
+        classAnnotations = new AtomicInteger();
+        methodAnnotations = new AtomicInteger();
+        fieldAnnotations = new AtomicInteger();
+    }
 
-        getClassWrappers().parallelStream().filter(classWrapper -> !excluded(classWrapper)).forEach(classWrapper -> {
-            ClassNode classNode = classWrapper.classNode;
+    @Override
+    protected void transformClass(ClassWrapper classWrapper) {
+        ClassNode classNode = classWrapper.classNode;
 
-            if (classNode.visibleAnnotations != null) {
-                classAnnotations.addAndGet(classNode.visibleAnnotations.size());
-                classNode.visibleAnnotations.clear();
-            }
+        if (classNode.visibleAnnotations != null) {
+            classAnnotations.addAndGet(classNode.visibleAnnotations.size());
+            classNode.visibleAnnotations.clear();
+        }
+    }
 
-            classWrapper.fields.parallelStream().filter(fieldWrapper -> !excluded(fieldWrapper)
-                    && fieldWrapper.fieldNode.visibleAnnotations != null).forEach(fieldWrapper -> {
-                fieldAnnotations.addAndGet(fieldWrapper.fieldNode.visibleAnnotations.size());
-                fieldWrapper.fieldNode.visibleAnnotations.clear();
-            });
+    @Override
+    protected void transformField(FieldWrapper fieldWrapper) {
+        if (!excluded(fieldWrapper) && fieldWrapper.fieldNode.visibleAnnotations != null) {
+            fieldAnnotations.addAndGet(fieldWrapper.fieldNode.visibleAnnotations.size());
+            fieldWrapper.fieldNode.visibleAnnotations.clear();
+        }
+    }
 
-            classWrapper.methods.parallelStream().filter(methodWrapper -> !excluded(methodWrapper)
-                    && methodWrapper.methodNode.visibleAnnotations != null).forEach(methodWrapper -> {
-                methodAnnotations.addAndGet(methodWrapper.methodNode.visibleAnnotations.size());
-                methodWrapper.methodNode.visibleAnnotations.clear();
-            });
-        });
+    @Override
+    protected void transformMethod(MethodWrapper methodWrapper) {
+        if (!excluded(methodWrapper) && methodWrapper.methodNode.visibleAnnotations != null) {
+            methodAnnotations.addAndGet(methodWrapper.methodNode.visibleAnnotations.size());
+            methodWrapper.methodNode.visibleAnnotations.clear();
+        }
+    }
 
+    @Override
+    protected void end() {
         LoggerUtils.stdOut(String.format("Removed %d class, %d method and %d field invisible annotations.",
                 classAnnotations.get(), methodAnnotations.get(), fieldAnnotations.get()));
     }
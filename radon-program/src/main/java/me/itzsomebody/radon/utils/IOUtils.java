@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import me.itzsomebody.radon.exceptions.ByteArrayConversionException;
 
 /**
@@ -60,11 +61,7 @@ public class IOUtils {
     public static byte[] toByteArray(InputStream in) {
         try {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            while (in.available() > 0) {
-                int data = in.read(buffer);
-                out.write(buffer, 0, data);
-            }
+            copy(in, out);
 
             in.close();
             out.close();
@@ -74,4 +71,19 @@ public class IOUtils {
             throw new ByteArrayConversionException(ioe);
         }
     }
+
+    /**
+     * Copies everything left in the given {@link InputStream} into the given {@link OutputStream}.
+     *
+     * @param in  {@link InputStream} to read from.
+     * @param out {@link OutputStream} to write to.
+     * @throws IOException if either stream fails.
+     */
+    public static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[65536];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
 }
@@ -39,6 +39,21 @@ public class LoggerUtils {
 
     private static List<String> strings = new ArrayList<>();
 
+    /**
+     * Whether messages are neither printed nor logged.
+     */
+    private static volatile boolean silent;
+
+    /**
+     * Stops or resumes printing and logging messages. Used by embedders which run Radon over and over again in the
+     * same process and don't want every message to be kept around.
+     *
+     * @param silent whether messages should be dropped.
+     */
+    public static void setSilent(boolean silent) {
+        LoggerUtils.silent = silent;
+    }
+
     /**
      * Writes strings to log.
      */
@@ -83,7 +98,10 @@ public class LoggerUtils {
      *
      * @param string to write to the console.
      */
-    public static void stdOut(String string) {
+    public static synchronized void stdOut(String string) {
+        if (silent)
+            return;
+
         String date = FORMAT.format(new Date(System.currentTimeMillis()));
         String formatted = "[" + date + "] INFO: " + string;
         System.out.println(formatted);
@@ -96,7 +114,10 @@ public class LoggerUtils {
      *
      * @param string to write to the console.
      */
-    public static void stdErr(String string) {
+    public static synchronized void stdErr(String string) {
+        if (silent)
+            return;
+
         String date = FORMAT.format(new Date(System.currentTimeMillis()));
         String formatted = "[" + date + "] ERROR: " + string;
         System.out.println(formatted);
@@ -109,7 +130,10 @@ public class LoggerUtils {
      *
      * @param string to write to the console.
      */
-    public static void stdWarn(String string) {
+    public static synchronized void stdWarn(String string) {
+        if (silent)
+            return;
+
         String date = FORMAT.format(new Date(System.currentTimeMillis()));
         String formatted = "[" + date + "] WARNING: " + string;
         System.out.println(formatted);